@@ -4,10 +4,12 @@ package com.example.notification.config;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 
 @Configuration
+@EnableScheduling
 public class SchedulingConfig {
 
     @Bean
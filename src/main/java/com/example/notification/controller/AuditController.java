@@ -2,13 +2,20 @@ package com.example.notification.controller;
 
 import com.example.notification.annotation.RateLimit;
 import com.example.notification.annotation.RequireRole;
+import com.example.notification.dto.CursorPage;
+import com.example.notification.dto.PageCursor;
 import com.example.notification.entity.NotificationAudit;
 import com.example.notification.enums.UserType;
 import com.example.notification.repository.NotificationAuditRepository;
+import com.example.notification.service.SegmentedAuditLog;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 
@@ -17,16 +24,43 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class AuditController {
 
+    // Newest first; id breaks ties between entries with the same timestamp
+    private static final Comparator<NotificationAudit> NEWEST_FIRST = Comparator
+            .comparing(NotificationAudit::getTimestamp)
+            .thenComparing(NotificationAudit::getId)
+            .reversed();
+
     @Autowired
     private NotificationAuditRepository auditRepository;
 
+    @Autowired
+    private SegmentedAuditLog segmentedAuditLog;
+
+    @Value("${notification.pagination.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${notification.pagination.max-page-size:200}")
+    private int maxPageSize;
+
     @GetMapping("/notification/{notificationId}")
     @RateLimit(maxRequests = 50, windowSeconds = 60, endpoint = "audit_notification")
     @RequireRole({UserType.ADMIN})
-    public ResponseEntity<List<NotificationAudit>> getNotificationAuditTrail(@PathVariable Long notificationId) {
+    public ResponseEntity<CursorPage<NotificationAudit>> getNotificationAuditTrail(
+            @PathVariable Long notificationId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
-            List<NotificationAudit> auditTrail = auditRepository.findByNotificationIdOrderByTimestampDesc(notificationId);
-            return ResponseEntity.ok(auditTrail);
+            PageCursor position = PageCursor.decode(cursor);
+            int pageSize = pageSize(limit);
+            List<NotificationAudit> rows = auditRepository.findNotificationTrailPage(notificationId,
+                    position.getTimestamp(), position.getId(), PageRequest.of(0, pageSize + 1));
+            if (segmentedAuditLog.isEnabled()) {
+                rows = merge(segmentedAuditLog.findByNotificationId(notificationId,
+                        position.getTimestamp(), position.getId(), pageSize + 1), rows);
+            }
+            return ResponseEntity.ok(toPage(rows, pageSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             System.err.println("Error fetching audit trail: " + e.getMessage());
             return ResponseEntity.internalServerError().build();
@@ -36,13 +70,53 @@ public class AuditController {
     @GetMapping("/user/{userId}")
     @RateLimit(maxRequests = 50, windowSeconds = 60, endpoint = "audit_user")
     @RequireRole({UserType.ADMIN})
-    public ResponseEntity<List<NotificationAudit>> getUserAuditTrail(@PathVariable String userId) {
+    public ResponseEntity<CursorPage<NotificationAudit>> getUserAuditTrail(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
-            List<NotificationAudit> auditTrail = auditRepository.findByUserIdOrderByTimestampDesc(userId);
-            return ResponseEntity.ok(auditTrail);
+            PageCursor position = PageCursor.decode(cursor);
+            int pageSize = pageSize(limit);
+            List<NotificationAudit> rows = auditRepository.findUserTrailPage(userId,
+                    position.getTimestamp(), position.getId(), PageRequest.of(0, pageSize + 1));
+            if (segmentedAuditLog.isEnabled()) {
+                rows = merge(segmentedAuditLog.findByUserId(userId,
+                        position.getTimestamp(), position.getId(), pageSize + 1), rows);
+            }
+            return ResponseEntity.ok(toPage(rows, pageSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             System.err.println("Error fetching user audit trail: " + e.getMessage());
             return ResponseEntity.internalServerError().build();
         }
     }
+
+    private int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    // Status transitions and bulk operations still write their audit rows in SQL, next to the update.
+    // Both sides are already one page past the cursor; the segment log only holds what this node wrote
+    private List<NotificationAudit> merge(List<NotificationAudit> fromLog, List<NotificationAudit> fromTable) {
+        List<NotificationAudit> merged = new ArrayList<>(fromTable);
+        merged.addAll(fromLog);
+        merged.sort(NEWEST_FIRST);
+        return merged;
+    }
+
+    // Rows were fetched with one extra to tell whether another page follows
+    private CursorPage<NotificationAudit> toPage(List<NotificationAudit> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<NotificationAudit> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            NotificationAudit last = page.get(page.size() - 1);
+            nextCursor = new PageCursor(last.getTimestamp(), last.getId()).encode();
+        }
+        return new CursorPage<>(new ArrayList<>(page), nextCursor, hasMore);
+    }
 }
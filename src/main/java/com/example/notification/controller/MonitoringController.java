@@ -3,7 +3,19 @@ package com.example.notification.controller;
 import com.example.notification.annotation.RateLimit;
 import com.example.notification.annotation.RequireRole;
 import com.example.notification.enums.UserType;
+import com.example.notification.service.AuditAppender;
+import com.example.notification.service.ChannelBulkheadService;
+import com.example.notification.service.CircuitBreakerService;
+import com.example.notification.service.HedgingService;
+import com.example.notification.service.IdempotentConsumerService;
 import com.example.notification.service.LoadBalancingService;
+import com.example.notification.service.PartitionMaintenanceService;
+import com.example.notification.service.PresenceService;
+import com.example.notification.service.PriorityAgingService;
+import com.example.notification.service.ProviderRegistry;
+import com.example.notification.service.ProviderThrottleService;
+import com.example.notification.service.RetrySweepService;
+import com.example.notification.service.SegmentedAuditLog;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,6 +31,42 @@ public class MonitoringController {
     @Autowired
     private LoadBalancingService loadBalancingService;
 
+    @Autowired
+    private PriorityAgingService priorityAgingService;
+
+    @Autowired
+    private ChannelBulkheadService bulkheadService;
+
+    @Autowired
+    private CircuitBreakerService circuitBreakerService;
+
+    @Autowired
+    private ProviderThrottleService providerThrottleService;
+
+    @Autowired
+    private HedgingService hedgingService;
+
+    @Autowired
+    private ProviderRegistry providerRegistry;
+
+    @Autowired
+    private IdempotentConsumerService idempotentConsumerService;
+
+    @Autowired
+    private RetrySweepService retrySweepService;
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @Autowired
+    private AuditAppender auditAppender;
+
+    @Autowired
+    private SegmentedAuditLog segmentedAuditLog;
+
+    @Autowired
+    private PartitionMaintenanceService partitionMaintenanceService;
+
     @GetMapping("/stats")
     @RateLimit(maxRequests = 30, windowSeconds = 60, endpoint = "monitoring_stats")
     @RequireRole({UserType.ADMIN})
@@ -34,12 +82,130 @@ public class MonitoringController {
                 "total", stats.getTotalPending()
         ));
         response.put("totalProcessed", stats.getTotalProcessed());
+        response.put("agingPromotions", priorityAgingService.getTotalPromoted());
         response.put("systemLoad", stats.getTotalPending() > 10000 ? "HIGH" : "NORMAL");
         response.put("timestamp", System.currentTimeMillis());
 
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/bulkheads")
+    @RateLimit(maxRequests = 30, windowSeconds = 60, endpoint = "monitoring_bulkheads")
+    @RequireRole({UserType.ADMIN})
+    public ResponseEntity<Map<String, Object>> getBulkheadStats() {
+        Map<String, Object> response = new HashMap<>();
+        bulkheadService.getBulkheadStats().forEach((channel, stats) -> response.put(channel.name(), Map.of(
+                "activeThreads", stats.getActiveThreads(),
+                "maxThreads", stats.getMaxThreads(),
+                "queued", stats.getQueued(),
+                "queueCapacity", stats.getQueueCapacity(),
+                "completed", stats.getCompleted(),
+                "rejected", stats.getRejected(),
+                "saturation", stats.getSaturation()
+        )));
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/circuit-breakers")
+    @RateLimit(maxRequests = 30, windowSeconds = 60, endpoint = "monitoring_circuit_breakers")
+    @RequireRole({UserType.ADMIN})
+    public ResponseEntity<Map<String, Object>> getCircuitBreakerStates() {
+        Map<String, Object> response = new HashMap<>();
+        circuitBreakerService.getBreakers().forEach(breaker -> response.put(breaker.getName(), Map.of(
+                "state", breaker.getState().name(),
+                "failureRate", breaker.getFailureRate(),
+                "slowCallRate", breaker.getSlowCallRate(),
+                "recordedCalls", breaker.getRecordedCalls()
+        )));
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/throttles")
+    @RateLimit(maxRequests = 30, windowSeconds = 60, endpoint = "monitoring_throttles")
+    @RequireRole({UserType.ADMIN})
+    public ResponseEntity<Map<String, Object>> getThrottleStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("throttles", providerThrottleService.getThrottleStats());
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/hedging")
+    @RateLimit(maxRequests = 30, windowSeconds = 60, endpoint = "monitoring_hedging")
+    @RequireRole({UserType.ADMIN})
+    public ResponseEntity<Map<String, Object>> getHedgeStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("hedging", hedgingService.getHedgeStats());
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/providers")
+    @RateLimit(maxRequests = 30, windowSeconds = 60, endpoint = "monitoring_providers")
+    @RequireRole({UserType.ADMIN})
+    public ResponseEntity<Map<String, Object>> getProviderStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("providers", providerRegistry.getProviderStats());
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/idempotency")
+    @RateLimit(maxRequests = 30, windowSeconds = 60, endpoint = "monitoring_idempotency")
+    @RequireRole({UserType.ADMIN})
+    public ResponseEntity<Map<String, Object>> getIdempotencyStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("idempotency", idempotentConsumerService.getStats());
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/retries")
+    @RateLimit(maxRequests = 30, windowSeconds = 60, endpoint = "monitoring_retries")
+    @RequireRole({UserType.ADMIN})
+    public ResponseEntity<Map<String, Object>> getRetryStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("retries", retrySweepService.getStats());
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/presence")
+    @RateLimit(maxRequests = 30, windowSeconds = 60, endpoint = "monitoring_presence")
+    @RequireRole({UserType.ADMIN})
+    public ResponseEntity<Map<String, Object>> getPresenceStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("enabled", presenceService.isEnabled());
+        response.put("presence", presenceService.getStats());
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/audit")
+    @RateLimit(maxRequests = 30, windowSeconds = 60, endpoint = "monitoring_audit")
+    @RequireRole({UserType.ADMIN})
+    public ResponseEntity<Map<String, Object>> getAuditStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("audit", auditAppender.getStats());
+        if (segmentedAuditLog.isEnabled()) {
+            response.put("segmentLog", segmentedAuditLog.getStats());
+        }
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/partitions")
+    @RateLimit(maxRequests = 30, windowSeconds = 60, endpoint = "monitoring_partitions")
+    @RequireRole({UserType.ADMIN})
+    public ResponseEntity<Map<String, Object>> getPartitionStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("partitions", partitionMaintenanceService.getStats());
+        response.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/health")
     @RateLimit(maxRequests = 100, windowSeconds = 60, endpoint = "health_check")
     public ResponseEntity<Map<String, String>> healthCheck() {
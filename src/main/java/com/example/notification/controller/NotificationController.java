@@ -2,6 +2,7 @@ package com.example.notification.controller;
 
 import com.example.notification.annotation.RateLimit;
 import com.example.notification.annotation.RequireRole;
+import com.example.notification.dto.CursorPage;
 import com.example.notification.dto.NotificationRequest;
 import com.example.notification.dto.NotificationResponse;
 import com.example.notification.enums.UserType;
@@ -39,10 +40,15 @@ public class NotificationController {
     @GetMapping("/user/{userId}")
     @RateLimit(maxRequests = 100, windowSeconds = 60, endpoint = "get_user_notifications")
     @RequireRole({UserType.REGULAR, UserType.VIP, UserType.ADMIN})
-    public ResponseEntity<List<NotificationResponse>> getUserNotifications(@PathVariable String userId) {
+    public ResponseEntity<CursorPage<NotificationResponse>> getUserNotifications(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
-            List<NotificationResponse> notifications = notificationService.getUserNotifications(userId);
+            CursorPage<NotificationResponse> notifications = notificationService.getUserNotifications(userId, cursor, limit);
             return ResponseEntity.ok(notifications);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             System.err.println("Error fetching user notifications: " + e.getMessage());
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
@@ -52,10 +58,15 @@ public class NotificationController {
     @GetMapping("/user/all/{userId}")
     @RateLimit(maxRequests = 50, windowSeconds = 60, endpoint = "get_all_user_notifications")
     @RequireRole({UserType.REGULAR, UserType.VIP, UserType.ADMIN})
-    public ResponseEntity<List<NotificationResponse>> getAllUserNotifications(@PathVariable String userId) {
+    public ResponseEntity<CursorPage<NotificationResponse>> getAllUserNotifications(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
-            List<NotificationResponse> notifications = notificationService.getAllUserNotifications(userId);
+            CursorPage<NotificationResponse> notifications = notificationService.getAllUserNotifications(userId, cursor, limit);
             return ResponseEntity.ok(notifications);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             System.err.println("Error fetching user notifications: " + e.getMessage());
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
@@ -65,10 +76,15 @@ public class NotificationController {
     @GetMapping("/user/scheduled/{userId}")
     @RateLimit(maxRequests = 30, windowSeconds = 60, endpoint = "get_scheduled_notifications")
     @RequireRole({UserType.REGULAR, UserType.VIP, UserType.ADMIN})
-    public ResponseEntity<List<NotificationResponse>> getScheduledNotifications(@PathVariable String userId) {
+    public ResponseEntity<CursorPage<NotificationResponse>> getScheduledNotifications(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
-            List<NotificationResponse> notifications = notificationService.getScheduledNotifications(userId);
+            CursorPage<NotificationResponse> notifications = notificationService.getScheduledNotifications(userId, cursor, limit);
             return ResponseEntity.ok(notifications);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             System.err.println("Error fetching scheduled notifications: " + e.getMessage());
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
@@ -0,0 +1,70 @@
+package com.example.notification.controller;
+
+import com.example.notification.annotation.RateLimit;
+import com.example.notification.annotation.RequireRole;
+import com.example.notification.dto.RecurringNotificationRequest;
+import com.example.notification.dto.RecurringNotificationResponse;
+import com.example.notification.enums.UserType;
+import com.example.notification.service.RecurringNotificationService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/notifications/recurring")
+@CrossOrigin(origins = "*")
+public class RecurringNotificationController {
+
+    @Autowired
+    private RecurringNotificationService recurringNotificationService;
+
+    @PostMapping
+    @RateLimit(maxRequests = 20, windowSeconds = 60, endpoint = "create_recurring_notification")
+    @RequireRole({UserType.REGULAR, UserType.VIP, UserType.ADMIN})
+    public ResponseEntity<RecurringNotificationResponse> createRecurringNotification(
+            @Valid @RequestBody RecurringNotificationRequest request) {
+        try {
+            RecurringNotificationResponse response = recurringNotificationService.createSeries(request);
+            return new ResponseEntity<>(response, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid recurrence rule: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            System.err.println("Error creating recurring notification: " + e.getMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping("/user/{userId}")
+    @RateLimit(maxRequests = 30, windowSeconds = 60, endpoint = "get_recurring_notifications")
+    @RequireRole({UserType.REGULAR, UserType.VIP, UserType.ADMIN})
+    public ResponseEntity<List<RecurringNotificationResponse>> getRecurringNotifications(@PathVariable String userId) {
+        try {
+            return ResponseEntity.ok(recurringNotificationService.getActiveSeries(userId));
+        } catch (Exception e) {
+            System.err.println("Error fetching recurring notifications: " + e.getMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @DeleteMapping("/{id}/cancel")
+    @RateLimit(maxRequests = 20, windowSeconds = 60, endpoint = "cancel_recurring_notification")
+    @RequireRole({UserType.REGULAR, UserType.VIP, UserType.ADMIN})
+    public ResponseEntity<String> cancelRecurringNotification(@PathVariable Long id, @RequestParam String userId) {
+        try {
+            boolean cancelled = recurringNotificationService.cancelSeries(id, userId);
+            if (cancelled) {
+                return ResponseEntity.ok("Recurring notification cancelled successfully");
+            } else {
+                return ResponseEntity.badRequest().body("Series not found, not active, or not owned by user");
+            }
+        } catch (Exception e) {
+            System.err.println("Error cancelling recurring notification: " + e.getMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.notification.controller;
+
+import com.example.notification.annotation.RateLimit;
+import com.example.notification.annotation.RequireRole;
+import com.example.notification.dto.BulkOperationResult;
+import com.example.notification.dto.BulkRescheduleRequest;
+import com.example.notification.dto.ScheduledNotificationFilter;
+import com.example.notification.enums.UserType;
+import com.example.notification.service.BulkScheduleService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/notifications/scheduled")
+@CrossOrigin(origins = "*")
+public class ScheduledNotificationController {
+
+    @Autowired
+    private BulkScheduleService bulkScheduleService;
+
+    @PostMapping("/bulk-cancel")
+    @RateLimit(maxRequests = 10, windowSeconds = 60, endpoint = "bulk_cancel_scheduled")
+    @RequireRole({UserType.ADMIN})
+    public ResponseEntity<BulkOperationResult> bulkCancel(@RequestBody ScheduledNotificationFilter filter) {
+        try {
+            return ResponseEntity.ok(bulkScheduleService.cancelScheduled(filter, "Cancelled by bulk operation"));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid bulk cancel request: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            System.err.println("Error bulk cancelling notifications: " + e.getMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @PostMapping("/bulk-reschedule")
+    @RateLimit(maxRequests = 10, windowSeconds = 60, endpoint = "bulk_reschedule_scheduled")
+    @RequireRole({UserType.ADMIN})
+    public ResponseEntity<BulkOperationResult> bulkReschedule(@Valid @RequestBody BulkRescheduleRequest request) {
+        try {
+            return ResponseEntity.ok(bulkScheduleService.reschedule(request.getFilter(), request.getScheduledAt()));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid bulk reschedule request: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            System.err.println("Error bulk rescheduling notifications: " + e.getMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
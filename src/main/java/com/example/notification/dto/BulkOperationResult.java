@@ -0,0 +1,13 @@
+package com.example.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BulkOperationResult {
+    private long matched;        // Rows selected by the filter
+    private long updated;        // Rows actually changed (others moved on concurrently)
+    private long timersUpdated;  // In-memory timers or Redis entries cancelled/replaced
+    private long elapsedMs;
+}
@@ -0,0 +1,17 @@
+package com.example.notification.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class BulkRescheduleRequest {
+    @NotNull
+    @Valid
+    private ScheduledNotificationFilter filter;
+
+    @NotNull
+    private LocalDateTime scheduledAt;
+}
@@ -4,11 +4,14 @@ import com.example.notification.enums.NotificationChannel;
 import com.example.notification.enums.NotificationPriority;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.Map;
+import java.util.Set;
 
 @Data
 public class NotificationRequest {
@@ -27,11 +30,21 @@ public class NotificationRequest {
     @NotNull
     private NotificationChannel channel;
 
+    // Optional extra channels; the notification is delivered on channel plus all of these in parallel
+    private Set<NotificationChannel> channels;
+
     private Map<String, String> metadata;
 
     // NEW: Optional scheduled time - if null, send immediately
     private LocalDateTime scheduledAt;
 
+    // Optional expiry - the notification is dropped instead of sent once this passes.
+    // ttlSeconds is relative to the send time (scheduledAt, or now for immediate sends)
+    private LocalDateTime expiresAt;
+
+    @Positive
+    private Long ttlSeconds;
+
     // Constructors
     public NotificationRequest() {}
 
@@ -55,4 +68,22 @@ public class NotificationRequest {
     public boolean isScheduled() {
         return scheduledAt != null && scheduledAt.isAfter(LocalDateTime.now());
     }
+
+    // Every channel the notification should go out on
+    public Set<NotificationChannel> resolveChannels() {
+        Set<NotificationChannel> resolved = EnumSet.of(channel);
+        if (channels != null) {
+            resolved.addAll(channels);
+        }
+        return resolved;
+    }
+
+    // Resolve expiresAt/ttlSeconds against the time the notification becomes due; the earlier wins
+    public LocalDateTime resolveExpiresAt(LocalDateTime sendTime) {
+        LocalDateTime ttlExpiry = ttlSeconds != null ? sendTime.plusSeconds(ttlSeconds) : null;
+        if (expiresAt == null) {
+            return ttlExpiry;
+        }
+        return ttlExpiry != null && ttlExpiry.isBefore(expiresAt) ? ttlExpiry : expiresAt;
+    }
 }
@@ -5,6 +5,8 @@ import com.example.notification.enums.NotificationPriority;
 import com.example.notification.enums.NotificationStatus;
 import lombok.Data;
 
+import java.util.Set;
+
 @Data
 public class NotificationResponse {
     private Long id;
@@ -17,5 +19,11 @@ public class NotificationResponse {
     private String createdAt;
     private String scheduledAt;  // NEW: Show when notification is scheduled
     private String sentAt;
+    private String expiresAt;
     private boolean isScheduled; // NEW: Flag to indicate if notification is scheduled
+
+    // Multi-channel notifications only
+    private Set<NotificationChannel> channels;
+    private Set<NotificationChannel> deliveredChannels;
+    private Set<NotificationChannel> failedChannels;
 }
@@ -0,0 +1,31 @@
+package com.example.notification.dto;
+
+import com.example.notification.enums.NotificationChannel;
+import com.example.notification.enums.NotificationPriority;
+import com.example.notification.enums.NotificationStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Columns the read endpoints show. Repository queries returning this select just these columns,
+ * so history pages do not hydrate entities; {@link com.example.notification.entity.Notification}
+ * implements it as well, so one conversion serves both.
+ */
+public interface NotificationView {
+    Long getId();
+    String getUserId();
+    String getTitle();
+    String getMessage();
+    NotificationPriority getPriority();
+    NotificationChannel getChannel();
+    NotificationStatus getStatus();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getScheduledAt();
+    LocalDateTime getSentAt();
+    LocalDateTime getExpiresAt();
+
+    // Multi-channel delivery state; null on single-channel notifications
+    Integer getChannelMask();
+    Integer getDeliveredMask();
+    Integer getFailedMask();
+}
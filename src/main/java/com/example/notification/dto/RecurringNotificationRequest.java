@@ -0,0 +1,34 @@
+package com.example.notification.dto;
+
+import com.example.notification.enums.NotificationChannel;
+import com.example.notification.enums.NotificationPriority;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class RecurringNotificationRequest {
+    @NotBlank
+    private String userId;
+
+    @NotBlank
+    private String title;
+
+    @NotBlank
+    private String message;
+
+    @NotNull
+    private NotificationPriority priority;
+
+    @NotNull
+    private NotificationChannel channel;
+
+    // Spring cron expression, e.g. "0 0 9 * * MON-FRI" for weekdays at 09:00
+    @NotBlank
+    private String cronExpression;
+
+    // Optional: no occurrences are produced after this time
+    private LocalDateTime endAt;
+}
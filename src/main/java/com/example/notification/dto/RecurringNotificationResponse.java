@@ -0,0 +1,20 @@
+package com.example.notification.dto;
+
+import com.example.notification.enums.NotificationChannel;
+import com.example.notification.enums.NotificationPriority;
+import lombok.Data;
+
+@Data
+public class RecurringNotificationResponse {
+    private Long id;
+    private String userId;
+    private String title;
+    private NotificationPriority priority;
+    private NotificationChannel channel;
+    private String cronExpression;
+    private String nextFireAt;
+    private String lastFiredAt;
+    private String endAt;
+    private long occurrenceCount;
+    private boolean active;
+}
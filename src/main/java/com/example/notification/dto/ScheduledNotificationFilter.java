@@ -0,0 +1,28 @@
+package com.example.notification.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Selects SCHEDULED notifications for bulk operations; unset fields are ignored
+@Data
+public class ScheduledNotificationFilter {
+    private String userId;
+    private Long seriesId;
+
+    // Matches metadata entry "campaignId"
+    private String campaignId;
+
+    // Range on scheduledAt (inclusive)
+    private LocalDateTime scheduledFrom;
+    private LocalDateTime scheduledTo;
+
+    // Matches any metadata entry with this key, optionally restricted to a value
+    private String tagKey;
+    private String tagValue;
+
+    public boolean isEmpty() {
+        return userId == null && seriesId == null && campaignId == null &&
+                scheduledFrom == null && scheduledTo == null && tagKey == null;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.notification.entity;
+
+import com.example.notification.enums.NotificationChannel;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Embeddable;
+import lombok.Data;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Channel set and per-channel delivery outcome of a multi-channel notification, kept as three
+ * bitmasks on the notification row (bit = channel ordinal, so channels may only be appended to
+ * {@link NotificationChannel}). Null on single-channel notifications.
+ */
+@Data
+@Embeddable
+public class ChannelDeliveryState {
+
+    private Integer channelMask;
+    private Integer deliveredMask;
+    private Integer failedMask;
+
+    public ChannelDeliveryState() {}
+
+    public ChannelDeliveryState(Collection<NotificationChannel> channels) {
+        this.channelMask = maskOf(channels);
+        this.deliveredMask = 0;
+        this.failedMask = 0;
+    }
+
+    public static int maskOf(Collection<NotificationChannel> channels) {
+        int mask = 0;
+        for (NotificationChannel channel : channels) {
+            mask |= 1 << channel.ordinal();
+        }
+        return mask;
+    }
+
+    public static Set<NotificationChannel> channelsOf(Integer mask) {
+        Set<NotificationChannel> channels = EnumSet.noneOf(NotificationChannel.class);
+        if (mask != null) {
+            for (NotificationChannel channel : NotificationChannel.values()) {
+                if ((mask & (1 << channel.ordinal())) != 0) {
+                    channels.add(channel);
+                }
+            }
+        }
+        return channels;
+    }
+
+    @JsonIgnore
+    public Set<NotificationChannel> getChannels() {
+        return channelsOf(channelMask);
+    }
+
+    @JsonIgnore
+    public Set<NotificationChannel> getDeliveredChannels() {
+        return channelsOf(deliveredMask);
+    }
+
+    @JsonIgnore
+    public Set<NotificationChannel> getFailedChannels() {
+        return channelsOf(failedMask);
+    }
+
+    public static boolean isMultiChannel(Integer channelMask) {
+        return channelMask != null && Integer.bitCount(channelMask) > 1;
+    }
+
+    @JsonIgnore
+    public boolean isMultiChannel() {
+        return isMultiChannel(channelMask);
+    }
+}
@@ -1,12 +1,16 @@
 package com.example.notification.entity;
 
+import com.example.notification.dto.NotificationView;
 import com.example.notification.enums.NotificationChannel;
 import com.example.notification.enums.NotificationPriority;
 import com.example.notification.enums.NotificationStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 import java.util.Map;
@@ -15,7 +19,7 @@ import java.util.Map;
 @Table(name = "notifications")
 @Data
 @AllArgsConstructor
-public class Notification {
+public class Notification implements NotificationView {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -39,16 +43,33 @@ public class Notification {
     @Enumerated(EnumType.STRING)
     private NotificationStatus status;
 
-    @ElementCollection
-    @CollectionTable(name = "notification_metadata")
+    // One JSONB column on the row instead of a collection table: loading a notification is one select
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
     private Map<String, String> metadata;
 
     private LocalDateTime createdAt;
     private LocalDateTime scheduledAt;
     private LocalDateTime sentAt;
+
+    // When the current consumer claimed the notification; a claim older than the lease is abandoned
+    private LocalDateTime processingStartedAt;
     private int retryCount;
     private String errorMessage;
 
+    // When a RETRYING notification is handed back to the queue by the retry sweep
+    private LocalDateTime retryAt;
+
+    // Set when this notification is an occurrence of a recurring series
+    private Long seriesId;
+
+    // Optional time-to-live; expired notifications are dropped instead of sent
+    private LocalDateTime expiresAt;
+
+    // Set when the notification goes out on several channels at once
+    @Embedded
+    private ChannelDeliveryState deliveryState;
+
 
     public Notification() {
         this.createdAt = LocalDateTime.now();
@@ -66,4 +87,31 @@ public class Notification {
         this.channel = channel;
     }
 
+    public boolean isExpired(LocalDateTime now) {
+        return expiresAt != null && now.isAfter(expiresAt);
+    }
+
+    @JsonIgnore
+    public boolean isMultiChannel() {
+        return deliveryState != null && deliveryState.isMultiChannel();
+    }
+
+    @Override
+    @JsonIgnore
+    public Integer getChannelMask() {
+        return deliveryState != null ? deliveryState.getChannelMask() : null;
+    }
+
+    @Override
+    @JsonIgnore
+    public Integer getDeliveredMask() {
+        return deliveryState != null ? deliveryState.getDeliveredMask() : null;
+    }
+
+    @Override
+    @JsonIgnore
+    public Integer getFailedMask() {
+        return deliveryState != null ? deliveryState.getFailedMask() : null;
+    }
+
 }
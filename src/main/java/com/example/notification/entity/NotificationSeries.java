@@ -0,0 +1,63 @@
+package com.example.notification.entity;
+
+import com.example.notification.enums.NotificationChannel;
+import com.example.notification.enums.NotificationPriority;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// One row per recurring notification; occurrences are materialized one at a time from nextFireAt
+@Data
+@Entity
+@Table(name = "notification_series",
+        indexes = @Index(name = "idx_series_next_fire", columnList = "active, nextFireAt"))
+public class NotificationSeries {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String userId;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(columnDefinition = "TEXT")
+    private String message;
+
+    @Enumerated(EnumType.STRING)
+    private NotificationPriority priority;
+
+    @Enumerated(EnumType.STRING)
+    private NotificationChannel channel;
+
+    // Spring cron expression (second minute hour day-of-month month day-of-week)
+    @Column(nullable = false)
+    private String cronExpression;
+
+    private LocalDateTime nextFireAt;
+    private LocalDateTime lastFiredAt;
+    private LocalDateTime endAt;
+    private boolean active;
+    private long occurrenceCount;
+    private LocalDateTime createdAt;
+
+    public NotificationSeries() {
+        this.createdAt = LocalDateTime.now();
+        this.active = true;
+    }
+
+    public NotificationSeries(String userId, String title, String message,
+                              NotificationPriority priority, NotificationChannel channel,
+                              String cronExpression) {
+        this();
+        this.userId = userId;
+        this.title = title;
+        this.message = message;
+        this.priority = priority;
+        this.channel = channel;
+        this.cronExpression = cronExpression;
+    }
+}
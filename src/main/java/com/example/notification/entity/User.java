@@ -2,9 +2,11 @@ package com.example.notification.entity;
 
 import com.example.notification.enums.NotificationChannel;
 import com.example.notification.enums.UserType;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 
+import java.util.EnumMap;
 import java.util.Map;
 
 @Data
@@ -23,9 +25,11 @@ public class User {
     @Enumerated(EnumType.STRING)
     private UserType userType;
 
-    @ElementCollection
-    @CollectionTable(name = "user_preferences")
-    private Map<NotificationChannel, Boolean> channelPreferences;
+    // Channels the user turned off (bit = channel ordinal); 0 means every channel is on, so channels
+    // added to NotificationChannel later start enabled
+    @JsonIgnore
+    @Column(nullable = false)
+    private int disabledChannelMask;
 
     public User() {}
 
@@ -35,5 +39,29 @@ public class User {
         this.userType = userType;
     }
 
+    public Map<NotificationChannel, Boolean> getChannelPreferences() {
+        Map<NotificationChannel, Boolean> preferences = new EnumMap<>(NotificationChannel.class);
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            preferences.put(channel, isChannelEnabled(channel));
+        }
+        return preferences;
+    }
+
+    // Channels left out of the map are enabled
+    public void setChannelPreferences(Map<NotificationChannel, Boolean> preferences) {
+        int mask = 0;
+        if (preferences != null) {
+            for (Map.Entry<NotificationChannel, Boolean> preference : preferences.entrySet()) {
+                if (Boolean.FALSE.equals(preference.getValue())) {
+                    mask |= 1 << preference.getKey().ordinal();
+                }
+            }
+        }
+        this.disabledChannelMask = mask;
+    }
+
+    public boolean isChannelEnabled(NotificationChannel channel) {
+        return (disabledChannelMask & (1 << channel.ordinal())) == 0;
+    }
 
-}
\ No newline at end of file
+}
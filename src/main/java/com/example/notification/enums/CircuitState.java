@@ -0,0 +1,7 @@
+package com.example.notification.enums;
+
+public enum CircuitState {
+    CLOSED,     // Calls flow normally, outcomes are recorded
+    OPEN,       // Calls fail fast until the wait duration passes
+    HALF_OPEN   // A few probe calls decide between CLOSED and OPEN
+}
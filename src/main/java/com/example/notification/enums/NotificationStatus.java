@@ -6,5 +6,6 @@ public enum NotificationStatus {
     PROCESSING,
     SENT,
     FAILED,
-    RETRYING
+    RETRYING,
+    EXPIRED       // Dropped because its time-to-live passed before it could be sent
 }
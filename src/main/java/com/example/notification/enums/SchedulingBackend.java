@@ -0,0 +1,6 @@
+package com.example.notification.enums;
+
+public enum SchedulingBackend {
+    LOCAL,  // Per-JVM TaskScheduler timers fed by the rolling window loader
+    REDIS   // Shared Redis sorted set polled by every node
+}
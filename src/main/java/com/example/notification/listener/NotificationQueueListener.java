@@ -3,13 +3,22 @@ package com.example.notification.listener;
 import com.example.notification.config.RabbitMQConfig;
 import com.example.notification.entity.Notification;
 import com.example.notification.enums.NotificationChannel;
+import com.example.notification.enums.NotificationStatus;
+import com.example.notification.processor.MultiChannelDispatcher;
 import com.example.notification.processor.NotificationProcessor;
+import com.example.notification.service.CircuitBreakerService;
+import com.example.notification.service.IdempotentConsumerService;
+import com.example.notification.service.NotificationExpiryService;
+import com.example.notification.service.StatusTransitionService;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -18,6 +27,29 @@ public class NotificationQueueListener {
 
     private final Map<NotificationChannel, NotificationProcessor> processors;
 
+    @Autowired
+    private NotificationExpiryService expiryService;
+
+    // Hand provider calls off to the async SPI instead of blocking the consumer thread
+    @Value("${notification.processing.async.enabled:false}")
+    private boolean asyncProcessing;
+
+    // Run blocking sends on per-channel executors instead of the priority listener's thread
+    @Value("${notification.bulkhead.enabled:false}")
+    private boolean bulkheadsEnabled;
+
+    @Autowired
+    private CircuitBreakerService circuitBreakerService;
+
+    @Autowired
+    private IdempotentConsumerService idempotentConsumerService;
+
+    @Autowired
+    private MultiChannelDispatcher multiChannelDispatcher;
+
+    @Autowired
+    private StatusTransitionService statusTransitionService;
+
     @Autowired
     public NotificationQueueListener(List<NotificationProcessor> processorList) {
         this.processors = processorList.stream()
@@ -68,9 +100,61 @@ public class NotificationQueueListener {
     }
 
     private void processNotification(Notification notification) {
-        NotificationProcessor processor = processors.get(notification.getChannel());
+        // Redelivered or re-published notification this node already finished: no DB round trip needed
+        if (idempotentConsumerService.isDuplicate(notification.getId())) {
+            System.out.println("⏭️ Skipping duplicate delivery of notification " + notification.getId());
+            return;
+        }
+
+        // Cheap in-memory check first: stale work is dropped before any DB or provider call
+        if (notification.isExpired(LocalDateTime.now())) {
+            System.out.println("⌛ Dropping expired notification " + notification.getId() +
+                    " (expired at " + notification.getExpiresAt() + ")");
+            expiryService.markExpired(notification.getId());
+            return;
+        }
+
+        if (notification.isMultiChannel()) {
+            // One claim, channels sent in parallel, one combined status update. The dispatcher applies
+            // each channel's in-flight window and bulkhead, so the consumer does not wait for the sends
+            long startTime = System.currentTimeMillis();
+            multiChannelDispatcher.dispatch(notification).whenComplete((result, error) ->
+                    System.out.println("✅ Completed " + notification.getPriority() +
+                            " multi-channel notification " + notification.getId() +
+                            " in " + (System.currentTimeMillis() - startTime) + "ms"));
+            return;
+        }
+
+        NotificationProcessor channelProcessor = processors.get(notification.getChannel());
+        if (channelProcessor != null && !circuitBreakerService.tryAcquirePermission(notification.getChannel())) {
+            channelProcessor = routeAroundOpenCircuit(notification, channelProcessor);
+            if (channelProcessor == null) {
+                return;
+            }
+        }
+
+        NotificationProcessor processor = channelProcessor;
         if (processor != null) {
             long startTime = System.currentTimeMillis();
+
+            if (asyncProcessing) {
+                // Returns as soon as the provider call is in flight; the callback records the outcome
+                processor.processNotificationAsync(notification).whenComplete((result, error) ->
+                        System.out.println("✅ Completed " + notification.getPriority() +
+                                " notification " + notification.getId() +
+                                " in " + (System.currentTimeMillis() - startTime) + "ms (async)"));
+                return;
+            }
+
+            if (bulkheadsEnabled) {
+                // Claimed on this thread before the hand-off; a full bulkhead sends it to the retry path
+                processor.processNotificationInBulkhead(notification).whenComplete((result, error) ->
+                        System.out.println("✅ Completed " + notification.getPriority() +
+                                " notification " + notification.getId() +
+                                " in " + (System.currentTimeMillis() - startTime) + "ms (bulkhead)"));
+                return;
+            }
+
             processor.processNotification(notification);
             long processingTime = System.currentTimeMillis() - startTime;
 
@@ -81,4 +165,31 @@ public class NotificationQueueListener {
             System.err.println("❌ No processor found for channel: " + notification.getChannel());
         }
     }
+
+    // Channel breaker is open: use the configured fallback channel if it is healthy, else defer until it may probe again
+    private NotificationProcessor routeAroundOpenCircuit(Notification notification, NotificationProcessor processor) {
+        NotificationChannel originalChannel = notification.getChannel();
+        Optional<NotificationChannel> fallback = circuitBreakerService
+                .getFallbackChannel(originalChannel, notification.getPriority());
+
+        if (fallback.isPresent() && processors.containsKey(fallback.get()) &&
+                circuitBreakerService.tryAcquirePermission(fallback.get())) {
+            // Stored with an audit row, so the notification's channel reflects where it was actually sent
+            NotificationStatus queuedStatus = notification.getStatus() != null
+                    ? notification.getStatus() : NotificationStatus.PENDING;
+            if (!statusTransitionService.reroute(notification.getId(), queuedStatus, fallback.get(),
+                    originalChannel + " circuit open - re-routed to " + fallback.get())) {
+                System.out.println("⏭️ Notification " + notification.getId() + " is no longer " + queuedStatus + ", skipping");
+                return null;
+            }
+            System.out.println("🔀 " + originalChannel + " circuit open - re-routing " + notification.getPriority() +
+                    " notification " + notification.getId() + " to " + fallback.get());
+            notification.setChannel(fallback.get());
+            return processors.get(fallback.get());
+        }
+
+        processor.rejectNotification(notification, originalChannel + " circuit open",
+                circuitBreakerService.getOpenDurationMs());
+        return null;
+    }
 }
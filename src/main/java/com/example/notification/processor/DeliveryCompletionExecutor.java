@@ -0,0 +1,49 @@
+package com.example.notification.processor;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the completion callbacks of async sends. Provider futures complete on whatever thread the
+ * provider uses (the common ForkJoin pool, the HTTP client's executor, the push batcher), and the
+ * callbacks do blocking JDBC for the status transition, so they hop to this pool instead of
+ * occupying threads that are not meant to block.
+ */
+@Component
+public class DeliveryCompletionExecutor implements Executor {
+
+    // Threads recording send outcomes; each holds a database connection while it runs
+    @Value("${notification.processing.async.completion-threads:16}")
+    private int threads;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "delivery-completion-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -1,20 +1,114 @@
 package com.example.notification.processor;
 
 import com.example.notification.entity.Notification;
+import com.example.notification.entity.User;
 import com.example.notification.enums.NotificationChannel;
+import com.example.notification.service.ProviderRegistry;
+import com.example.notification.service.UserService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 @Component
 public class EmailNotificationProcessor extends NotificationProcessor {
 
+    @Autowired
+    private SmtpConnectionPool smtpConnectionPool;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ProviderRegistry providerRegistry;
+
+    // Deliver through the SMTP pool; when false the simulated sender is used (local development)
+    @Value("${notification.email.smtp.enabled:false}")
+    private boolean smtpEnabled;
+
+    @Value("${notification.email.from:no-reply@example.com}")
+    private String fromAddress;
+
+    @Value("${notification.email.render-threads:2}")
+    private int renderThreads;
+
+    @Value("${notification.email.pool.size:4}")
+    private int sendThreads;
+
+    private ExecutorService renderExecutor;
+    private ExecutorService sendExecutor;
+
+    @PostConstruct
+    void startExecutors() {
+        renderExecutor = Executors.newFixedThreadPool(renderThreads, runnable -> new Thread(runnable, "email-render"));
+        // One sender thread per pooled connection keeps every connection busy without oversubscribing it
+        sendExecutor = Executors.newFixedThreadPool(sendThreads, runnable -> new Thread(runnable, "email-send"));
+    }
+
+    @PreDestroy
+    void stopExecutors() {
+        renderExecutor.shutdown();
+        sendExecutor.shutdown();
+    }
+
     @Override
     public NotificationChannel getChannel() {
         return NotificationChannel.EMAIL;
     }
 
+    // Hedges only through the email API vendors, both attempts to the same one: the SMTP relay has no
+    // idempotency key and would deliver twice
+    @Override
+    protected boolean supportsHedging() {
+        return providerRegistry.hasProviders(NotificationChannel.EMAIL);
+    }
+
+    @Override
+    protected String selectProvider() {
+        return providerRegistry.hasProviders(NotificationChannel.EMAIL)
+                ? providerRegistry.selectProvider(NotificationChannel.EMAIL) : null;
+    }
+
+    @Override
+    protected CompletionStage<Boolean> sendAsync(Notification notification, String provider) {
+        return provider != null ? sendThroughProviders(notification, provider) : sendNotificationAsync(notification);
+    }
+
     @Override
     public boolean sendNotification(Notification notification) {
+        if (providerRegistry.hasProviders(NotificationChannel.EMAIL)) {
+            // A failed send surfaces as an exception, so a recipient miss stays distinguishable
+            return sendThroughProviders(notification, null).toCompletableFuture().join();
+        }
+
         try {
+            if (smtpEnabled) {
+                // Rendering stays on the render pool in both paths; this thread only waits for it
+                MimeMessage message;
+                try {
+                    message = CompletableFuture.supplyAsync(() -> renderUnchecked(notification), renderExecutor).join();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof RecipientUnavailableException) {
+                        throw (RecipientUnavailableException) e.getCause();
+                    }
+                    throw e;
+                }
+                smtpConnectionPool.send(message);
+                return true;
+            }
+
             // Email sending logic here
             System.out.println("Sending EMAIL notification: " + notification.getTitle() + " to " + notification.getUserId());
 
@@ -22,8 +116,74 @@ public class EmailNotificationProcessor extends NotificationProcessor {
             Thread.sleep(100);
 
             return true;
+        } catch (RecipientUnavailableException e) {
+            throw e;
         } catch (Exception e) {
+            System.err.println("Error sending email notification: " + e.getMessage());
             return false;
         }
     }
+
+    @Override
+    public CompletionStage<Boolean> sendNotificationAsync(Notification notification) {
+        if (providerRegistry.hasProviders(NotificationChannel.EMAIL)) {
+            return sendThroughProviders(notification, null);
+        }
+
+        if (smtpEnabled) {
+            // Render (recipient lookup + MIME build) and SMTP I/O each run on their own pool
+            return CompletableFuture.supplyAsync(() -> renderUnchecked(notification), renderExecutor)
+                    .thenApplyAsync(message -> {
+                        try {
+                            smtpConnectionPool.send(message);
+                            return true;
+                        } catch (MessagingException e) {
+                            throw new CompletionException(e);
+                        }
+                    }, sendExecutor);
+        }
+
+        // Simulated provider latency without holding a thread for the duration
+        return CompletableFuture.supplyAsync(() -> {
+            System.out.println("Sending EMAIL notification: " + notification.getTitle() + " to " + notification.getUserId());
+            return true;
+        }, CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS));
+    }
+
+    // Email API vendors (notification.providers.email) take precedence over the single SMTP relay;
+    // provider is the vendor picked for this send (null lets the registry pick)
+    private CompletionStage<Boolean> sendThroughProviders(Notification notification, String provider) {
+        String recipient = userService.findById(notification.getUserId())
+                .map(User::getEmail)
+                .orElse(null);
+        if (recipient == null) {
+            return CompletableFuture.failedFuture(
+                    new RecipientUnavailableException("No email address found for user: " + notification.getUserId()));
+        }
+        return providerRegistry.send(NotificationChannel.EMAIL, provider, notification, recipient);
+    }
+
+    MimeMessage renderMessage(Notification notification) throws MessagingException {
+        String recipient = userService.findById(notification.getUserId())
+                .map(User::getEmail)
+                .orElseThrow(() -> new RecipientUnavailableException("No email address found for user: " + notification.getUserId()));
+
+        MimeMessage message = new MimeMessage(smtpConnectionPool.getSession());
+        message.setFrom(new InternetAddress(fromAddress));
+        message.setRecipient(Message.RecipientType.TO, new InternetAddress(recipient));
+        message.setSubject(notification.getTitle(), "UTF-8");
+        message.setText(notification.getMessage(), "UTF-8");
+        message.setHeader("X-Notification-Id", String.valueOf(notification.getId()));
+        // Compute headers now so the send thread only writes bytes
+        message.saveChanges();
+        return message;
+    }
+
+    private MimeMessage renderUnchecked(Notification notification) {
+        try {
+            return renderMessage(notification);
+        } catch (MessagingException e) {
+            throw new CompletionException(e);
+        }
+    }
 }
@@ -0,0 +1,90 @@
+package com.example.notification.processor;
+
+import com.example.notification.entity.Notification;
+import com.example.notification.enums.NotificationChannel;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Vendor reached through a JSON-over-HTTP send API. Configured per channel under
+ * notification.providers.[channel].[name]; all instances share one HTTP/2 client.
+ *
+ * Request: POST {"to": "...", "title": "...", "body": "...", "notificationId": 1}
+ * with an Idempotency-Key header so vendors can drop duplicates from retries and hedges.
+ * Any 2xx response counts as accepted.
+ */
+public class HttpNotificationProvider implements NotificationProvider {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final String name;
+    private final NotificationChannel channel;
+    private final URI endpoint;
+    private final int weight;
+    private final Duration timeout;
+    private final HttpClient httpClient;
+
+    public HttpNotificationProvider(String name, NotificationChannel channel, String url, int weight,
+                                    long timeoutMs, HttpClient httpClient) {
+        this.name = name;
+        this.channel = channel;
+        this.endpoint = URI.create(url);
+        this.weight = weight;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.httpClient = httpClient;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public NotificationChannel getChannel() {
+        return channel;
+    }
+
+    @Override
+    public int getWeight() {
+        return weight;
+    }
+
+    @Override
+    public CompletionStage<Boolean> send(Notification notification, String recipient) {
+        ObjectNode body = OBJECT_MAPPER.createObjectNode()
+                .put("to", recipient)
+                .put("title", notification.getTitle())
+                .put("body", notification.getMessage())
+                .put("notificationId", notification.getId());
+
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(endpoint)
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .header("Idempotency-Key", "notification-" + notification.getId())
+                    .POST(HttpRequest.BodyPublishers.ofString(OBJECT_MAPPER.writeValueAsString(body)))
+                    .build();
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .thenApply(response -> {
+                    if (response.statusCode() / 100 != 2) {
+                        System.out.println("Provider " + name + " rejected notification " + notification.getId()
+                                + ": HTTP " + response.statusCode());
+                        return false;
+                    }
+                    return true;
+                });
+    }
+}
@@ -2,6 +2,7 @@ package com.example.notification.processor;
 
 import com.example.notification.entity.Notification;
 import com.example.notification.enums.NotificationChannel;
+import com.example.notification.service.PresenceService;
 import com.example.notification.websocket.NotificationWebSocketHandler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -12,6 +13,9 @@ public class InAppNotificationProcessor extends NotificationProcessor {
     @Autowired
     private NotificationWebSocketHandler webSocketHandler;
 
+    @Autowired
+    private PresenceService presenceService;
+
     @Override
     public NotificationChannel getChannel() {
         return NotificationChannel.IN_APP;
@@ -23,8 +27,10 @@ public class InAppNotificationProcessor extends NotificationProcessor {
             // Store in-app notification in cache/database for user to see when they log in
             storeInAppNotification(notification);
 
-            // Also try to send via WebSocket if user is online
-            webSocketHandler.sendNotificationToUser(notification.getUserId(), notification);
+            // Also push it live over the WebSocket if the user is online
+            if (presenceService.isOnline(notification.getUserId())) {
+                webSocketHandler.sendNotificationToUser(notification.getUserId(), notification);
+            }
 
             System.out.println("Sending IN-APP notification: " + notification.getTitle() + " to " + notification.getUserId());
             return true;
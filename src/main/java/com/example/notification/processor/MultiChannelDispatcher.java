@@ -0,0 +1,206 @@
+package com.example.notification.processor;
+
+import com.example.notification.entity.ChannelDeliveryState;
+import com.example.notification.entity.Notification;
+import com.example.notification.enums.NotificationChannel;
+import com.example.notification.enums.NotificationStatus;
+import com.example.notification.service.ChannelBulkheadService;
+import com.example.notification.service.IdempotentConsumerService;
+import com.example.notification.service.RetrySweepService;
+import com.example.notification.service.StatusTransitionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers a multi-channel notification: one claim, the per-channel sends started in parallel, and
+ * one combined status transition that stores which channels delivered. While any channel has failed
+ * the notification goes to the retry path, and the retry only sends the channels that are not yet
+ * in the delivered mask. Once retries are exhausted it is SENT if some channel delivered it, with
+ * the rest recorded in the failed mask, and FAILED otherwise.
+ */
+@Component
+public class MultiChannelDispatcher {
+
+    private final Map<NotificationChannel, NotificationProcessor> processors;
+
+    @Autowired
+    private StatusTransitionService statusTransitionService;
+
+    @Autowired
+    private IdempotentConsumerService idempotentConsumerService;
+
+    @Autowired
+    private DeliveryCompletionExecutor completionExecutor;
+
+    @Autowired
+    private RetrySweepService retrySweepService;
+
+    @Autowired
+    private ChannelBulkheadService bulkheadService;
+
+    // Start each channel's send inside that channel's bulkhead
+    @Value("${notification.bulkhead.enabled:false}")
+    private boolean bulkheadsEnabled;
+
+    @Autowired
+    public MultiChannelDispatcher(List<NotificationProcessor> processorList) {
+        this.processors = processorList.stream()
+                .collect(Collectors.toMap(
+                        NotificationProcessor::getChannel,
+                        Function.identity()
+                ));
+    }
+
+    /**
+     * Fan a notification out to those of its channels that have not delivered it yet. Each channel's
+     * send needs a slot in that channel's in-flight window, reserved for every channel before the
+     * claim; if one is full the notification is deferred to the retry sweep untouched. With bulkheads enabled each send is
+     * started inside its channel's bulkhead. Returns once the sends are started.
+     * @param notification Multi-channel notification
+     * @return Stage completing once the combined outcome has been recorded
+     */
+    public CompletionStage<Void> dispatch(Notification notification) {
+        // A retry re-sends only the channels that failed last time
+        Set<NotificationChannel> channels = notification.getDeliveryState().getChannels();
+        channels.removeAll(notification.getDeliveryState().getDeliveredChannels());
+        NotificationStatus queuedStatus = notification.getStatus() != null
+                ? notification.getStatus() : NotificationStatus.PENDING;
+
+        Map<NotificationChannel, NotificationProcessor> admitted = new EnumMap<>(NotificationChannel.class);
+        try {
+            for (NotificationChannel channel : channels) {
+                NotificationProcessor processor = processors.get(channel);
+                if (processor == null) {
+                    continue;
+                }
+                if (!processor.tryReserveInFlight()) {
+                    admitted.values().forEach(NotificationProcessor::releaseInFlight);
+                    System.out.println("🚧 Deferred multi-channel notification " + notification.getId()
+                            + ": " + channel + " in-flight window full");
+                    statusTransitionService.deferRetry(notification.getId(), queuedStatus,
+                            channel + " in-flight window full", retrySweepService.deferUntil());
+                    return CompletableFuture.completedFuture(null);
+                }
+                admitted.put(channel, processor);
+            }
+        } catch (InterruptedException e) {
+            admitted.values().forEach(NotificationProcessor::releaseInFlight);
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        boolean claimed;
+        try {
+            claimed = statusTransitionService.transition(notification.getId(), queuedStatus, NotificationStatus.PROCESSING,
+                    "Processing started on " + channels);
+        } catch (RuntimeException e) {
+            admitted.values().forEach(NotificationProcessor::releaseInFlight);
+            throw e;
+        }
+        if (!claimed) {
+            admitted.values().forEach(NotificationProcessor::releaseInFlight);
+            idempotentConsumerService.recordClaimConflict(notification.getId());
+            System.out.println("⏭️ Notification " + notification.getId() + " is no longer " + queuedStatus + ", skipping");
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // Start every channel before waiting on any, so latency is the slowest channel rather than the sum
+        Map<NotificationChannel, CompletableFuture<Boolean>> sends = new EnumMap<>(NotificationChannel.class);
+        for (NotificationChannel channel : channels) {
+            NotificationProcessor processor = admitted.get(channel);
+            if (processor == null) {
+                System.err.println("❌ No processor found for channel: " + channel);
+                sends.put(channel, CompletableFuture.completedFuture(false));
+                continue;
+            }
+            CompletableFuture<Boolean> send = startChannel(channel, processor, notification);
+            send.whenComplete((sent, error) -> processor.releaseInFlight());
+            sends.put(channel, send.exceptionally(error -> false));
+        }
+
+        return CompletableFuture.allOf(sends.values().toArray(new CompletableFuture[0]))
+                .thenRunAsync(() -> recordOutcome(notification, sends), completionExecutor)
+                .exceptionally(error -> {
+                    System.err.println("Error recording multi-channel outcome of notification "
+                            + notification.getId() + ": " + error.getMessage());
+                    return null;
+                });
+    }
+
+    // A channel whose bulkhead is full counts as failed and goes to the retry path with the rest of the outcome
+    private CompletableFuture<Boolean> startChannel(NotificationChannel channel, NotificationProcessor processor,
+                                                    Notification notification) {
+        if (!bulkheadsEnabled) {
+            return deliver(processor, notification);
+        }
+        CompletableFuture<Boolean> send = new CompletableFuture<>();
+        boolean accepted = bulkheadService.execute(channel, () -> deliver(processor, notification).whenComplete((sent, error) -> {
+            if (error != null) {
+                send.completeExceptionally(error);
+            } else {
+                send.complete(sent);
+            }
+        }));
+        if (!accepted) {
+            System.out.println("🚧 " + channel + " bulkhead full - skipping channel for notification " + notification.getId());
+            send.complete(false);
+        }
+        return send;
+    }
+
+    private CompletableFuture<Boolean> deliver(NotificationProcessor processor, Notification notification) {
+        try {
+            return processor.deliverAsync(notification).toCompletableFuture();
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void recordOutcome(Notification notification, Map<NotificationChannel, CompletableFuture<Boolean>> sends) {
+        // Channels delivered by an earlier attempt stay delivered
+        Set<NotificationChannel> delivered = notification.getDeliveryState().getDeliveredChannels();
+        Set<NotificationChannel> failed = EnumSet.noneOf(NotificationChannel.class);
+        sends.forEach((channel, send) -> (Boolean.TRUE.equals(send.join()) ? delivered : failed).add(channel));
+
+        int deliveredMask = ChannelDeliveryState.maskOf(delivered);
+        int failedMask = ChannelDeliveryState.maskOf(failed);
+
+        if (failed.isEmpty()) {
+            if (statusTransitionService.completeChannelDelivery(notification.getId(), deliveredMask, 0,
+                    NotificationStatus.SENT, false, null, null, "Delivered on " + delivered)) {
+                idempotentConsumerService.recordHandled(notification.getId());
+            }
+        } else if (notification.getRetryCount() < 3) {
+            // The retry sweep re-queues it once the backoff has elapsed, for the failed channels only
+            statusTransitionService.completeChannelDelivery(notification.getId(), deliveredMask, failedMask,
+                    NotificationStatus.RETRYING, true, retrySweepService.nextRetryAt(notification.getRetryCount()),
+                    "Failed on " + failed, delivered.isEmpty()
+                            ? "All channels failed - retrying"
+                            : "Delivered on " + delivered + ", failed on " + failed + " - retrying");
+        } else if (!delivered.isEmpty()) {
+            if (statusTransitionService.completeChannelDelivery(notification.getId(), deliveredMask, failedMask,
+                    NotificationStatus.SENT, false, null, "Failed on " + failed,
+                    "Max retries exceeded: delivered on " + delivered + ", failed on " + failed)) {
+                idempotentConsumerService.recordHandled(notification.getId());
+            }
+        } else {
+            if (statusTransitionService.completeChannelDelivery(notification.getId(), 0, failedMask,
+                    NotificationStatus.FAILED, false, null, "Failed on " + failed, "Max retries exceeded: all channels failed")) {
+                idempotentConsumerService.recordHandled(notification.getId());
+            }
+        }
+        System.out.println("📡 Notification " + notification.getId() + " delivered on " + delivered
+                + (failed.isEmpty() ? "" : ", failed on " + failed));
+    }
+}
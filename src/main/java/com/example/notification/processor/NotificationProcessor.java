@@ -3,55 +3,470 @@ package com.example.notification.processor;
 import com.example.notification.entity.Notification;
 import com.example.notification.enums.NotificationChannel;
 import com.example.notification.enums.NotificationStatus;
+import com.example.notification.service.ChannelBulkheadService;
+import com.example.notification.service.CircuitBreakerService;
+import com.example.notification.service.HedgingService;
+import com.example.notification.service.IdempotentConsumerService;
 import com.example.notification.service.NotificationService;
+import com.example.notification.service.ProviderThrottleService;
+import com.example.notification.service.RetrySweepService;
+import com.example.notification.service.StatusTransitionService;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
 @Component
 public abstract class NotificationProcessor {
 
     @Autowired
     protected NotificationService notificationService;
 
+    @Autowired
+    protected StatusTransitionService statusTransitionService;
+
+    @Autowired
+    protected IdempotentConsumerService idempotentConsumerService;
+
+    @Autowired
+    protected CircuitBreakerService circuitBreakerService;
+
+    @Autowired
+    protected ProviderThrottleService providerThrottleService;
+
+    @Autowired
+    protected HedgingService hedgingService;
+
+    @Autowired
+    protected DeliveryCompletionExecutor completionExecutor;
+
+    @Autowired
+    protected RetrySweepService retrySweepService;
+
+    @Autowired
+    protected ChannelBulkheadService bulkheadService;
+
+    // Maximum provider calls in flight for this channel on the async path
+    @Value("${notification.processing.async.max-in-flight:500}")
+    private int maxInFlight;
+
+    // How long a consumer waits for an in-flight slot before the send is rejected to the retry path
+    @Value("${notification.processing.async.acquire-timeout-ms:50}")
+    private long acquireTimeoutMs;
+
+    private Semaphore inFlight;
+
+    @PostConstruct
+    void initInFlightWindow() {
+        inFlight = new Semaphore(maxInFlight);
+    }
+
     public abstract NotificationChannel getChannel();
 
     public abstract boolean sendNotification(Notification notification);
 
+    /**
+     * Non-blocking send. Processors that talk to a remote provider override this so the calling
+     * consumer thread is released while the provider call is in flight; the default simply
+     * completes with the result of the blocking {@link #sendNotification}.
+     * @param notification Notification to deliver
+     * @return Stage completing with true on successful delivery
+     */
+    public CompletionStage<Boolean> sendNotificationAsync(Notification notification) {
+        try {
+            return CompletableFuture.completedFuture(sendNotification(notification));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Provider the next send goes to, for processors that route between several vendors. Chosen
+     * before the throttle permit is taken, since every vendor account has its own rate limit.
+     * @return Provider name, or null when the processor has a single sender of its own
+     */
+    protected String selectProvider() {
+        return null;
+    }
+
+    /**
+     * Non-blocking send through a provider picked with {@link #selectProvider}. The default ignores
+     * the provider and calls {@link #sendNotificationAsync}.
+     * @param notification Notification to deliver
+     * @param provider Provider name, or null
+     * @return Stage completing with true on successful delivery
+     */
+    protected CompletionStage<Boolean> sendAsync(Notification notification, String provider) {
+        return sendNotificationAsync(notification);
+    }
+
     public void processNotification(Notification notification) {
+        // Wait for the chosen provider's send rate rather than provoking a 429
+        String provider = selectProvider();
+        if (!providerThrottleService.acquire(getChannel(), provider)) {
+            rejectNotification(notification, throttledSender(provider) + " provider throttle wait exceeded");
+            return;
+        }
+
         try {
-            notificationService.updateNotificationStatus(
-                    notification.getId(),
-                    NotificationStatus.PROCESSING,
-                    "Processing started"
-            );
-
-            boolean success = sendNotification(notification);
-
-            if (success) {
-                notificationService.updateNotificationStatus(
-                        notification.getId(),
-                        NotificationStatus.SENT,
-                        "Notification sent successfully"
-                );
+            if (!startProcessing(notification)) {
+                return;
+            }
+            sendClaimed(notification, provider);
+        } catch (Exception e) {
+            handleFailure(notification, NotificationStatus.PROCESSING, "Exception: " + causeOf(e).getMessage());
+        }
+    }
+
+    /**
+     * Bulkhead counterpart of {@link #processNotification}. The claim is made on the calling consumer
+     * thread, before the hand-off, so a send lost with the bulkhead's queue leaves a PROCESSING claim
+     * that the lease recovery re-queues rather than an acked PENDING row. The throttle wait and the
+     * blocking send run on the channel's bulkhead; when it is full the claimed notification goes to
+     * the retry path.
+     * @param notification Notification to deliver
+     * @return Stage completing once the final status has been recorded
+     */
+    public CompletionStage<Void> processNotificationInBulkhead(Notification notification) {
+        try {
+            if (!startProcessing(notification)) {
+                return CompletableFuture.completedFuture(null);
+            }
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        boolean accepted = bulkheadService.execute(getChannel(), () -> {
+            try {
+                String provider = selectProvider();
+                if (providerThrottleService.acquire(getChannel(), provider)) {
+                    sendClaimed(notification, provider);
+                } else {
+                    deferNotification(notification, NotificationStatus.PROCESSING,
+                            throttledSender(provider) + " provider throttle wait exceeded", retrySweepService.deferUntil());
+                }
+            } catch (Exception e) {
+                handleFailure(notification, NotificationStatus.PROCESSING, "Exception: " + causeOf(e).getMessage());
+            } finally {
+                done.complete(null);
+            }
+        });
+        if (!accepted) {
+            deferNotification(notification, NotificationStatus.PROCESSING, getChannel() + " bulkhead full",
+                    retrySweepService.deferUntil());
+            done.complete(null);
+        }
+        return done;
+    }
+
+    // Blocking send of a notification this consumer has claimed, and its final status transition
+    private void sendClaimed(Notification notification, String provider) {
+        long sendStart = System.currentTimeMillis();
+        boolean success;
+        try {
+            if (isHedged(notification)) {
+                success = sendHedged(notification, provider).toCompletableFuture().join();
+            } else if (provider != null) {
+                success = sendAsync(notification, provider).toCompletableFuture().join();
             } else {
-                handleFailure(notification, "Failed to send notification");
+                success = sendNotification(notification);
+            }
+        } catch (RuntimeException e) {
+            if (!isRecipientMiss(e)) {
+                circuitBreakerService.recordResult(getChannel(), false, System.currentTimeMillis() - sendStart);
+            }
+            throw e;
+        }
+        long sendMs = System.currentTimeMillis() - sendStart;
+        circuitBreakerService.recordResult(getChannel(), success, sendMs);
+        if (success) {
+            hedgingService.recordLatency(getChannel(), sendMs);
+        }
+
+        if (success) {
+            markSent(notification);
+        } else {
+            handleFailure(notification, NotificationStatus.PROCESSING, "Failed to send notification");
+        }
+    }
+
+    /**
+     * Async counterpart of {@link #processNotification}. Waits briefly for a slot in this channel's
+     * in-flight window and rejects the send to the retry path if none frees up, so a saturated
+     * channel cannot hold consumer threads. The provider throttle wait is a timer rather than a
+     * sleeping consumer, and the status transition runs in the completion callback.
+     * @param notification Notification to deliver
+     * @return Stage completing once the final status has been recorded
+     */
+    public CompletionStage<Void> processNotificationAsync(Notification notification) {
+        try {
+            if (!inFlight.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                rejectNotification(notification, getChannel() + " in-flight window full");
+                return CompletableFuture.completedFuture(null);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
 
+        // Claim before waiting on the throttle: the message is acked once this returns, and a node
+        // that dies during the wait leaves a PROCESSING claim that the lease recovery re-queues
+        try {
+            if (!startProcessing(notification)) {
+                inFlight.release();
+                return CompletableFuture.completedFuture(null);
+            }
         } catch (Exception e) {
-            handleFailure(notification, "Exception: " + e.getMessage());
+            inFlight.release();
+            return CompletableFuture.failedFuture(e);
         }
+
+        // Wait for the chosen provider's send rate rather than provoking a 429
+        String provider;
+        try {
+            provider = selectProvider();
+        } catch (Exception e) {
+            inFlight.release();
+            return CompletableFuture.failedFuture(e);
+        }
+        return afterPermit(providerThrottleService.acquireAsync(getChannel(), provider), permitted -> {
+            if (!permitted) {
+                inFlight.release();
+                deferNotification(notification, NotificationStatus.PROCESSING,
+                        throttledSender(provider) + " provider throttle wait exceeded", retrySweepService.deferUntil());
+                return CompletableFuture.completedFuture(null);
+            }
+            return sendAndRecord(notification, provider);
+        });
+    }
+
+    private CompletionStage<Void> sendAndRecord(Notification notification, String provider) {
+        long sendStart = System.currentTimeMillis();
+        CompletionStage<Boolean> send;
+        try {
+            send = isHedged(notification)
+                    ? sendHedged(notification, provider)
+                    : sendAsync(notification, provider);
+        } catch (Exception e) {
+            send = CompletableFuture.failedFuture(e);
+        }
+
+        // The status transition is blocking JDBC, so it runs on the completion pool rather than the provider's thread
+        return send.handleAsync((success, error) -> {
+            long sendMs = System.currentTimeMillis() - sendStart;
+            boolean sent = error == null && Boolean.TRUE.equals(success);
+            if (!isRecipientMiss(error)) {
+                circuitBreakerService.recordResult(getChannel(), sent, sendMs);
+            }
+            if (sent) {
+                hedgingService.recordLatency(getChannel(), sendMs);
+            }
+            try {
+                if (error != null) {
+                    handleFailure(notification, NotificationStatus.PROCESSING, "Exception: " + causeOf(error).getMessage());
+                } else if (Boolean.TRUE.equals(success)) {
+                    markSent(notification);
+                } else {
+                    handleFailure(notification, NotificationStatus.PROCESSING, "Failed to send notification");
+                }
+            } catch (Exception e) {
+                System.err.println("Error recording result of notification " + notification.getId() + ": " + e.getMessage());
+            } finally {
+                inFlight.release();
+            }
+            return null;
+        }, completionExecutor);
+    }
+
+    /**
+     * This channel's part of a multi-channel notification: the send with the channel's circuit
+     * breaker, throttle and hedging applied but without status transitions, which the
+     * {@link MultiChannelDispatcher} records once for all channels.
+     * @param notification Notification to deliver
+     * @return Stage completing with true if this channel delivered it
+     */
+    public CompletionStage<Boolean> deliverAsync(Notification notification) {
+        if (!circuitBreakerService.tryAcquirePermission(getChannel())) {
+            System.out.println("🚧 " + getChannel() + " circuit open - skipping channel for notification " + notification.getId());
+            return CompletableFuture.completedFuture(false);
+        }
+
+        // A channel that cannot get a permit in time counts as failed; the other channels are not held up
+        String provider;
+        try {
+            provider = selectProvider();
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return afterPermit(providerThrottleService.acquireAsync(getChannel(), provider), permitted -> {
+            if (!permitted) {
+                System.out.println("🚦 " + throttledSender(provider) + " throttle wait exceeded for notification "
+                        + notification.getId());
+                return CompletableFuture.completedFuture(false);
+            }
+            return sendAndMeasure(notification, provider);
+        });
+    }
+
+    private CompletionStage<Boolean> sendAndMeasure(Notification notification, String provider) {
+        long sendStart = System.currentTimeMillis();
+        CompletionStage<Boolean> send;
+        try {
+            send = isHedged(notification)
+                    ? sendHedged(notification, provider)
+                    : sendAsync(notification, provider);
+        } catch (Exception e) {
+            send = CompletableFuture.failedFuture(e);
+        }
+
+        return send.handle((success, error) -> {
+            long sendMs = System.currentTimeMillis() - sendStart;
+            boolean sent = error == null && Boolean.TRUE.equals(success);
+            if (!isRecipientMiss(error)) {
+                circuitBreakerService.recordResult(getChannel(), sent, sendMs);
+            }
+            if (sent) {
+                hedgingService.recordLatency(getChannel(), sendMs);
+            } else if (error != null) {
+                System.err.println("Error sending " + getChannel() + " for notification " + notification.getId()
+                        + ": " + error.getMessage());
+            }
+            return sent;
+        });
+    }
+
+    // Carry on on this thread when the permit was granted at once; after a wait, leave the throttle's timer thread
+    private <T> CompletionStage<T> afterPermit(CompletableFuture<Boolean> permit,
+                                               Function<Boolean, CompletionStage<T>> next) {
+        return permit.isDone() ? permit.thenCompose(next) : permit.thenComposeAsync(next, completionExecutor);
+    }
+
+    /**
+     * Whether a second, concurrent attempt of the same send is safe. Cancelling the losing attempt
+     * does not stop a provider call that is already under way, so only processors whose provider
+     * drops duplicates (the HTTP providers send an Idempotency-Key) opt in to hedging. The key is
+     * only known to the vendor that received it, so both attempts go to the same provider.
+     * @return true if this processor's sends may be hedged
+     */
+    protected boolean supportsHedging() {
+        return false;
     }
 
-    private void handleFailure(Notification notification, String errorMessage) {
+    private boolean isHedged(Notification notification) {
+        return supportsHedging() && hedgingService.isHedged(getChannel(), notification.getPriority());
+    }
+
+    // Both attempts go to the provider picked for the first one, which drops the duplicate. The hedge
+    // is a provider call like any other: it needs its own permit from that provider's bucket, and is
+    // skipped (counting as a failed attempt) rather than waited for when none is free
+    private CompletionStage<Boolean> sendHedged(Notification notification, String provider) {
+        return hedgingService.hedge(getChannel(),
+                () -> sendAsync(notification, provider),
+                () -> providerThrottleService.tryAcquire(getChannel(), provider)
+                        ? sendAsync(notification, provider)
+                        : CompletableFuture.completedFuture(false));
+    }
+
+    // Only provider outcomes feed the circuit breaker; a recipient without an address or session is not one
+    private static boolean isRecipientMiss(Throwable error) {
+        return error != null && causeOf(error) instanceof RecipientUnavailableException;
+    }
+
+    private static Throwable causeOf(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private String throttledSender(String provider) {
+        return provider != null ? getChannel() + " " + provider : getChannel().toString();
+    }
+
+    // Claim the notification for this consumer: only one consumer can move it out of its queued status
+    private boolean startProcessing(Notification notification) {
+        boolean claimed = statusTransitionService.transition(
+                notification.getId(),
+                queuedStatus(notification),
+                NotificationStatus.PROCESSING,
+                "Processing started"
+        );
+        if (!claimed) {
+            // Redelivery or duplicate publish: another consumer holds or already finished it
+            idempotentConsumerService.recordClaimConflict(notification.getId());
+            System.out.println("⏭️ Notification " + notification.getId() + " is no longer "
+                    + queuedStatus(notification) + ", skipping");
+        }
+        return claimed;
+    }
+
+    private void markSent(Notification notification) {
+        if (statusTransitionService.transition(
+                notification.getId(),
+                NotificationStatus.PROCESSING,
+                NotificationStatus.SENT,
+                "Notification sent successfully"
+        )) {
+            idempotentConsumerService.recordHandled(notification.getId());
+        }
+    }
+
+    // Status the notification had when it was queued (the message carries that snapshot)
+    private NotificationStatus queuedStatus(Notification notification) {
+        return notification.getStatus() != null ? notification.getStatus() : NotificationStatus.PENDING;
+    }
+
+    // Entry to the retry path for sends that were never attempted (e.g. an open circuit); the retry
+    // sweep re-queues it after the default hold-back, without counting an attempt
+    public void rejectNotification(Notification notification, String reason) {
+        deferNotification(notification, queuedStatus(notification), reason, retrySweepService.deferUntil());
+    }
+
+    // As above, with the caller's estimate of when the channel can take it again
+    public void rejectNotification(Notification notification, String reason, long retryAfterMs) {
+        deferNotification(notification, queuedStatus(notification), reason, retrySweepService.deferUntil(retryAfterMs));
+    }
+
+    private void deferNotification(Notification notification, NotificationStatus currentStatus, String reason,
+                                   LocalDateTime retryAt) {
+        System.out.println("🚧 Deferred " + getChannel() + " notification " + notification.getId() + ": " + reason);
+        statusTransitionService.deferRetry(notification.getId(), currentStatus, reason, retryAt);
+    }
+
+    // Slot in this channel's in-flight window for a send started by the MultiChannelDispatcher
+    boolean tryReserveInFlight() throws InterruptedException {
+        return inFlight.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    void releaseInFlight() {
+        inFlight.release();
+    }
+
+    public int getInFlightCount() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    private void handleFailure(Notification notification, NotificationStatus currentStatus, String errorMessage) {
         if (notification.getRetryCount() < 3) {
-            notificationService.incrementRetryCount(notification.getId(), errorMessage);
-            // Re-queue for retry (implementation depends on retry strategy)
+            // The retry sweep re-queues it once the backoff has elapsed
+            statusTransitionService.markRetrying(notification.getId(), currentStatus, errorMessage,
+                    retrySweepService.nextRetryAt(notification.getRetryCount()));
         } else {
-            notificationService.updateNotificationStatus(
+            if (statusTransitionService.transition(
                     notification.getId(),
+                    currentStatus,
                     NotificationStatus.FAILED,
+                    errorMessage,
                     "Max retries exceeded: " + errorMessage
-            );
+            )) {
+                idempotentConsumerService.recordHandled(notification.getId());
+            }
         }
     }
 }
@@ -0,0 +1,29 @@
+package com.example.notification.processor;
+
+import com.example.notification.entity.Notification;
+import com.example.notification.enums.NotificationChannel;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * One vendor behind a channel. A channel processor resolves the recipient and the
+ * {@link com.example.notification.service.ProviderRegistry} decides which of the channel's
+ * providers gets the send.
+ */
+public interface NotificationProvider {
+
+    String getName();
+
+    NotificationChannel getChannel();
+
+    // Relative share of traffic when providers perform alike
+    int getWeight();
+
+    /**
+     * Hand a notification to the vendor
+     * @param notification Notification to deliver
+     * @param recipient Channel address (phone number, email address, ...)
+     * @return Stage completing with true once the vendor accepted the message
+     */
+    CompletionStage<Boolean> send(Notification notification, String recipient);
+}
@@ -0,0 +1,210 @@
+package com.example.notification.processor;
+
+import com.example.notification.entity.Notification;
+import com.example.notification.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects pushes from all consumer threads for a few milliseconds and sends them to the push
+ * gateway as one batch request over a shared HTTP/2 client.
+ *
+ * Request:  {"messages": [{"token": "...", "title": "...", "body": "...", "notificationId": 1,
+ *                          "collapseKey": "notification-1"}, ...]}
+ * Response: {"results": [{"success": true}, {"success": false, "error": "UNREGISTERED"}, ...]}
+ * Results are matched to messages by position. Tokens rejected as invalid fail their push with a
+ * {@link RecipientUnavailableException} and are cleared from their users in one UPDATE per batch.
+ */
+@Component
+public class PushBatchSender {
+
+    private static final Set<String> INVALID_TOKEN_ERRORS = Set.of("UNREGISTERED", "INVALID_ARGUMENT", "NOT_FOUND");
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Batch endpoint of the push gateway; batching is disabled while this is empty
+    @Value("${notification.push.gateway-url:}")
+    private String gatewayUrl;
+
+    @Value("${notification.push.linger-ms:5}")
+    private long lingerMs;
+
+    @Value("${notification.push.max-batch-size:500}")
+    private int maxBatchSize;
+
+    @Value("${notification.push.request-timeout-ms:10000}")
+    private long requestTimeoutMs;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConcurrentLinkedQueue<PendingPush> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger(0);
+
+    private HttpClient httpClient;
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    public void start() {
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "push-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, lingerMs, lingerMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        flusher.shutdown();
+        flush();
+    }
+
+    public boolean isEnabled() {
+        return gatewayUrl != null && !gatewayUrl.isBlank();
+    }
+
+    /**
+     * Queue a push for the next batch
+     * @param token Device token
+     * @param notification Notification to deliver
+     * @return Future completing with the gateway's per-token result
+     */
+    public CompletableFuture<Boolean> submit(String token, Notification notification) {
+        PendingPush push = new PendingPush(token, notification);
+        pending.add(push);
+        if (pendingCount.incrementAndGet() >= maxBatchSize) {
+            flusher.execute(this::flush); // Full batch - don't wait for the linger timer
+        }
+        return push.result;
+    }
+
+    // Runs on the single flusher thread (and once on shutdown)
+    void flush() {
+        List<PendingPush> batch;
+        do {
+            batch = new ArrayList<>(Math.min(maxBatchSize, Math.max(pendingCount.get(), 1)));
+            PendingPush push;
+            while (batch.size() < maxBatchSize && (push = pending.poll()) != null) {
+                batch.add(push);
+            }
+            pendingCount.addAndGet(-batch.size());
+            if (!batch.isEmpty()) {
+                sendBatch(batch);
+            }
+        } while (batch.size() == maxBatchSize);
+    }
+
+    private void sendBatch(List<PendingPush> batch) {
+        ObjectNode body = objectMapper.createObjectNode();
+        ArrayNode messages = body.putArray("messages");
+        for (PendingPush push : batch) {
+            messages.addObject()
+                    .put("token", push.token)
+                    .put("title", push.notification.getTitle())
+                    .put("body", push.notification.getMessage())
+                    .put("notificationId", push.notification.getId())
+                    // Lets the device drop a duplicate when the same notification is hedged
+                    .put("collapseKey", "notification-" + push.notification.getId());
+        }
+
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(gatewayUrl))
+                    .timeout(Duration.ofMillis(requestTimeoutMs))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                    .build();
+        } catch (Exception e) {
+            batch.forEach(push -> push.result.completeExceptionally(e));
+            return;
+        }
+
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        batch.forEach(push -> push.result.completeExceptionally(error));
+                    } else if (response.statusCode() != 200) {
+                        IllegalStateException failure = new IllegalStateException(
+                                "Push gateway returned HTTP " + response.statusCode());
+                        batch.forEach(push -> push.result.completeExceptionally(failure));
+                    } else {
+                        handleResults(batch, response.body());
+                    }
+                });
+    }
+
+    private void handleResults(List<PendingPush> batch, String responseBody) {
+        JsonNode results;
+        try {
+            results = objectMapper.readTree(responseBody).path("results");
+        } catch (Exception e) {
+            batch.forEach(push -> push.result.completeExceptionally(e));
+            return;
+        }
+
+        List<String> invalidTokens = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            PendingPush push = batch.get(i);
+            JsonNode result = results.path(i);
+            if (result.path("success").asBoolean(false)) {
+                push.result.complete(true);
+            } else {
+                String error = result.path("error").asText("UNKNOWN");
+                if (INVALID_TOKEN_ERRORS.contains(error)) {
+                    // The device is gone, not the gateway: fail it as a recipient miss
+                    invalidTokens.add(push.token);
+                    push.result.completeExceptionally(new RecipientUnavailableException("Invalid push token: " + error));
+                } else {
+                    push.result.complete(false);
+                }
+            }
+        }
+
+        if (!invalidTokens.isEmpty()) {
+            try {
+                int pruned = userRepository.clearFcmTokens(invalidTokens);
+                System.out.println("🧹 Pruned " + pruned + " invalid push tokens");
+            } catch (Exception e) {
+                System.err.println("Error pruning invalid push tokens: " + e.getMessage());
+            }
+        }
+        System.out.println("📲 Sent push batch of " + batch.size() + " (" + invalidTokens.size() + " invalid tokens)");
+    }
+
+    private static class PendingPush {
+        private final String token;
+        private final Notification notification;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        PendingPush(String token, Notification notification) {
+            this.token = token;
+            this.notification = notification;
+        }
+    }
+}
@@ -1,12 +1,31 @@
 package com.example.notification.processor;
 
 import com.example.notification.entity.Notification;
+import com.example.notification.entity.User;
 import com.example.notification.enums.NotificationChannel;
+import com.example.notification.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
 @Component
 public class PushNotificationProcessor extends NotificationProcessor {
 
+    @Autowired
+    private PushBatchSender pushBatchSender;
+
+    @Autowired
+    private UserService userService;
+
+    // How long a synchronous send waits for its batch to come back
+    @Value("${notification.push.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
     @Override
     public NotificationChannel getChannel() {
         return NotificationChannel.PUSH;
@@ -14,30 +33,67 @@ public class PushNotificationProcessor extends NotificationProcessor {
 
     @Override
     public boolean sendNotification(Notification notification) {
+        // Push notification sending logic here (FCM integration)
+        System.out.println("Sending PUSH notification: " + notification.getTitle() + " to " + notification.getUserId());
+
+        // Get FCM token from user metadata or user service
+        String fcmToken = getFCMToken(notification.getUserId());
+        if (fcmToken == null) {
+            throw new RecipientUnavailableException("No FCM token found for user: " + notification.getUserId());
+        }
+
         try {
-            // Push notification sending logic here (FCM integration)
-            System.out.println("Sending PUSH notification: " + notification.getTitle() + " to " + notification.getUserId());
-
-            // Get FCM token from user metadata or user service
-            String fcmToken = getFCMToken(notification.getUserId());
-            if (fcmToken == null) {
-                System.out.println("No FCM token found for user: " + notification.getUserId());
-                return false;
+            if (pushBatchSender.isEnabled()) {
+                // Ride along in the next multicast batch
+                return pushBatchSender.submit(fcmToken, notification).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
             }
 
             // Simulate push notification sending
             sendFCMNotification(fcmToken, notification.getTitle(), notification.getMessage());
 
             return true;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RecipientUnavailableException) {
+                throw (RecipientUnavailableException) e.getCause(); // The gateway rejected the token
+            }
+            System.err.println("Error sending push notification: " + e.getCause().getMessage());
+            return false;
         } catch (Exception e) {
             System.err.println("Error sending push notification: " + e.getMessage());
             return false;
         }
     }
 
+    @Override
+    public CompletionStage<Boolean> sendNotificationAsync(Notification notification) {
+        System.out.println("Sending PUSH notification: " + notification.getTitle() + " to " + notification.getUserId());
+
+        String fcmToken = getFCMToken(notification.getUserId());
+        if (fcmToken == null) {
+            return CompletableFuture.failedFuture(
+                    new RecipientUnavailableException("No FCM token found for user: " + notification.getUserId()));
+        }
+
+        if (pushBatchSender.isEnabled()) {
+            return pushBatchSender.submit(fcmToken, notification);
+        }
+
+        // Simulated FCM round trip without holding a thread for the duration
+        return CompletableFuture.supplyAsync(() -> {
+            System.out.println("FCM notification sent to token: " + fcmToken);
+            return true;
+        }, CompletableFuture.delayedExecutor(80, TimeUnit.MILLISECONDS));
+    }
+
     private String getFCMToken(String userId) {
-        // In real implementation, get from user service or metadata
-        return "fake_fcm_token_" + userId;
+        String token = userService.findById(userId)
+                .map(User::getFcmToken)
+                .orElse(null);
+        if (token == null && !pushBatchSender.isEnabled()) {
+            // Simulator mode keeps working for users that never registered a device
+            return "fake_fcm_token_" + userId;
+        }
+        return token;
     }
 
     private void sendFCMNotification(String fcmToken, String title, String message) throws Exception {
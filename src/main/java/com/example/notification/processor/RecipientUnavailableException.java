@@ -0,0 +1,13 @@
+package com.example.notification.processor;
+
+/**
+ * The notification cannot be sent because of the recipient, not the provider: no open WebSocket
+ * session, no device token, no phone number or email address. The send still fails, but it says
+ * nothing about the provider's health, so it is kept out of the channel's circuit breaker.
+ */
+public class RecipientUnavailableException extends RuntimeException {
+
+    public RecipientUnavailableException(String message) {
+        super(message);
+    }
+}
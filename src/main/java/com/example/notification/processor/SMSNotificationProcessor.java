@@ -1,19 +1,56 @@
 package com.example.notification.processor;
 
 import com.example.notification.entity.Notification;
+import com.example.notification.entity.User;
 import com.example.notification.enums.NotificationChannel;
+import com.example.notification.service.ProviderRegistry;
+import com.example.notification.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
 @Component
 public class SMSNotificationProcessor extends NotificationProcessor {
 
+    @Autowired
+    private ProviderRegistry providerRegistry;
+
+    @Autowired
+    private UserService userService;
+
     @Override
     public NotificationChannel getChannel() {
         return NotificationChannel.SMS;
     }
 
+    // Hedges only through the HTTP vendors, which drop the duplicate by Idempotency-Key (both attempts
+    // go to the same vendor)
+    @Override
+    protected boolean supportsHedging() {
+        return providerRegistry.hasProviders(NotificationChannel.SMS);
+    }
+
+    @Override
+    protected String selectProvider() {
+        return providerRegistry.hasProviders(NotificationChannel.SMS)
+                ? providerRegistry.selectProvider(NotificationChannel.SMS) : null;
+    }
+
+    @Override
+    protected CompletionStage<Boolean> sendAsync(Notification notification, String provider) {
+        return provider != null ? sendThroughProviders(notification, provider) : sendNotificationAsync(notification);
+    }
+
     @Override
     public boolean sendNotification(Notification notification) {
+        if (providerRegistry.hasProviders(NotificationChannel.SMS)) {
+            // A failed send surfaces as an exception, so a recipient miss stays distinguishable
+            return sendThroughProviders(notification, null).toCompletableFuture().join();
+        }
+
         try {
             // SMS sending logic here
             System.out.println("Sending SMS notification: " + notification.getMessage() + " to " + notification.getUserId());
@@ -26,4 +63,29 @@ public class SMSNotificationProcessor extends NotificationProcessor {
             return false;
         }
     }
+
+    @Override
+    public CompletionStage<Boolean> sendNotificationAsync(Notification notification) {
+        if (providerRegistry.hasProviders(NotificationChannel.SMS)) {
+            return sendThroughProviders(notification, null);
+        }
+
+        // Simulated provider latency without holding a thread for the duration
+        return CompletableFuture.supplyAsync(() -> {
+            System.out.println("Sending SMS notification: " + notification.getMessage() + " to " + notification.getUserId());
+            return true;
+        }, CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+    }
+
+    // provider is the vendor picked for this send (null lets the registry pick); a hedge reuses it
+    private CompletionStage<Boolean> sendThroughProviders(Notification notification, String provider) {
+        String phoneNumber = userService.findById(notification.getUserId())
+                .map(User::getPhoneNumber)
+                .orElse(null);
+        if (phoneNumber == null) {
+            return CompletableFuture.failedFuture(
+                    new RecipientUnavailableException("No phone number found for user: " + notification.getUserId()));
+        }
+        return providerRegistry.send(NotificationChannel.SMS, provider, notification, phoneNumber);
+    }
 }
@@ -0,0 +1,183 @@
+package com.example.notification.processor;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of persistent, authenticated SMTP connections. Each connection carries one message at a
+ * time (SMTP is serial per session) and is reused for up to maxMessagesPerConnection messages, so
+ * the TCP/TLS handshake and AUTH are paid once per connection instead of once per message.
+ */
+@Component
+public class SmtpConnectionPool {
+
+    @Value("${spring.mail.host:localhost}")
+    private String host;
+
+    @Value("${spring.mail.port:25}")
+    private int port;
+
+    @Value("${spring.mail.username:}")
+    private String username;
+
+    @Value("${spring.mail.password:}")
+    private String password;
+
+    @Value("${spring.mail.properties.mail.smtp.auth:false}")
+    private boolean auth;
+
+    @Value("${spring.mail.properties.mail.smtp.starttls.enable:false}")
+    private boolean startTls;
+
+    // Upper bound on concurrent connections the SMTP server will accept from this node
+    @Value("${notification.email.pool.size:4}")
+    private int poolSize;
+
+    // Servers cap messages per session; recycle the connection before hitting that cap
+    @Value("${notification.email.pool.max-messages-per-connection:100}")
+    private int maxMessagesPerConnection;
+
+    @Value("${notification.email.pool.borrow-timeout-ms:5000}")
+    private long borrowTimeoutMs;
+
+    // Idle connections older than this are checked with a NOOP before reuse
+    @Value("${notification.email.pool.validate-after-idle-ms:30000}")
+    private long validateAfterIdleMs;
+
+    private Session session;
+    private BlockingQueue<PooledConnection> idle;
+    private Semaphore permits;
+
+    private final AtomicInteger openConnections = new AtomicInteger(0);
+    private final AtomicLong connectionsOpened = new AtomicLong(0);
+    private final AtomicLong messagesSent = new AtomicLong(0);
+
+    @PostConstruct
+    public void init() {
+        Properties properties = new Properties();
+        properties.put("mail.smtp.host", host);
+        properties.put("mail.smtp.port", String.valueOf(port));
+        properties.put("mail.smtp.auth", String.valueOf(auth));
+        properties.put("mail.smtp.starttls.enable", String.valueOf(startTls));
+        properties.put("mail.smtp.connectiontimeout", "10000");
+        properties.put("mail.smtp.timeout", "30000");
+        properties.put("mail.smtp.writetimeout", "30000");
+
+        session = Session.getInstance(properties);
+        idle = new ArrayBlockingQueue<>(poolSize);
+        permits = new Semaphore(poolSize);
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    /**
+     * Send a fully rendered message over a pooled connection
+     * @param message Message with recipients set
+     * @throws MessagingException if no connection is available in time or the send fails
+     */
+    public void send(MimeMessage message) throws MessagingException {
+        PooledConnection connection = borrow();
+        boolean healthy = false;
+        try {
+            connection.transport.sendMessage(message, message.getAllRecipients());
+            connection.messagesSent++;
+            messagesSent.incrementAndGet();
+            healthy = true;
+        } finally {
+            release(connection, healthy);
+        }
+    }
+
+    private PooledConnection borrow() throws MessagingException {
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new MessagingException("No SMTP connection available within " + borrowTimeoutMs + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted waiting for SMTP connection", e);
+        }
+
+        try {
+            PooledConnection connection = idle.poll();
+            if (connection != null && System.currentTimeMillis() - connection.lastUsed > validateAfterIdleMs
+                    && !connection.transport.isConnected()) {
+                close(connection);
+                connection = null;
+            }
+            return connection != null ? connection : connect();
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection connect() throws MessagingException {
+        Transport transport = session.getTransport("smtp");
+        if (auth) {
+            transport.connect(host, port, username, password);
+        } else {
+            transport.connect();
+        }
+        openConnections.incrementAndGet();
+        connectionsOpened.incrementAndGet();
+        return new PooledConnection(transport);
+    }
+
+    private void release(PooledConnection connection, boolean healthy) {
+        connection.lastUsed = System.currentTimeMillis();
+        if (!healthy || connection.messagesSent >= maxMessagesPerConnection || !idle.offer(connection)) {
+            close(connection);
+        }
+        permits.release();
+    }
+
+    private void close(PooledConnection connection) {
+        try {
+            connection.transport.close();
+        } catch (MessagingException e) {
+            System.err.println("Error closing SMTP connection: " + e.getMessage());
+        } finally {
+            openConnections.decrementAndGet();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        PooledConnection connection;
+        while ((connection = idle.poll()) != null) {
+            close(connection);
+        }
+    }
+
+    public int getOpenConnections() { return openConnections.get(); }
+    public long getConnectionsOpened() { return connectionsOpened.get(); }
+    public long getMessagesSent() { return messagesSent.get(); }
+
+    private static class PooledConnection {
+        private final Transport transport;
+        private int messagesSent;
+        private long lastUsed;
+
+        PooledConnection(Transport transport) {
+            this.transport = transport;
+            this.lastUsed = System.currentTimeMillis();
+        }
+    }
+}
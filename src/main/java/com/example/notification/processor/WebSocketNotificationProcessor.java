@@ -19,6 +19,9 @@ public class WebSocketNotificationProcessor extends NotificationProcessor {
 
     @Override
     public boolean sendNotification(Notification notification) {
+        if (!webSocketHandler.hasOpenSession(notification.getUserId())) {
+            throw new RecipientUnavailableException("No active WebSocket session for user: " + notification.getUserId());
+        }
         try {
             return webSocketHandler.sendNotificationToUser(notification.getUserId(), notification);
         } catch (Exception e) {
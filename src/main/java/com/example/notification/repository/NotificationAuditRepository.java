@@ -1,11 +1,34 @@
 package com.example.notification.repository;
 
 import com.example.notification.entity.NotificationAudit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface NotificationAuditRepository extends JpaRepository<NotificationAudit, Long> {
     List<NotificationAudit> findByNotificationIdOrderByTimestampDesc(Long notificationId);
     List<NotificationAudit> findByUserIdOrderByTimestampDesc(String userId);
+
+    // Keyset pages of the trails, newest first, strictly after (beforeTimestamp, beforeId)
+    @Query("SELECT a FROM NotificationAudit a WHERE a.notificationId = :notificationId AND a.timestamp <= :beforeTimestamp " +
+            "AND (a.timestamp < :beforeTimestamp OR a.id < :beforeId) ORDER BY a.timestamp DESC, a.id DESC")
+    List<NotificationAudit> findNotificationTrailPage(
+            @Param("notificationId") Long notificationId,
+            @Param("beforeTimestamp") LocalDateTime beforeTimestamp,
+            @Param("beforeId") Long beforeId,
+            Pageable pageable
+    );
+
+    @Query("SELECT a FROM NotificationAudit a WHERE a.userId = :userId AND a.timestamp <= :beforeTimestamp " +
+            "AND (a.timestamp < :beforeTimestamp OR a.id < :beforeId) ORDER BY a.timestamp DESC, a.id DESC")
+    List<NotificationAudit> findUserTrailPage(
+            @Param("userId") String userId,
+            @Param("beforeTimestamp") LocalDateTime beforeTimestamp,
+            @Param("beforeId") Long beforeId,
+            Pageable pageable
+    );
 }
@@ -1,22 +1,76 @@
 package com.example.notification.repository;
 
+import com.example.notification.dto.NotificationView;
 import com.example.notification.entity.Notification;
 import com.example.notification.enums.NotificationPriority;
 import com.example.notification.enums.NotificationStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
 
+    // Column list of NotificationView; queries starting with it return tuples, not entities
+    String VIEW_SELECT = "SELECT n.id AS id, n.userId AS userId, n.title AS title, n.message AS message, " +
+            "n.priority AS priority, n.channel AS channel, n.status AS status, n.createdAt AS createdAt, " +
+            "n.scheduledAt AS scheduledAt, n.sentAt AS sentAt, n.expiresAt AS expiresAt, " +
+            "n.deliveryState.channelMask AS channelMask, n.deliveryState.deliveredMask AS deliveredMask, " +
+            "n.deliveryState.failedMask AS failedMask FROM Notification n ";
+
+    // Single notification for the read endpoints
+    @Query(VIEW_SELECT + "WHERE n.id = :id")
+    Optional<NotificationView> findViewById(@Param("id") Long id);
+
+    // Same, only when owned by the user
+    @Query(VIEW_SELECT + "WHERE n.id = :id AND n.userId = :userId")
+    Optional<NotificationView> findViewByIdAndUserId(@Param("id") Long id, @Param("userId") String userId);
+
+    // Ownership check without loading the row into the persistence context
+    boolean existsByIdAndUserId(Long id, String userId);
+
     // Find notifications by user ID and status
     List<Notification> findByUserIdAndStatus(String userId, NotificationStatus status);
 
     // Get all notifications for a user ordered by creation time (newest first)
     List<Notification> findByUserIdOrderByCreatedAtDesc(String userId);
 
+    // Keyset page of a user's notifications, newest first, strictly after (beforeCreatedAt, beforeId).
+    // The redundant createdAt <= bound lets the index seek straight to the cursor.
+    @Query(VIEW_SELECT + "WHERE n.userId = :userId AND n.createdAt <= :beforeCreatedAt " +
+            "AND (n.createdAt < :beforeCreatedAt OR n.id < :beforeId) ORDER BY n.createdAt DESC, n.id DESC")
+    List<NotificationView> findUserPage(
+            @Param("userId") String userId,
+            @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+            @Param("beforeId") Long beforeId,
+            Pageable pageable
+    );
+
+    // Same, limited to one status
+    @Query(VIEW_SELECT + "WHERE n.userId = :userId AND n.status = :status " +
+            "AND n.createdAt <= :beforeCreatedAt AND (n.createdAt < :beforeCreatedAt OR n.id < :beforeId) " +
+            "ORDER BY n.createdAt DESC, n.id DESC")
+    List<NotificationView> findUserPageByStatus(
+            @Param("userId") String userId,
+            @Param("status") NotificationStatus status,
+            @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+            @Param("beforeId") Long beforeId,
+            Pageable pageable
+    );
+
+    // Occurrences of a recurring series still in the given status
+    @Query("SELECT n.id FROM Notification n WHERE n.seriesId = :seriesId AND n.status = :status")
+    List<Long> findIdsBySeriesIdAndStatus(
+            @Param("seriesId") Long seriesId,
+            @Param("status") NotificationStatus status
+    );
+
     // Find pending notifications ordered by priority and creation time
     @Query("SELECT n FROM Notification n WHERE n.status = :status AND n.scheduledAt <= :now ORDER BY n.priority, n.createdAt")
     List<Notification> findPendingNotificationsByPriority(NotificationStatus status, LocalDateTime now);
@@ -42,6 +96,281 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
             @Param("endTime") LocalDateTime endTime
     );
 
+    // Page through scheduled notifications within a time range, keyed on (scheduledAt, id) so rows
+    // that fire and leave SCHEDULED while we are paging cannot shift later pages
+    @Query("SELECT n FROM Notification n WHERE n.status = :status AND n.scheduledAt <= :endTime " +
+            "AND (n.scheduledAt > :afterTime OR (n.scheduledAt = :afterTime AND n.id > :afterId)) " +
+            "ORDER BY n.scheduledAt, n.id")
+    List<Notification> findScheduledNotificationsBetween(
+            @Param("status") NotificationStatus status,
+            @Param("afterTime") LocalDateTime afterTime,
+            @Param("afterId") Long afterId,
+            @Param("endTime") LocalDateTime endTime,
+            Pageable pageable
+    );
+
+    // Page through notifications in a status matching an optional filter, keyed on id (bulk operations).
+    // The (status, id) index serves the keyset; metadata criteria are containment on the GIN indexes
+    // (metadata for key/value pairs, notification_metadata_keys for a bare tag key), which a custom plan
+    // can use - a generic plan keeps them as filters on the keyset scan. Status is passed by name as stored.
+    @Query(value = "SELECT * FROM notifications n WHERE n.status = :status AND n.id > :afterId " +
+            "AND (CAST(:userId AS varchar) IS NULL OR n.user_id = :userId) " +
+            "AND (CAST(:seriesId AS bigint) IS NULL OR n.series_id = :seriesId) " +
+            "AND (CAST(:fromTime AS timestamp) IS NULL OR n.scheduled_at >= :fromTime) " +
+            "AND (CAST(:toTime AS timestamp) IS NULL OR n.scheduled_at <= :toTime) " +
+            "AND (CAST(:campaignId AS varchar) IS NULL " +
+            "     OR n.metadata @> jsonb_build_object('campaignId', CAST(:campaignId AS varchar))) " +
+            "AND (CAST(:tagKey AS varchar) IS NULL " +
+            "     OR (CAST(:tagValue AS varchar) IS NULL AND notification_metadata_keys(n.metadata) @> ARRAY[CAST(:tagKey AS text)]) " +
+            "     OR n.metadata @> jsonb_build_object(CAST(:tagKey AS varchar), CAST(:tagValue AS varchar))) " +
+            "ORDER BY n.id",
+            nativeQuery = true)
+    List<Notification> findByFilterAfterId(
+            @Param("status") String status,
+            @Param("afterId") Long afterId,
+            @Param("userId") String userId,
+            @Param("seriesId") Long seriesId,
+            @Param("fromTime") LocalDateTime fromTime,
+            @Param("toTime") LocalDateTime toTime,
+            @Param("campaignId") String campaignId,
+            @Param("tagKey") String tagKey,
+            @Param("tagValue") String tagValue,
+            Pageable pageable
+    );
+
+    // Set-based cancel of notifications that are still SCHEDULED; only the rows this statement moved
+    // are audited. Returns their IDs, so callers drop timers only for those
+    @Query(value = "WITH cancelled AS (" +
+            "  UPDATE notifications SET status = 'FAILED', error_message = :errorMessage " +
+            "  WHERE id IN :ids AND status = 'SCHEDULED' " +
+            "  RETURNING id, user_id), " +
+            "audited AS (" +
+            "  INSERT INTO notification_audit (notification_id, user_id, previous_status, new_status, timestamp, details) " +
+            "  SELECT id, user_id, :previousStatus, :newStatusOrdinal, :timestamp, :details FROM cancelled) " +
+            "SELECT id FROM cancelled",
+            nativeQuery = true)
+    List<Long> cancelIds(
+            @Param("ids") Collection<Long> ids,
+            @Param("errorMessage") String errorMessage,
+            @Param("previousStatus") int previousStatus,
+            @Param("newStatusOrdinal") int newStatusOrdinal,
+            @Param("timestamp") LocalDateTime timestamp,
+            @Param("details") String details
+    );
+
+    // Set-based reschedule of notifications that are still SCHEDULED
+    // Returns the IDs it actually moved, so callers re-arm timers only for those
+    @Query(value = "WITH moved AS (" +
+            "  UPDATE notifications SET scheduled_at = :scheduledAt " +
+            "  WHERE id IN :ids AND status = 'SCHEDULED' " +
+            "  RETURNING id, user_id), " +
+            "audited AS (" +
+            "  INSERT INTO notification_audit (notification_id, user_id, previous_status, new_status, timestamp, details) " +
+            "  SELECT id, user_id, :previousStatus, :newStatusOrdinal, :timestamp, :details FROM moved) " +
+            "SELECT id FROM moved",
+            nativeQuery = true)
+    List<Long> rescheduleIds(
+            @Param("ids") Collection<Long> ids,
+            @Param("scheduledAt") LocalDateTime scheduledAt,
+            @Param("previousStatus") int previousStatus,
+            @Param("newStatusOrdinal") int newStatusOrdinal,
+            @Param("timestamp") LocalDateTime timestamp,
+            @Param("details") String details
+    );
+
+    // IDs of notifications in the given statuses whose time-to-live has passed
+    @Query("SELECT n.id FROM Notification n WHERE n.status IN :statuses AND n.expiresAt < :now ORDER BY n.id")
+    List<Long> findExpiredIds(
+            @Param("statuses") Collection<NotificationStatus> statuses,
+            @Param("now") LocalDateTime now,
+            Pageable pageable
+    );
+
+    // Set-based move to EXPIRED, guarded so rows that were sent meanwhile are left alone; the audit
+    // row is written only for rows this statement moved, so re-expiring an ID adds nothing
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query(value = "WITH expired AS (" +
+            "  UPDATE notifications SET status = 'EXPIRED' " +
+            "  WHERE id IN :ids AND status IN :statuses " +
+            "  RETURNING id, user_id) " +
+            "INSERT INTO notification_audit (notification_id, user_id, previous_status, new_status, timestamp, details) " +
+            "SELECT id, user_id, NULL, :newStatusOrdinal, :timestamp, :details FROM expired",
+            nativeQuery = true)
+    int markExpired(
+            @Param("ids") Collection<Long> ids,
+            @Param("statuses") Collection<String> statuses,
+            @Param("newStatusOrdinal") int newStatusOrdinal,
+            @Param("timestamp") LocalDateTime timestamp,
+            @Param("details") String details
+    );
+
+    // Record promotions made by the priority aging sweeper
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE Notification n SET n.priority = :priority WHERE n.id IN :ids")
+    int updatePriorityForIds(
+            @Param("ids") Collection<Long> ids,
+            @Param("priority") NotificationPriority priority
+    );
+
+    // Guarded single-row transition and its audit row in one statement. Nothing is written when the row
+    // is no longer in expectedStatus, so two consumers cannot both move it. Statuses are stored by name
+    // on notifications and by ordinal on notification_audit.
+    @Modifying
+    @Transactional
+    @Query(value = "WITH moved AS (" +
+            "  UPDATE notifications SET status = :newStatus, " +
+            "    sent_at = CASE WHEN :newStatus = 'SENT' THEN CAST(:timestamp AS timestamp) ELSE sent_at END, " +
+            "    processing_started_at = CASE WHEN :newStatus = 'PROCESSING' THEN CAST(:timestamp AS timestamp) " +
+            "      ELSE processing_started_at END, " +
+            "    error_message = COALESCE(CAST(:errorMessage AS varchar), error_message) " +
+            "  WHERE id = :id AND status = :expectedStatus " +
+            "  RETURNING id, user_id) " +
+            "INSERT INTO notification_audit (notification_id, user_id, previous_status, new_status, timestamp, details) " +
+            "SELECT id, user_id, :previousStatus, :newStatusOrdinal, :timestamp, :details FROM moved",
+            nativeQuery = true)
+    int transitionStatus(
+            @Param("id") Long id,
+            @Param("expectedStatus") String expectedStatus,
+            @Param("previousStatus") int previousStatus,
+            @Param("newStatus") String newStatus,
+            @Param("newStatusOrdinal") int newStatusOrdinal,
+            @Param("errorMessage") String errorMessage,
+            @Param("timestamp") LocalDateTime timestamp,
+            @Param("details") String details
+    );
+
+    // Channel change of a queued notification (circuit breaker fallback) with its audit row, guarded on
+    // the status the message was queued in; the status itself is unchanged
+    @Modifying
+    @Transactional
+    @Query(value = "WITH moved AS (" +
+            "  UPDATE notifications SET channel = :channel " +
+            "  WHERE id = :id AND status = :expectedStatus " +
+            "  RETURNING id, user_id) " +
+            "INSERT INTO notification_audit (notification_id, user_id, previous_status, new_status, timestamp, details) " +
+            "SELECT id, user_id, :statusOrdinal, :statusOrdinal, :timestamp, :details FROM moved",
+            nativeQuery = true)
+    int rerouteChannel(
+            @Param("id") Long id,
+            @Param("expectedStatus") String expectedStatus,
+            @Param("statusOrdinal") int statusOrdinal,
+            @Param("channel") String channel,
+            @Param("timestamp") LocalDateTime timestamp,
+            @Param("details") String details
+    );
+
+    // Guarded move to RETRYING, due again at retryAt, with its audit row, in one statement. A failed
+    // attempt bumps the retry count; a deferred one (the send was never attempted) does not
+    @Modifying
+    @Transactional
+    @Query(value = "WITH moved AS (" +
+            "  UPDATE notifications SET status = 'RETRYING', retry_count = retry_count + :retryIncrement, " +
+            "    retry_at = :retryAt, error_message = :errorMessage " +
+            "  WHERE id = :id AND status = :expectedStatus " +
+            "  RETURNING id, user_id, retry_count) " +
+            "INSERT INTO notification_audit (notification_id, user_id, previous_status, new_status, timestamp, details) " +
+            "SELECT id, user_id, :previousStatus, :newStatusOrdinal, :timestamp, " +
+            "  CASE WHEN :retryIncrement > 0 THEN 'Retry attempt #' || retry_count || ': ' ELSE 'Deferred: ' END " +
+            "  || :errorMessage FROM moved",
+            nativeQuery = true)
+    int transitionToRetrying(
+            @Param("id") Long id,
+            @Param("expectedStatus") String expectedStatus,
+            @Param("previousStatus") int previousStatus,
+            @Param("newStatusOrdinal") int newStatusOrdinal,
+            @Param("retryIncrement") int retryIncrement,
+            @Param("retryAt") LocalDateTime retryAt,
+            @Param("errorMessage") String errorMessage,
+            @Param("timestamp") LocalDateTime timestamp
+    );
+
+    // Combined outcome of a multi-channel delivery: per-channel masks, overall status and audit row in one
+    // statement, guarded on the PROCESSING claim
+    @Modifying
+    @Transactional
+    @Query(value = "WITH moved AS (" +
+            "  UPDATE notifications SET status = :newStatus, delivered_mask = :deliveredMask, failed_mask = :failedMask, " +
+            "    sent_at = CASE WHEN :newStatus = 'SENT' THEN CAST(:timestamp AS timestamp) ELSE sent_at END, " +
+            "    retry_count = retry_count + :retryIncrement, retry_at = CAST(:retryAt AS timestamp), " +
+            "    error_message = COALESCE(CAST(:errorMessage AS varchar), error_message) " +
+            "  WHERE id = :id AND status = 'PROCESSING' " +
+            "  RETURNING id, user_id) " +
+            "INSERT INTO notification_audit (notification_id, user_id, previous_status, new_status, timestamp, details) " +
+            "SELECT id, user_id, :previousStatus, :newStatusOrdinal, :timestamp, :details FROM moved",
+            nativeQuery = true)
+    int completeChannelDelivery(
+            @Param("id") Long id,
+            @Param("deliveredMask") int deliveredMask,
+            @Param("failedMask") int failedMask,
+            @Param("previousStatus") int previousStatus,
+            @Param("newStatus") String newStatus,
+            @Param("newStatusOrdinal") int newStatusOrdinal,
+            @Param("retryIncrement") int retryIncrement,
+            @Param("retryAt") LocalDateTime retryAt,
+            @Param("errorMessage") String errorMessage,
+            @Param("timestamp") LocalDateTime timestamp,
+            @Param("details") String details
+    );
+
+    // RETRYING notifications whose backoff has elapsed
+    @Query("SELECT n.id FROM Notification n WHERE n.status = com.example.notification.enums.NotificationStatus.RETRYING " +
+            "AND n.retryAt <= :now ORDER BY n.retryAt, n.id")
+    List<Long> findDueRetryIds(
+            @Param("now") LocalDateTime now,
+            Pageable pageable
+    );
+
+    // Hand due retries back to PENDING, with their audit rows, in one statement. Returns the IDs it
+    // moved, so with several sweeping nodes each retry is re-queued by exactly one of them
+    @Transactional
+    @Query(value = "WITH released AS (" +
+            "  UPDATE notifications SET status = 'PENDING', retry_at = NULL " +
+            "  WHERE id IN :ids AND status = 'RETRYING' AND retry_at <= :now " +
+            "  RETURNING id, user_id), " +
+            "audited AS (" +
+            "  INSERT INTO notification_audit (notification_id, user_id, previous_status, new_status, timestamp, details) " +
+            "  SELECT id, user_id, :previousStatus, :newStatusOrdinal, :now, :details FROM released) " +
+            "SELECT id FROM released",
+            nativeQuery = true)
+    List<Long> releaseDueRetries(
+            @Param("ids") Collection<Long> ids,
+            @Param("now") LocalDateTime now,
+            @Param("previousStatus") int previousStatus,
+            @Param("newStatusOrdinal") int newStatusOrdinal,
+            @Param("details") String details
+    );
+
+    // Notifications whose processing claim is older than the lease (the consumer holding it died)
+    @Query("SELECT n.id FROM Notification n WHERE n.status = com.example.notification.enums.NotificationStatus.PROCESSING " +
+            "AND (n.processingStartedAt IS NULL OR n.processingStartedAt < :claimedBefore) ORDER BY n.id")
+    List<Long> findAbandonedClaimIds(
+            @Param("claimedBefore") LocalDateTime claimedBefore,
+            Pageable pageable
+    );
+
+    // Hand abandoned claims back to PENDING, with their audit rows, in one statement; rows that finished
+    // or were re-claimed since they were found are left alone
+    @Modifying
+    @Transactional
+    @Query(value = "WITH released AS (" +
+            "  UPDATE notifications SET status = 'PENDING', processing_started_at = NULL " +
+            "  WHERE id IN :ids AND status = 'PROCESSING' " +
+            "    AND (processing_started_at IS NULL OR processing_started_at < :claimedBefore) " +
+            "  RETURNING id, user_id) " +
+            "INSERT INTO notification_audit (notification_id, user_id, previous_status, new_status, timestamp, details) " +
+            "SELECT id, user_id, :previousStatus, :newStatusOrdinal, :timestamp, :details FROM released",
+            nativeQuery = true)
+    int releaseAbandonedClaims(
+            @Param("ids") Collection<Long> ids,
+            @Param("claimedBefore") LocalDateTime claimedBefore,
+            @Param("previousStatus") int previousStatus,
+            @Param("newStatusOrdinal") int newStatusOrdinal,
+            @Param("timestamp") LocalDateTime timestamp,
+            @Param("details") String details
+    );
+
     // Find notifications by multiple statuses (useful for dashboard queries)
     @Query("SELECT n FROM Notification n WHERE n.status IN :statuses ORDER BY n.createdAt DESC")
     List<Notification> findByStatusIn(@Param("statuses") List<NotificationStatus> statuses);
@@ -0,0 +1,27 @@
+package com.example.notification.repository;
+
+import com.example.notification.entity.NotificationSeries;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface NotificationSeriesRepository extends JpaRepository<NotificationSeries, Long> {
+
+    // Active series whose next occurrence falls before the given time, paged by ID. The rows stay locked
+    // until the caller's transaction commits and rows another node has locked are skipped, so each
+    // occurrence is materialized by exactly one node.
+    @Query(value = "SELECT * FROM notification_series WHERE active AND next_fire_at <= :until AND id > :afterId " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<NotificationSeries> claimDueSeries(
+            @Param("until") LocalDateTime until,
+            @Param("afterId") Long afterId,
+            @Param("limit") int limit
+    );
+
+    List<NotificationSeries> findByUserIdAndActiveTrue(String userId);
+
+    long countByActiveTrue();
+}
@@ -1,9 +1,27 @@
 package com.example.notification.repository;
 
 import com.example.notification.entity.User;
+import com.example.notification.enums.UserType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, String> {
+
+    // Role checks run on every secured request and only need the type
+    @Query("SELECT u.userType FROM User u WHERE u.userId = :userId")
+    Optional<UserType> findUserTypeByUserId(@Param("userId") String userId);
+
+    // Bulk removal of push tokens the gateway reported as invalid
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.fcmToken = NULL WHERE u.fcmToken IN :tokens")
+    int clearFcmTokens(@Param("tokens") Collection<String> tokens);
 }
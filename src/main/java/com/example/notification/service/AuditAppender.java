@@ -0,0 +1,334 @@
+package com.example.notification.service;
+
+import com.example.notification.entity.NotificationAudit;
+import com.example.notification.repository.NotificationAuditRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind appender for notification_audit. Callers hand over an entry and return; a single
+ * writer thread drains the buffer every flush-interval-ms (or as soon as batch-size entries are
+ * waiting) and writes them with one batched INSERT, so audit rows cost no round trips on the
+ * send path.
+ *
+ * Durability modes (notification.audit.durability):
+ * - ASYNC: return immediately; entries still buffered when the process dies are lost
+ * - GROUP_COMMIT: wait until the batch holding the entry has been written, sharing the commit
+ *   with every other caller in that batch; a batch that fails or is not written in time is
+ *   reported to the caller as a DataAccessException, as a failed insert would be in SYNC mode
+ * - SYNC: insert in the caller's transaction, as before
+ *
+ * Entries made inside a transaction are only buffered once it commits, so a rolled back change
+ * leaves no audit row behind. A batch that fails to write is retried with exponential backoff and
+ * keeps its place in the buffer, so during an outage the buffer fills up rather than losing
+ * entries; once it is full the caller writes its own row instead of dropping it. With the segment
+ * log enabled, entries go to {@link SegmentedAuditLog} instead of the table and the durability
+ * modes do not apply.
+ */
+@Service
+public class AuditAppender {
+
+    private static final String INSERT_SQL = "INSERT INTO notification_audit " +
+            "(notification_id, user_id, previous_status, new_status, timestamp, details) VALUES (?, ?, ?, ?, ?, ?)";
+
+    public enum Durability { ASYNC, GROUP_COMMIT, SYNC }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NotificationAuditRepository auditRepository;
+
+    @Autowired
+    private SegmentedAuditLog segmentedAuditLog;
+
+    @Value("${notification.audit.durability:ASYNC}")
+    private Durability durability;
+
+    @Value("${notification.audit.flush-interval-ms:5}")
+    private long flushIntervalMs;
+
+    @Value("${notification.audit.batch-size:500}")
+    private int batchSize;
+
+    // Entries buffered before callers start writing their own rows
+    @Value("${notification.audit.buffer-capacity:50000}")
+    private int bufferCapacity;
+
+    // GROUP_COMMIT callers stop waiting after this; the entry stays buffered
+    @Value("${notification.audit.commit-timeout-ms:1000}")
+    private long commitTimeoutMs;
+
+    // First wait before a failed batch is written again; doubles per attempt up to the maximum
+    @Value("${notification.audit.retry-backoff-ms:50}")
+    private long retryBackoffMs;
+
+    @Value("${notification.audit.max-retry-backoff-ms:5000}")
+    private long maxRetryBackoffMs;
+
+    private final ConcurrentLinkedQueue<PendingAudit> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger(0);
+
+    private final AtomicLong appended = new AtomicLong(0);
+    private final AtomicLong written = new AtomicLong(0);
+    private final AtomicLong batches = new AtomicLong(0);
+    private final AtomicLong overflowWrites = new AtomicLong(0);
+    private final AtomicLong dropped = new AtomicLong(0);
+    private final AtomicLong failedWrites = new AtomicLong(0);
+
+    private ScheduledExecutorService writer;
+
+    // Batch that failed to write, retried before anything new; only touched by the writer thread.
+    // Its entries still count against the buffer capacity
+    private List<PendingAudit> failedBatch;
+    private int failedAttempts;
+    private volatile long nextAttemptAt;
+
+    @PostConstruct
+    public void start() {
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audit-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        nextAttemptAt = 0;
+        flush();
+        if (failedBatch != null) {
+            // The failed batch and everything queued behind it
+            System.err.println("Dropping " + pendingCount.get() + " audit entries that could not be written on shutdown");
+            dropped.addAndGet(pendingCount.get());
+        }
+        System.out.println("📝 Audit appender flushed on shutdown (" + written.get() + " entries written)");
+    }
+
+    /**
+     * Record an audit entry according to the configured durability mode
+     * @param audit Audit entry; its timestamp is the time of the transition, not of the write
+     */
+    public void append(NotificationAudit audit) {
+        appended.incrementAndGet();
+        if (durability == Durability.SYNC && !segmentedAuditLog.isEnabled()) {
+            auditRepository.save(audit);
+            written.incrementAndGet();
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    write(audit);
+                }
+            });
+        } else {
+            write(audit);
+        }
+    }
+
+    private void write(NotificationAudit audit) {
+        if (!segmentedAuditLog.isEnabled()) {
+            enqueue(audit);
+            return;
+        }
+        try {
+            segmentedAuditLog.append(audit);
+            written.incrementAndGet();
+        } catch (Exception e) {
+            dropped.incrementAndGet();
+            System.err.println("Error appending audit entry for notification " + audit.getNotificationId()
+                    + " to the segment log: " + e.getMessage());
+        }
+    }
+
+    private void enqueue(NotificationAudit audit) {
+        if (pendingCount.incrementAndGet() > bufferCapacity) {
+            pendingCount.decrementAndGet();
+            writeDirectly(audit); // Backpressure instead of losing the entry
+            return;
+        }
+
+        PendingAudit entry = new PendingAudit(audit, durability == Durability.GROUP_COMMIT);
+        pending.add(entry);
+        if (pendingCount.get() >= batchSize && System.currentTimeMillis() >= nextAttemptAt) {
+            writer.execute(this::flush); // Full batch - don't wait for the timer
+        }
+
+        if (entry.committed != null) {
+            try {
+                entry.committed.get(commitTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DataAccessResourceFailureException("Interrupted waiting for audit group commit", e);
+            } catch (ExecutionException e) {
+                throw new DataAccessResourceFailureException("Audit group commit failed for notification "
+                        + audit.getNotificationId() + " (entry stays buffered for retry)", e.getCause());
+            } catch (Exception e) {
+                throw new DataAccessResourceFailureException("Audit group commit not confirmed within "
+                        + commitTimeoutMs + "ms for notification " + audit.getNotificationId(), e);
+            }
+        }
+    }
+
+    private void writeDirectly(NotificationAudit audit) {
+        overflowWrites.incrementAndGet();
+        try {
+            auditRepository.save(audit);
+            written.incrementAndGet();
+        } catch (Exception e) {
+            dropped.incrementAndGet();
+            System.err.println("Error writing audit entry for notification " + audit.getNotificationId() + ": " + e.getMessage());
+        }
+    }
+
+    // Runs on the single writer thread (and once on shutdown)
+    void flush() {
+        if (System.currentTimeMillis() < nextAttemptAt) {
+            return; // Backing off after a failed write
+        }
+        if (failedBatch != null && !writeBatch(failedBatch)) {
+            return; // Database still unavailable; keep buffering
+        }
+
+        List<PendingAudit> batch;
+        do {
+            batch = new ArrayList<>(Math.min(batchSize, Math.max(pendingCount.get(), 1)));
+            PendingAudit entry;
+            while (batch.size() < batchSize && (entry = pending.poll()) != null) {
+                batch.add(entry);
+            }
+            if (!batch.isEmpty() && !writeBatch(batch)) {
+                return;
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    private boolean writeBatch(List<PendingAudit> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, entry) -> {
+                NotificationAudit audit = entry.audit;
+                ps.setObject(1, audit.getNotificationId(), Types.BIGINT);
+                ps.setString(2, audit.getUserId());
+                // Audit statuses are stored as ordinals
+                ps.setObject(3, audit.getPreviousStatus() != null ? audit.getPreviousStatus().ordinal() : null, Types.INTEGER);
+                ps.setObject(4, audit.getNewStatus() != null ? audit.getNewStatus().ordinal() : null, Types.INTEGER);
+                ps.setTimestamp(5, audit.getTimestamp() != null ? Timestamp.valueOf(audit.getTimestamp()) : null);
+                ps.setString(6, audit.getDetails());
+            });
+        } catch (Exception e) {
+            if (batch != failedBatch) {
+                failedBatch = batch;
+                failedAttempts = 0;
+                batch.forEach(entry -> entry.complete(e)); // Waiting callers hear about it now, not at their timeout
+            }
+            failedAttempts++;
+            failedWrites.incrementAndGet();
+            long backoffMs = Math.min(maxRetryBackoffMs, retryBackoffMs << Math.min(failedAttempts - 1, 20));
+            nextAttemptAt = System.currentTimeMillis() + backoffMs;
+            System.err.println("Error writing audit batch of " + batch.size() + " (attempt " + failedAttempts
+                    + "), retrying in " + backoffMs + "ms: " + e.getMessage());
+            return false;
+        }
+
+        failedBatch = null;
+        failedAttempts = 0;
+        nextAttemptAt = 0;
+        pendingCount.addAndGet(-batch.size());
+        written.addAndGet(batch.size());
+        batches.incrementAndGet();
+        batch.forEach(entry -> entry.complete(null));
+        return true;
+    }
+
+    public AuditStats getStats() {
+        return new AuditStats(durability.name(), pendingCount.get(), appended.get(), written.get(),
+                batches.get(), overflowWrites.get(), failedWrites.get(), dropped.get());
+    }
+
+    private static class PendingAudit {
+        private final NotificationAudit audit;
+        private final CompletableFuture<Void> committed;
+
+        PendingAudit(NotificationAudit audit, boolean awaitCommit) {
+            this.audit = audit;
+            this.committed = awaitCommit ? new CompletableFuture<>() : null;
+        }
+
+        void complete(Exception error) {
+            if (committed == null) {
+                return;
+            }
+            if (error != null) {
+                committed.completeExceptionally(error);
+            } else {
+                committed.complete(null);
+            }
+        }
+    }
+
+    public static class AuditStats {
+        private final String durability;
+        private final int buffered;
+        private final long appended;
+        private final long written;
+        private final long batches;
+        private final long overflowWrites;
+        private final long failedWrites;
+        private final long dropped;
+
+        public AuditStats(String durability, int buffered, long appended, long written,
+                          long batches, long overflowWrites, long failedWrites, long dropped) {
+            this.durability = durability;
+            this.buffered = buffered;
+            this.appended = appended;
+            this.written = written;
+            this.batches = batches;
+            this.overflowWrites = overflowWrites;
+            this.failedWrites = failedWrites;
+            this.dropped = dropped;
+        }
+
+        // Getters
+        public String getDurability() { return durability; }
+        public int getBuffered() { return buffered; }
+        public long getAppended() { return appended; }
+        public long getWritten() { return written; }
+        public long getBatches() { return batches; }
+        public long getOverflowWrites() { return overflowWrites; }
+        public long getFailedWrites() { return failedWrites; }
+        public long getDropped() { return dropped; }
+        public double getAverageBatchSize() {
+            return batches == 0 ? 0 : (double) (written - overflowWrites) / batches;
+        }
+    }
+}
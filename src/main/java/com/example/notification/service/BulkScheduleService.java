@@ -0,0 +1,132 @@
+package com.example.notification.service;
+
+import com.example.notification.dto.BulkOperationResult;
+import com.example.notification.dto.ScheduledNotificationFilter;
+import com.example.notification.entity.Notification;
+import com.example.notification.enums.NotificationStatus;
+import com.example.notification.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Campaign-level cancel and reschedule. Each chunk of matching IDs costs one guarded UPDATE that
+ * audits only the rows it changed (UPDATE ... RETURNING feeding the audit INSERT) and one batched
+ * removal from the scheduler, committed in its own transaction so a large campaign never holds
+ * one huge transaction.
+ */
+@Service
+public class BulkScheduleService {
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private ScheduledNotificationService scheduledNotificationService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${notification.bulk.chunk-size:1000}")
+    private int chunkSize;
+
+    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    public BulkOperationResult cancelScheduled(ScheduledNotificationFilter filter, String reason) {
+        requireFilter(filter);
+        long start = System.currentTimeMillis();
+        long matched = 0, updated = 0, timers = 0;
+
+        Long afterId = 0L;
+        List<Notification> chunk;
+        do {
+            chunk = findChunk(filter, afterId);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            afterId = chunk.get(chunk.size() - 1).getId();
+            List<Long> ids = chunk.stream().map(Notification::getId).collect(Collectors.toList());
+
+            List<Long> cancelled = transactionTemplate.execute(status -> notificationRepository.cancelIds(
+                    ids, reason, NotificationStatus.SCHEDULED.ordinal(), NotificationStatus.FAILED.ordinal(),
+                    LocalDateTime.now(), "Bulk cancel: " + reason));
+
+            matched += ids.size();
+            if (cancelled == null || cancelled.isEmpty()) {
+                continue;
+            }
+            updated += cancelled.size();
+            // Rows that left SCHEDULED between the read and the UPDATE are neither audited nor touched here
+            timers += scheduledNotificationService.cancelScheduledNotifications(cancelled);
+        } while (chunk.size() == chunkSize);
+
+        long elapsed = System.currentTimeMillis() - start;
+        System.out.println("❌ Bulk cancelled " + updated + "/" + matched + " scheduled notifications in " + elapsed + "ms");
+        return new BulkOperationResult(matched, updated, timers, elapsed);
+    }
+
+    public BulkOperationResult reschedule(ScheduledNotificationFilter filter, LocalDateTime scheduledAt) {
+        requireFilter(filter);
+        if (!scheduledAt.isAfter(LocalDateTime.now())) {
+            throw new IllegalArgumentException("New scheduled time must be in the future");
+        }
+        long start = System.currentTimeMillis();
+        long matched = 0, updated = 0, timers = 0;
+
+        Long afterId = 0L;
+        List<Notification> chunk;
+        do {
+            chunk = findChunk(filter, afterId);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            afterId = chunk.get(chunk.size() - 1).getId();
+            List<Long> ids = chunk.stream().map(Notification::getId).collect(Collectors.toList());
+
+            List<Long> moved = transactionTemplate.execute(status -> notificationRepository.rescheduleIds(
+                    ids, scheduledAt, NotificationStatus.SCHEDULED.ordinal(), NotificationStatus.SCHEDULED.ordinal(),
+                    LocalDateTime.now(), "Bulk rescheduled to: " + scheduledAt.format(formatter)));
+
+            matched += ids.size();
+            if (moved == null || moved.isEmpty()) {
+                continue;
+            }
+            updated += moved.size();
+            // Rows that left SCHEDULED between the read and the UPDATE keep whatever timer state they have
+            Set<Long> movedIds = new HashSet<>(moved);
+            List<Notification> rescheduled = chunk.stream()
+                    .filter(notification -> movedIds.contains(notification.getId()))
+                    .collect(Collectors.toList());
+            timers += scheduledNotificationService.rescheduleNotifications(rescheduled, scheduledAt);
+        } while (chunk.size() == chunkSize);
+
+        long elapsed = System.currentTimeMillis() - start;
+        System.out.println("📅 Bulk rescheduled " + updated + "/" + matched + " notifications to " +
+                scheduledAt.format(formatter) + " in " + elapsed + "ms");
+        return new BulkOperationResult(matched, updated, timers, elapsed);
+    }
+
+    private List<Notification> findChunk(ScheduledNotificationFilter filter, Long afterId) {
+        return notificationRepository.findByFilterAfterId(
+                NotificationStatus.SCHEDULED.name(), afterId,
+                filter.getUserId(), filter.getSeriesId(),
+                filter.getScheduledFrom(), filter.getScheduledTo(),
+                filter.getCampaignId(), filter.getTagKey(), filter.getTagValue(),
+                PageRequest.of(0, chunkSize));
+    }
+
+    private void requireFilter(ScheduledNotificationFilter filter) {
+        if (filter == null || filter.isEmpty()) {
+            throw new IllegalArgumentException("At least one filter criterion is required");
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.notification.service;
+
+import com.example.notification.enums.NotificationChannel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One bounded executor per channel, so a slow provider can only exhaust its own threads and
+ * queue instead of every priority listener's consumers. Sizes come from
+ * notification.bulkhead.[channel].threads / queue-capacity, falling back to the defaults.
+ * When a channel's threads and queue are all in use the task is refused and counted, and the
+ * caller sends the notification to the retry path; running it on the submitting consumer thread
+ * instead would let one slow channel stall the listeners every other channel shares.
+ */
+@Service
+public class ChannelBulkheadService {
+
+    @Autowired
+    private Environment environment;
+
+    private final Map<NotificationChannel, ThreadPoolExecutor> executors = new EnumMap<>(NotificationChannel.class);
+    private final Map<NotificationChannel, AtomicLong> rejected = new EnumMap<>(NotificationChannel.class);
+
+    @PostConstruct
+    void createBulkheads() {
+        int defaultThreads = environment.getProperty("notification.bulkhead.default.threads", Integer.class, 20);
+        int defaultQueue = environment.getProperty("notification.bulkhead.default.queue-capacity", Integer.class, 200);
+
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            String prefix = "notification.bulkhead." + channel.name().toLowerCase().replace('_', '-');
+            int threads = environment.getProperty(prefix + ".threads", Integer.class, defaultThreads);
+            int queueCapacity = environment.getProperty(prefix + ".queue-capacity", Integer.class, defaultQueue);
+
+            AtomicInteger threadCount = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    threads, threads, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    runnable -> new Thread(runnable,
+                            "bulkhead-" + channel.name().toLowerCase() + "-" + threadCount.incrementAndGet()),
+                    new ThreadPoolExecutor.AbortPolicy());
+            executor.allowCoreThreadTimeOut(true);
+
+            executors.put(channel, executor);
+            rejected.put(channel, new AtomicLong(0));
+        }
+    }
+
+    /**
+     * Run work inside the channel's bulkhead
+     * @param channel Channel whose bulkhead should run the task
+     * @param task Work to run
+     * @return false if the bulkhead is full (or shut down) and the task was not accepted
+     */
+    public boolean execute(NotificationChannel channel, Runnable task) {
+        try {
+            executors.get(channel).execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.get(channel).incrementAndGet();
+            return false;
+        }
+    }
+
+    public Map<NotificationChannel, BulkheadStats> getBulkheadStats() {
+        Map<NotificationChannel, BulkheadStats> stats = new LinkedHashMap<>();
+        executors.forEach((channel, executor) -> stats.put(channel, new BulkheadStats(
+                executor.getActiveCount(),
+                executor.getMaximumPoolSize(),
+                executor.getQueue().size(),
+                executor.getQueue().size() + executor.getQueue().remainingCapacity(),
+                executor.getCompletedTaskCount(),
+                rejected.get(channel).get()
+        )));
+        return stats;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executors.values().forEach(ThreadPoolExecutor::shutdown);
+    }
+
+    public static class BulkheadStats {
+        private final int activeThreads;
+        private final int maxThreads;
+        private final int queued;
+        private final int queueCapacity;
+        private final long completed;
+        private final long rejected;
+
+        public BulkheadStats(int activeThreads, int maxThreads, int queued, int queueCapacity,
+                             long completed, long rejected) {
+            this.activeThreads = activeThreads;
+            this.maxThreads = maxThreads;
+            this.queued = queued;
+            this.queueCapacity = queueCapacity;
+            this.completed = completed;
+            this.rejected = rejected;
+        }
+
+        // Getters
+        public int getActiveThreads() { return activeThreads; }
+        public int getMaxThreads() { return maxThreads; }
+        public int getQueued() { return queued; }
+        public int getQueueCapacity() { return queueCapacity; }
+        public long getCompleted() { return completed; }
+        public long getRejected() { return rejected; }
+        public double getSaturation() {
+            return (double) (activeThreads + queued) / (maxThreads + queueCapacity);
+        }
+    }
+}
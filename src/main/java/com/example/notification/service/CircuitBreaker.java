@@ -0,0 +1,164 @@
+package com.example.notification.service;
+
+import com.example.notification.enums.CircuitState;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker over the last {@code windowSize} calls. Opens when either the
+ * failure rate or the slow-call rate reaches its threshold, fails fast while open, and lets a
+ * limited number of probe calls through once the wait duration has passed.
+ */
+public class CircuitBreaker {
+
+    private final String name;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallDurationMs;
+    private final long openDurationMs;
+    private final int halfOpenProbes;
+    private final LongSupplier clock;
+
+    // Ring buffer of recent outcomes
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int position;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private CircuitState state = CircuitState.CLOSED;
+    private long stateChangedAt;
+    private int probesStarted;
+    private int probesCompleted;
+    private int probeFailures;
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                          double slowCallRateThreshold, long slowCallDurationMs, long openDurationMs,
+                          int halfOpenProbes, LongSupplier clock) {
+        this.name = name;
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallDurationMs = slowCallDurationMs;
+        this.openDurationMs = openDurationMs;
+        this.halfOpenProbes = halfOpenProbes;
+        this.clock = clock;
+        this.failed = new boolean[windowSize];
+        this.slow = new boolean[windowSize];
+        this.stateChangedAt = clock.getAsLong();
+    }
+
+    /**
+     * @return true if a call may proceed; false means fail fast
+     */
+    public synchronized boolean tryAcquirePermission() {
+        long now = clock.getAsLong();
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (now - stateChangedAt < openDurationMs) {
+                    return false;
+                }
+                transitionTo(CircuitState.HALF_OPEN, now);
+                probesStarted = 1;
+                return true;
+            case HALF_OPEN:
+                // Probes that never reported back (e.g. rejected downstream) must not wedge the breaker
+                if (probesStarted >= halfOpenProbes && now - stateChangedAt >= openDurationMs) {
+                    transitionTo(CircuitState.HALF_OPEN, now);
+                }
+                if (probesStarted < halfOpenProbes) {
+                    probesStarted++;
+                    return true;
+                }
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Record the outcome of a call that was permitted
+     * @param success Whether the call succeeded
+     * @param durationMs How long the call took
+     */
+    public synchronized void onResult(boolean success, long durationMs) {
+        long now = clock.getAsLong();
+        boolean isSlow = durationMs >= slowCallDurationMs;
+
+        if (state == CircuitState.HALF_OPEN) {
+            probesCompleted++;
+            if (!success || isSlow) {
+                probeFailures++;
+            }
+            if (probeFailures > 0 && (double) probeFailures / halfOpenProbes >= failureRateThreshold) {
+                transitionTo(CircuitState.OPEN, now);
+            } else if (probesCompleted >= halfOpenProbes) {
+                transitionTo(CircuitState.CLOSED, now);
+            }
+            return;
+        }
+        if (state == CircuitState.OPEN) {
+            return; // Late result of a call started before the breaker opened
+        }
+
+        if (recorded == windowSize) {
+            failures -= failed[position] ? 1 : 0;
+            slowCalls -= slow[position] ? 1 : 0;
+        } else {
+            recorded++;
+        }
+        failed[position] = !success;
+        slow[position] = isSlow;
+        failures += success ? 0 : 1;
+        slowCalls += isSlow ? 1 : 0;
+        position = (position + 1) % windowSize;
+
+        if (recorded >= minimumCalls &&
+                (getFailureRate() >= failureRateThreshold || getSlowCallRate() >= slowCallRateThreshold)) {
+            transitionTo(CircuitState.OPEN, now);
+        }
+    }
+
+    private void transitionTo(CircuitState newState, long now) {
+        if (newState != state) {
+            System.out.println("🔌 Circuit breaker " + name + ": " + state + " -> " + newState);
+        }
+        state = newState;
+        stateChangedAt = now;
+        probesStarted = 0;
+        probesCompleted = 0;
+        probeFailures = 0;
+        if (newState == CircuitState.CLOSED) {
+            position = 0;
+            recorded = 0;
+            failures = 0;
+            slowCalls = 0;
+        }
+    }
+
+    public synchronized CircuitState getState() {
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized double getFailureRate() {
+        return recorded == 0 ? 0 : (double) failures / recorded;
+    }
+
+    public synchronized double getSlowCallRate() {
+        return recorded == 0 ? 0 : (double) slowCalls / recorded;
+    }
+
+    public synchronized int getRecordedCalls() {
+        return recorded;
+    }
+}
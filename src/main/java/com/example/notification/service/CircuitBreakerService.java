@@ -0,0 +1,98 @@
+package com.example.notification.service;
+
+import com.example.notification.enums.NotificationChannel;
+import com.example.notification.enums.NotificationPriority;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Circuit breakers keyed by channel (or provider) name, plus the fallback channel routing used
+ * while a channel's breaker is open.
+ */
+@Service
+public class CircuitBreakerService {
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${notification.circuit-breaker.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.circuit-breaker.window-size:50}")
+    private int windowSize;
+
+    @Value("${notification.circuit-breaker.minimum-calls:20}")
+    private int minimumCalls;
+
+    @Value("${notification.circuit-breaker.failure-rate-threshold:0.5}")
+    private double failureRateThreshold;
+
+    @Value("${notification.circuit-breaker.slow-call-rate-threshold:0.8}")
+    private double slowCallRateThreshold;
+
+    @Value("${notification.circuit-breaker.slow-call-duration-ms:2000}")
+    private long slowCallDurationMs;
+
+    @Value("${notification.circuit-breaker.open-duration-ms:30000}")
+    private long openDurationMs;
+
+    @Value("${notification.circuit-breaker.half-open-probes:5}")
+    private int halfOpenProbes;
+
+    // Priorities allowed to be re-routed to a fallback channel
+    @Value("${notification.circuit-breaker.fallback-priorities:CRITICAL}")
+    private List<NotificationPriority> fallbackPriorities;
+
+    private final ConcurrentHashMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public CircuitBreaker getBreaker(String name) {
+        return breakers.computeIfAbsent(name, n -> new CircuitBreaker(n, windowSize, minimumCalls,
+                failureRateThreshold, slowCallRateThreshold, slowCallDurationMs, openDurationMs,
+                halfOpenProbes, System::currentTimeMillis));
+    }
+
+    public CircuitBreaker getBreaker(NotificationChannel channel) {
+        return getBreaker(channel.name());
+    }
+
+    public boolean tryAcquirePermission(NotificationChannel channel) {
+        return !enabled || getBreaker(channel).tryAcquirePermission();
+    }
+
+    public void recordResult(NotificationChannel channel, boolean success, long durationMs) {
+        if (enabled) {
+            getBreaker(channel).onResult(success, durationMs);
+        }
+    }
+
+    /**
+     * Channel to try when the notification's own channel is open,
+     * configured as notification.circuit-breaker.fallback.[channel]
+     * @param channel Channel whose breaker is open
+     * @param priority Notification priority
+     * @return Fallback channel, if one is configured for this channel and priority
+     */
+    public Optional<NotificationChannel> getFallbackChannel(NotificationChannel channel, NotificationPriority priority) {
+        if (!fallbackPriorities.contains(priority)) {
+            return Optional.empty();
+        }
+        String key = "notification.circuit-breaker.fallback." + channel.name().toLowerCase().replace('_', '-');
+        return Optional.ofNullable(environment.getProperty(key, NotificationChannel.class));
+    }
+
+    // How long an open breaker fails fast before it lets probes through
+    public long getOpenDurationMs() {
+        return openDurationMs;
+    }
+
+    public Collection<CircuitBreaker> getBreakers() {
+        return breakers.values();
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.notification.service;
+
+import com.example.notification.enums.NotificationChannel;
+import com.example.notification.enums.NotificationPriority;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Hedged sends for latency-critical traffic. A send that has not finished within the channel's
+ * recently observed p95 gets a second attempt to the same provider, which drops the duplicate by
+ * its idempotency key; the first success wins and the other attempt is cancelled. Hedges are limited by a per-channel
+ * budget that earns budget-percent of a hedge per eligible send, so hedging can never more than
+ * add that share of load to a provider.
+ */
+@Service
+public class HedgingService {
+
+    @Value("${notification.hedging.enabled:false}")
+    private boolean enabled;
+
+    // Channels that opted in to hedging
+    @Value("${notification.hedging.channels:}")
+    private List<NotificationChannel> hedgedChannels;
+
+    @Value("${notification.hedging.priorities:CRITICAL}")
+    private List<NotificationPriority> hedgedPriorities;
+
+    // Share of eligible sends that may be hedged
+    @Value("${notification.hedging.budget-percent:5}")
+    private double budgetPercent;
+
+    // Hedges never fire sooner than this, even when the observed p95 is lower
+    @Value("${notification.hedging.min-delay-ms:20}")
+    private long minDelayMs;
+
+    // Successful send latencies kept per channel for the p95
+    @Value("${notification.hedging.window-size:512}")
+    private int windowSize;
+
+    // No hedging until this many latencies have been observed
+    @Value("${notification.hedging.min-samples:50}")
+    private int minSamples;
+
+    private final Map<NotificationChannel, ChannelHedging> channels = new EnumMap<>(NotificationChannel.class);
+
+    private ScheduledExecutorService hedgeTimer;
+    private ExecutorService hedgeLauncher;
+
+    @PostConstruct
+    void init() {
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            channels.put(channel, new ChannelHedging(windowSize));
+        }
+        hedgeTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hedge-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger launcherCount = new AtomicInteger();
+        hedgeLauncher = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "hedge-launcher-" + launcherCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hedgeTimer.shutdownNow();
+        hedgeLauncher.shutdown();
+    }
+
+    public boolean isHedged(NotificationChannel channel, NotificationPriority priority) {
+        return enabled && hedgedChannels.contains(channel) && hedgedPriorities.contains(priority);
+    }
+
+    /**
+     * Record a successful send's latency; feeds the p95 that triggers hedges
+     * @param channel Channel the send went through
+     * @param latencyMs Send duration
+     */
+    public void recordLatency(NotificationChannel channel, long latencyMs) {
+        channels.get(channel).record(latencyMs);
+    }
+
+    /**
+     * Run a send with a hedge: if the primary attempt is still running after the channel's p95
+     * and the budget allows, the alternate attempt is started as well
+     * @param channel Channel being sent on
+     * @param primary Starts the primary attempt
+     * @param alternate Starts the hedge, to the provider the primary attempt went to
+     * @return Stage completing true on the first successful attempt, or with the primary's
+     *         outcome once every started attempt has failed
+     */
+    public CompletionStage<Boolean> hedge(NotificationChannel channel,
+                                          Supplier<CompletionStage<Boolean>> primary,
+                                          Supplier<CompletionStage<Boolean>> alternate) {
+        ChannelHedging hedging = channels.get(channel);
+        hedging.eligible.incrementAndGet();
+        hedging.earnBudget(budgetPercent / 100.0);
+
+        long p95 = hedging.p95(minSamples);
+        if (p95 < 0) {
+            return primary.get(); // Not enough history to know what "slow" means yet
+        }
+
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        List<CompletableFuture<Boolean>> attempts = new CopyOnWriteArrayList<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        long delayMs = Math.max(minDelayMs, p95);
+
+        ScheduledFuture<?> timer = hedgeTimer.schedule(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            if (!hedging.tryConsumeBudget()) {
+                hedging.budgetExhausted.incrementAndGet();
+                return;
+            }
+            hedging.hedged.incrementAndGet();
+            outstanding.incrementAndGet();
+            CompletableFuture<Boolean> hedgeAttempt = CompletableFuture
+                    .supplyAsync(alternate, hedgeLauncher)
+                    .thenCompose(stage -> stage);
+            attempts.add(hedgeAttempt);
+            track(hedgeAttempt, true, hedging, result, attempts, outstanding);
+        }, delayMs, TimeUnit.MILLISECONDS);
+
+        CompletableFuture<Boolean> primaryAttempt;
+        try {
+            primaryAttempt = primary.get().toCompletableFuture();
+        } catch (Exception e) {
+            primaryAttempt = CompletableFuture.failedFuture(e);
+        }
+        attempts.add(primaryAttempt);
+        track(primaryAttempt, false, hedging, result, attempts, outstanding);
+
+        result.whenComplete((success, error) -> timer.cancel(false));
+        return result;
+    }
+
+    private void track(CompletableFuture<Boolean> attempt, boolean isHedge, ChannelHedging hedging,
+                       CompletableFuture<Boolean> result, List<CompletableFuture<Boolean>> attempts,
+                       AtomicInteger outstanding) {
+        attempt.whenComplete((success, error) -> {
+            if (error == null && Boolean.TRUE.equals(success)) {
+                if (result.complete(true)) {
+                    if (isHedge) {
+                        hedging.hedgeWins.incrementAndGet();
+                    }
+                    // Best effort: the losing provider call may already be past the point of no return
+                    attempts.stream().filter(other -> other != attempt).forEach(other -> other.cancel(true));
+                }
+            } else if (outstanding.decrementAndGet() == 0) {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(false);
+                }
+            }
+        });
+    }
+
+    public Map<NotificationChannel, HedgeStats> getHedgeStats() {
+        Map<NotificationChannel, HedgeStats> stats = new LinkedHashMap<>();
+        channels.forEach((channel, hedging) -> {
+            if (enabled && hedgedChannels.contains(channel)) {
+                stats.put(channel, new HedgeStats(
+                        hedging.eligible.get(),
+                        hedging.hedged.get(),
+                        hedging.hedgeWins.get(),
+                        hedging.budgetExhausted.get(),
+                        hedging.p95(minSamples)
+                ));
+            }
+        });
+        return stats;
+    }
+
+    private static class ChannelHedging {
+        private final long[] latencies;
+        private int next;
+        private int size;
+
+        private double budget;
+
+        private final AtomicLong eligible = new AtomicLong(0);
+        private final AtomicLong hedged = new AtomicLong(0);
+        private final AtomicLong hedgeWins = new AtomicLong(0);
+        private final AtomicLong budgetExhausted = new AtomicLong(0);
+
+        ChannelHedging(int windowSize) {
+            this.latencies = new long[windowSize];
+        }
+
+        synchronized void record(long latencyMs) {
+            latencies[next] = latencyMs;
+            next = (next + 1) % latencies.length;
+            size = Math.min(size + 1, latencies.length);
+        }
+
+        // -1 until enough samples have been recorded
+        synchronized long p95(int minSamples) {
+            if (size < minSamples) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            return sorted[(int) Math.ceil(size * 0.95) - 1];
+        }
+
+        synchronized void earnBudget(double amount) {
+            // Cap the balance so a long quiet period cannot fund a burst of hedges
+            budget = Math.min(10, budget + amount);
+        }
+
+        synchronized boolean tryConsumeBudget() {
+            if (budget + 1e-9 < 1) { // Tolerate rounding in the repeated fractional earnings
+                return false;
+            }
+            budget--;
+            return true;
+        }
+    }
+
+    public static class HedgeStats {
+        private final long eligible;
+        private final long hedged;
+        private final long hedgeWins;
+        private final long budgetExhausted;
+        private final long p95Ms;
+
+        public HedgeStats(long eligible, long hedged, long hedgeWins, long budgetExhausted, long p95Ms) {
+            this.eligible = eligible;
+            this.hedged = hedged;
+            this.hedgeWins = hedgeWins;
+            this.budgetExhausted = budgetExhausted;
+            this.p95Ms = p95Ms;
+        }
+
+        // Getters
+        public long getEligible() { return eligible; }
+        public long getHedged() { return hedged; }
+        public long getHedgeWins() { return hedgeWins; }
+        public long getBudgetExhausted() { return budgetExhausted; }
+        public long getP95Ms() { return p95Ms; }
+        public double getHedgeRate() {
+            return eligible == 0 ? 0 : (double) hedged / eligible;
+        }
+    }
+}
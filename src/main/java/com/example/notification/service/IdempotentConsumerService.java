@@ -0,0 +1,148 @@
+package com.example.notification.service;
+
+import com.example.notification.entity.Notification;
+import com.example.notification.enums.NotificationStatus;
+import com.example.notification.repository.NotificationRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Idempotent-consumer support around the status claim made in
+ * {@link com.example.notification.processor.NotificationProcessor}.
+ *
+ * The claim itself is a compare-and-set on status (queued status -> PROCESSING). This service adds:
+ * - a local recent-ID filter, so most redeliveries and duplicate publishes of notifications this
+ *   node already finished are dropped without a database round trip. It is direct-mapped and
+ *   compares full IDs: it can forget an ID but never reports one it has not seen. Only terminal
+ *   outcomes (SENT, FAILED) go in; a claim lost to another consumer does not, because that
+ *   consumer may still hand the notification back (lease recovery, retry) to be delivered again.
+ * - a claim lease: claims older than lease-ms belong to a consumer that died mid-send and are
+ *   handed back to PENDING and re-queued, so a crash cannot leave a notification stuck.
+ */
+@Service
+public class IdempotentConsumerService {
+
+    private static final long EMPTY_SLOT = Long.MIN_VALUE;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private QueueService queueService;
+
+    // Slots in the recent-ID filter (rounded up to a power of two)
+    @Value("${notification.idempotency.recent-ids:65536}")
+    private int recentIds;
+
+    // Longest a send may hold its claim; must comfortably exceed the slowest provider call
+    @Value("${notification.idempotency.lease-ms:300000}")
+    private long leaseMs;
+
+    @Value("${notification.idempotency.recovery-batch-size:500}")
+    private int recoveryBatchSize;
+
+    private AtomicLongArray recent;
+    private int mask;
+
+    private final AtomicLong duplicatesSkipped = new AtomicLong(0);
+    private final AtomicLong claimConflicts = new AtomicLong(0);
+    private final AtomicLong claimsRecovered = new AtomicLong(0);
+
+    @PostConstruct
+    void init() {
+        int size = Integer.highestOneBit(Math.max(1, recentIds - 1)) << 1;
+        recent = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            recent.set(i, EMPTY_SLOT);
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Check the local filter for a notification this node has already finished
+     * @param notificationId Notification ID
+     * @return true if the message is a known duplicate and can be dropped
+     */
+    public boolean isDuplicate(Long notificationId) {
+        if (recent.get(slot(notificationId)) == notificationId) {
+            duplicatesSkipped.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Remember a notification this node moved to a terminal status (SENT or FAILED)
+     * @param notificationId Notification ID
+     */
+    public void recordHandled(Long notificationId) {
+        recent.set(slot(notificationId), notificationId);
+    }
+
+    // Another consumer holds or finished the notification. Counted only: if it holds the claim, the
+    // notification may come back as PENDING and must not be dropped here as a duplicate
+    public void recordClaimConflict(Long notificationId) {
+        claimConflicts.incrementAndGet();
+    }
+
+    @Scheduled(fixedDelayString = "${notification.idempotency.recovery-interval-ms:60000}")
+    public void recoverAbandonedClaims() {
+        LocalDateTime claimedBefore = LocalDateTime.now().minusNanos(leaseMs * 1_000_000);
+        List<Long> ids;
+        do {
+            ids = notificationRepository.findAbandonedClaimIds(claimedBefore, PageRequest.of(0, recoveryBatchSize));
+            if (ids.isEmpty()) {
+                return;
+            }
+
+            int released = notificationRepository.releaseAbandonedClaims(ids, claimedBefore,
+                    NotificationStatus.PROCESSING.ordinal(), NotificationStatus.PENDING.ordinal(),
+                    LocalDateTime.now(), "Processing claim expired - re-queued");
+            if (released > 0) {
+                List<Notification> notifications = notificationRepository.findAllById(ids);
+                for (Notification notification : notifications) {
+                    if (notification.getStatus() == NotificationStatus.PENDING) {
+                        queueService.sendToQueue(notification);
+                    }
+                }
+                claimsRecovered.addAndGet(released);
+                System.out.println("♻️ Re-queued " + released + " notifications with abandoned processing claims");
+            }
+        } while (ids.size() == recoveryBatchSize);
+    }
+
+    public IdempotencyStats getStats() {
+        return new IdempotencyStats(duplicatesSkipped.get(), claimConflicts.get(), claimsRecovered.get());
+    }
+
+    private int slot(Long notificationId) {
+        long h = notificationId * 0x9E3779B97F4A7C15L; // Spread sequential IDs across the table
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    public static class IdempotencyStats {
+        private final long duplicatesSkipped;
+        private final long claimConflicts;
+        private final long claimsRecovered;
+
+        public IdempotencyStats(long duplicatesSkipped, long claimConflicts, long claimsRecovered) {
+            this.duplicatesSkipped = duplicatesSkipped;
+            this.claimConflicts = claimConflicts;
+            this.claimsRecovered = claimsRecovered;
+        }
+
+        // Getters
+        public long getDuplicatesSkipped() { return duplicatesSkipped; }
+        public long getClaimConflicts() { return claimConflicts; }
+        public long getClaimsRecovered() { return claimsRecovered; }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.notification.service;
+
+import com.example.notification.enums.NotificationStatus;
+import com.example.notification.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Moves notifications whose time-to-live has passed to EXPIRED in batches. Consumers hand over
+ * expired IDs without touching the database; a sweep also catches messages the broker discarded
+ * on its own, which never reach a consumer.
+ */
+@Service
+public class NotificationExpiryService {
+
+    // Statuses a notification can still expire from
+    private static final Set<NotificationStatus> EXPIRABLE = EnumSet.of(
+            NotificationStatus.SCHEDULED, NotificationStatus.PENDING, NotificationStatus.RETRYING);
+    private static final List<String> EXPIRABLE_NAMES = EXPIRABLE.stream()
+            .map(NotificationStatus::name).collect(Collectors.toList());
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Value("${notification.expiry.batch-size:1000}")
+    private int batchSize;
+
+    private final ConcurrentLinkedQueue<Long> expiredIds = new ConcurrentLinkedQueue<>();
+
+    // Called from the consumer hot path - no I/O
+    public void markExpired(Long notificationId) {
+        expiredIds.add(notificationId);
+    }
+
+    @Scheduled(fixedDelayString = "${notification.expiry.flush-interval-ms:1000}")
+    public void flushExpired() {
+        List<Long> batch = new ArrayList<>(batchSize);
+        Long id;
+        while ((id = expiredIds.poll()) != null) {
+            batch.add(id);
+            if (batch.size() == batchSize) {
+                expire(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            expire(batch);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notification.expiry.sweep-interval-ms:30000}")
+    public void sweepExpired() {
+        List<Long> batch;
+        do {
+            batch = notificationRepository.findExpiredIds(EXPIRABLE, LocalDateTime.now(), PageRequest.of(0, batchSize));
+            if (!batch.isEmpty()) {
+                expire(batch);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    private void expire(List<Long> ids) {
+        int expired = notificationRepository.markExpired(ids, EXPIRABLE_NAMES,
+                NotificationStatus.EXPIRED.ordinal(), LocalDateTime.now(), "Time-to-live passed - dropped unsent");
+        System.out.println("⌛ Expired " + expired + " notifications");
+    }
+}
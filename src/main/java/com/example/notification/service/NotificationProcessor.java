@@ -3,11 +3,11 @@ package com.example.notification.service;
 import com.example.notification.entity.Notification;
 import com.example.notification.entity.NotificationAudit;
 import com.example.notification.enums.NotificationStatus;
-import com.example.notification.repository.NotificationAuditRepository;
 import com.example.notification.repository.NotificationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Component
@@ -20,7 +20,10 @@ public class NotificationProcessor {
     private QueueService queueService;
 
     @Autowired
-    private NotificationAuditRepository auditRepository;
+    private AuditAppender auditAppender;
+
+    @Autowired
+    private PresenceService presenceService;
 
     // Handles processing when scheduled time arrives
     public void processScheduledNotification(Long notificationId) {
@@ -29,11 +32,22 @@ public class NotificationProcessor {
             Notification notification = optionalNotification.get();
 
             if (notification.getStatus() == NotificationStatus.SCHEDULED) {
+                if (notification.isExpired(LocalDateTime.now())) {
+                    notification.setStatus(NotificationStatus.EXPIRED);
+                    notificationRepository.save(notification);
+                    createAuditEntry(notification, NotificationStatus.SCHEDULED,
+                            NotificationStatus.EXPIRED, "Expired before its scheduled time was processed");
+                    return;
+                }
+
+                // Presence is checked now, not when it was scheduled
                 notification.setStatus(NotificationStatus.PENDING);
+                boolean rerouted = presenceService.applyPresenceRouting(notification);
                 notificationRepository.save(notification);
 
-                createAuditEntry(notification, NotificationStatus.SCHEDULED,
-                        NotificationStatus.PENDING, "Scheduled time reached - moving to processing queue");
+                createAuditEntry(notification, NotificationStatus.SCHEDULED, NotificationStatus.PENDING,
+                        rerouted ? "Scheduled time reached - user offline, routed to " + notification.getChannel()
+                                : "Scheduled time reached - moving to processing queue");
 
                 queueService.sendToQueue(notification);
             }
@@ -49,7 +63,7 @@ public class NotificationProcessor {
                 newStatus,
                 details
         );
-        auditRepository.save(audit);
+        auditAppender.append(audit);
     }
 
 }
@@ -1,14 +1,20 @@
 package com.example.notification.service;
 
+import com.example.notification.dto.CursorPage;
 import com.example.notification.dto.NotificationRequest;
 import com.example.notification.dto.NotificationResponse;
+import com.example.notification.dto.NotificationView;
+import com.example.notification.dto.PageCursor;
+import com.example.notification.entity.ChannelDeliveryState;
 import com.example.notification.entity.Notification;
 import com.example.notification.entity.NotificationAudit;
+import com.example.notification.enums.NotificationChannel;
 import com.example.notification.enums.NotificationPriority;
 import com.example.notification.enums.NotificationStatus;
-import com.example.notification.repository.NotificationAuditRepository;
 import com.example.notification.repository.NotificationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,6 +22,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,7 +33,7 @@ public class NotificationService {
     private NotificationRepository notificationRepository;
 
     @Autowired
-    private NotificationAuditRepository auditRepository;
+    private AuditAppender auditAppender;
 
     @Autowired
     private PriorityService priorityService;
@@ -37,6 +44,15 @@ public class NotificationService {
     @Autowired
     private ScheduledNotificationService scheduledNotificationService;
 
+    @Autowired
+    private PresenceService presenceService;
+
+    @Value("${notification.pagination.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${notification.pagination.max-page-size:200}")
+    private int maxPageSize;
+
     private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     public NotificationResponse createNotification(NotificationRequest request) {
@@ -50,6 +66,12 @@ public class NotificationService {
 
         notification.setMetadata(request.getMetadata());
 
+        // One row and one message for all channels; the consumer fans out per channel
+        Set<NotificationChannel> channels = request.resolveChannels();
+        if (channels.size() > 1) {
+            notification.setDeliveryState(new ChannelDeliveryState(channels));
+        }
+
         // Calculate final priority (including VIP boost)
         NotificationPriority finalPriority = priorityService.calculatePriority(notification);
         notification.setPriority(finalPriority);
@@ -58,6 +80,7 @@ public class NotificationService {
         if (request.getScheduledAt() != null && request.getScheduledAt().isAfter(LocalDateTime.now())) {
             // SCHEDULED NOTIFICATION
             notification.setScheduledAt(request.getScheduledAt());
+            notification.setExpiresAt(request.resolveExpiresAt(request.getScheduledAt()));
             notification.setStatus(NotificationStatus.SCHEDULED);
 
             // Save notification first
@@ -73,14 +96,19 @@ public class NotificationService {
         } else {
             // IMMEDIATE NOTIFICATION
             notification.setScheduledAt(LocalDateTime.now());
+            notification.setExpiresAt(request.resolveExpiresAt(notification.getScheduledAt()));
             notification.setStatus(NotificationStatus.PENDING);
 
+            // Offline users get the offline channel instead of a WebSocket send that would fail and retry
+            boolean rerouted = presenceService.applyPresenceRouting(notification);
+
             // Save notification
             notification = notificationRepository.save(notification);
 
             // Create audit entry
             createAuditEntry(notification, null, NotificationStatus.PENDING,
-                    "Notification created - queued for immediate processing");
+                    rerouted ? "Notification created - user offline, routed to " + notification.getChannel()
+                            : "Notification created - queued for immediate processing");
 
             // Send to appropriate priority queue immediately
             queueService.sendToQueue(notification);
@@ -89,41 +117,17 @@ public class NotificationService {
         return convertToResponse(notification);
     }
 
-    // NEW: Method to process scheduled notifications when their time comes
-    public void processScheduledNotification(Long notificationId) {
-        Optional<Notification> optionalNotification = notificationRepository.findById(notificationId);
-        if (optionalNotification.isPresent()) {
-            Notification notification = optionalNotification.get();
-
-            if (notification.getStatus() == NotificationStatus.SCHEDULED) {
-                // Update status from SCHEDULED to PENDING
-                notification.setStatus(NotificationStatus.PENDING);
-                notificationRepository.save(notification);
-
-                // Create audit entry
-                createAuditEntry(notification, NotificationStatus.SCHEDULED, NotificationStatus.PENDING,
-                        "Scheduled time reached - moving to processing queue");
-
-                // Send to queue for processing
-                queueService.sendToQueue(notification);
-            }
-        }
-    }
-
-    // NEW: Get all user notifications including scheduled ones
-    public List<NotificationResponse> getAllUserNotifications(String userId) {
-        List<Notification> notifications = notificationRepository.findByUserIdOrderByCreatedAtDesc(userId);
-        return notifications.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    // NEW: Get all user notifications including scheduled ones, one keyset page at a time (newest first)
+    public CursorPage<NotificationResponse> getAllUserNotifications(String userId, String cursor, Integer limit) {
+        PageCursor position = PageCursor.decode(cursor);
+        int pageSize = pageSize(limit);
+        return toPage(notificationRepository.findUserPage(userId, position.getTimestamp(), position.getId(),
+                PageRequest.of(0, pageSize + 1)), pageSize);
     }
 
     // NEW: Get only scheduled notifications for a user
-    public List<NotificationResponse> getScheduledNotifications(String userId) {
-        List<Notification> notifications = notificationRepository.findByUserIdAndStatus(userId, NotificationStatus.SCHEDULED);
-        return notifications.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    public CursorPage<NotificationResponse> getScheduledNotifications(String userId, String cursor, Integer limit) {
+        return getUserNotificationsByStatus(userId, NotificationStatus.SCHEDULED, cursor, limit);
     }
 
     // NEW: Cancel a scheduled notification
@@ -156,29 +160,48 @@ public class NotificationService {
 
     // NEW: Verify user ownership of notification
     public boolean verifyNotificationOwnership(Long notificationId, String userId) {
-        Optional<Notification> optionalNotification = notificationRepository.findById(notificationId);
-        return optionalNotification.isPresent() && 
-               optionalNotification.get().getUserId().equals(userId);
+        return notificationRepository.existsByIdAndUserId(notificationId, userId);
     }
 
     // NEW: Get notification with ownership verification
     public Optional<NotificationResponse> getNotificationWithOwnership(Long id, String userId) {
-        Optional<Notification> notification = notificationRepository.findById(id);
-        if (notification.isPresent() && notification.get().getUserId().equals(userId)) {
-            return notification.map(this::convertToResponse);
+        return notificationRepository.findViewByIdAndUserId(id, userId).map(this::convertToResponse);
+    }
+
+    // Delivered notifications of a user, newest first
+    public CursorPage<NotificationResponse> getUserNotifications(String userId, String cursor, Integer limit) {
+        return getUserNotificationsByStatus(userId, NotificationStatus.SENT, cursor, limit);
+    }
+
+    private CursorPage<NotificationResponse> getUserNotificationsByStatus(String userId, NotificationStatus status,
+                                                                          String cursor, Integer limit) {
+        PageCursor position = PageCursor.decode(cursor);
+        int pageSize = pageSize(limit);
+        return toPage(notificationRepository.findUserPageByStatus(userId, status, position.getTimestamp(),
+                position.getId(), PageRequest.of(0, pageSize + 1)), pageSize);
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return defaultPageSize;
         }
-        return Optional.empty();
+        return Math.min(limit, maxPageSize);
     }
 
-    public List<NotificationResponse> getUserNotifications(String userId) {
-        List<Notification> notifications = notificationRepository.findByUserIdAndStatus(userId, NotificationStatus.SENT);
-        return notifications.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    // Rows were fetched with one extra to tell whether another page follows
+    private CursorPage<NotificationResponse> toPage(List<NotificationView> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<NotificationView> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            NotificationView last = page.get(page.size() - 1);
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(page.stream().map(this::convertToResponse).collect(Collectors.toList()), nextCursor, hasMore);
     }
 
     public Optional<NotificationResponse> getNotification(Long id) {
-        return notificationRepository.findById(id).map(this::convertToResponse);
+        return notificationRepository.findViewById(id).map(this::convertToResponse);
     }
 
     public void updateNotificationStatus(Long notificationId, NotificationStatus newStatus, String details) {
@@ -220,10 +243,10 @@ public class NotificationService {
                 newStatus,
                 details
         );
-        auditRepository.save(audit);
+        auditAppender.append(audit);
     }
 
-    private NotificationResponse convertToResponse(Notification notification) {
+    private NotificationResponse convertToResponse(NotificationView notification) {
         NotificationResponse response = new NotificationResponse();
         response.setId(notification.getId());
         response.setUserId(notification.getUserId());
@@ -244,6 +267,16 @@ public class NotificationService {
             response.setSentAt(notification.getSentAt().format(formatter));
         }
 
+        if (notification.getExpiresAt() != null) {
+            response.setExpiresAt(notification.getExpiresAt().format(formatter));
+        }
+
+        if (ChannelDeliveryState.isMultiChannel(notification.getChannelMask())) {
+            response.setChannels(ChannelDeliveryState.channelsOf(notification.getChannelMask()));
+            response.setDeliveredChannels(ChannelDeliveryState.channelsOf(notification.getDeliveredMask()));
+            response.setFailedChannels(ChannelDeliveryState.channelsOf(notification.getFailedMask()));
+        }
+
         return response;
     }
 }
@@ -0,0 +1,176 @@
+package com.example.notification.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps notifications and notification_audit range-partitioned by month (on created_at and
+ * timestamp). Time-bounded queries only touch the partitions they need, and retention is a
+ * DETACH + DROP of whole months instead of a DELETE that bloats the table.
+ *
+ * On startup the tables are converted once if they are still plain tables (db/partition-tables.sql).
+ * After that, partitions for the coming months are created ahead of time, and months past their
+ * retention are dropped. A retention of 0 months keeps everything.
+ */
+@Service
+public class PartitionMaintenanceService {
+
+    private static final String CONVERSION_SCRIPT = "db/partition-tables.sql";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile(".*_p(\\d{6})");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${notification.partitioning.enabled:false}")
+    private boolean enabled;
+
+    // Monthly partitions kept ready beyond the current month
+    @Value("${notification.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${notification.partitioning.notifications-retention-months:0}")
+    private int notificationsRetentionMonths;
+
+    @Value("${notification.partitioning.audit-retention-months:0}")
+    private int auditRetentionMonths;
+
+    private final AtomicLong partitionsCreated = new AtomicLong(0);
+    private final AtomicLong partitionsDropped = new AtomicLong(0);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void convertTables() {
+        if (!enabled) {
+            return;
+        }
+        try (InputStream script = new ClassPathResource(CONVERSION_SCRIPT).getInputStream()) {
+            // One DO block: executed as a single statement, not split on semicolons
+            jdbcTemplate.execute(new String(script.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.err.println("Error reading " + CONVERSION_SCRIPT + ": " + e.getMessage());
+            return;
+        }
+        maintainPartitions();
+    }
+
+    @Scheduled(fixedDelayString = "${notification.partitioning.maintenance-interval-ms:3600000}",
+            initialDelayString = "${notification.partitioning.maintenance-interval-ms:3600000}")
+    public void maintainPartitions() {
+        if (!enabled) {
+            return;
+        }
+        YearMonth now = YearMonth.now();
+        maintain("notifications", now, notificationsRetentionMonths);
+        maintain("notification_audit", now, auditRetentionMonths);
+    }
+
+    private void maintain(String table, YearMonth now, int retentionMonths) {
+        Boolean partitioned = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(?))",
+                Boolean.class, table);
+        if (!Boolean.TRUE.equals(partitioned)) {
+            return;
+        }
+
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = now.plusMonths(i);
+            String partition = table + "_p" + month.format(PARTITION_SUFFIX);
+            try {
+                Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition);
+                if (Boolean.TRUE.equals(exists)) {
+                    continue;
+                }
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + table +
+                        " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+                partitionsCreated.incrementAndGet();
+                System.out.println("🗂️ Created partition " + partition);
+            } catch (Exception e) {
+                // Typically rows for that month already landed in the default partition
+                System.err.println("Error creating partition " + partition + ": " + e.getMessage());
+            }
+        }
+
+        if (retentionMonths <= 0) {
+            return;
+        }
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = to_regclass(?)", String.class, table);
+        for (String partition : partitionsToDrop(partitions, now.minusMonths(retentionMonths))) {
+            try {
+                jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition);
+                jdbcTemplate.execute("DROP TABLE " + partition);
+                partitionsDropped.incrementAndGet();
+                System.out.println("🗑️ Dropped partition " + partition + " (retention " + retentionMonths + " months)");
+            } catch (Exception e) {
+                System.err.println("Error dropping partition " + partition + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Monthly partitions that hold nothing newer than the cutoff
+     * @param partitions Partition names of one table
+     * @param oldestKept First month whose rows are kept
+     * @return Partitions of months before oldestKept; the default partition is never included
+     */
+    static List<String> partitionsToDrop(List<String> partitions, YearMonth oldestKept) {
+        List<String> expired = new ArrayList<>();
+        for (String partition : partitions) {
+            Matcher matcher = MONTHLY_PARTITION.matcher(partition);
+            if (matcher.matches() && YearMonth.parse(matcher.group(1), PARTITION_SUFFIX).isBefore(oldestKept)) {
+                expired.add(partition);
+            }
+        }
+        return expired;
+    }
+
+    public PartitionStats getStats() {
+        return new PartitionStats(enabled, monthsAhead, notificationsRetentionMonths, auditRetentionMonths,
+                partitionsCreated.get(), partitionsDropped.get());
+    }
+
+    public static class PartitionStats {
+        private final boolean enabled;
+        private final int monthsAhead;
+        private final int notificationsRetentionMonths;
+        private final int auditRetentionMonths;
+        private final long partitionsCreated;
+        private final long partitionsDropped;
+
+        public PartitionStats(boolean enabled, int monthsAhead, int notificationsRetentionMonths,
+                              int auditRetentionMonths, long partitionsCreated, long partitionsDropped) {
+            this.enabled = enabled;
+            this.monthsAhead = monthsAhead;
+            this.notificationsRetentionMonths = notificationsRetentionMonths;
+            this.auditRetentionMonths = auditRetentionMonths;
+            this.partitionsCreated = partitionsCreated;
+            this.partitionsDropped = partitionsDropped;
+        }
+
+        // Getters
+        public boolean isEnabled() { return enabled; }
+        public int getMonthsAhead() { return monthsAhead; }
+        public int getNotificationsRetentionMonths() { return notificationsRetentionMonths; }
+        public int getAuditRetentionMonths() { return auditRetentionMonths; }
+        public long getPartitionsCreated() { return partitionsCreated; }
+        public long getPartitionsDropped() { return partitionsDropped; }
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.notification.service;
+
+import com.example.notification.entity.ChannelDeliveryState;
+import com.example.notification.entity.Notification;
+import com.example.notification.enums.NotificationChannel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cluster-wide view of which users have a live WebSocket session, used to pick a channel at
+ * enqueue time instead of discovering an offline user through a failed send and its retries.
+ *
+ * Each user gets a small integer index (hash presence:user_index). Every node keeps its own bitmap
+ * presence:node:[nodeId] with one bit per connected user and refreshes its entry in the presence:nodes
+ * heartbeat set; a crashed node's bitmap simply expires. A lookup ORs the user's bit across live
+ * nodes in one script call, and answers are cached locally for a couple of seconds.
+ */
+@Service
+public class PresenceService {
+
+    private static final String USER_INDEX_KEY = "presence:user_index";
+    private static final String USER_SEQUENCE_KEY = "presence:user_seq";
+    private static final String NODES_KEY = "presence:nodes";
+    private static final String NODE_KEY_PREFIX = "presence:node:";
+
+    // Stable small integer per user, assigned on first use
+    private static final RedisScript<Long> USER_INDEX_SCRIPT = RedisScript.of(
+            "local index = redis.call('HGET', KEYS[1], ARGV[1]) " +
+            "if index then return tonumber(index) end " +
+            "index = redis.call('INCR', KEYS[2]) " +
+            "redis.call('HSET', KEYS[1], ARGV[1], index) " +
+            "return index",
+            Long.class);
+
+    // 1 if the user's bit is set on any node that heartbeated within ARGV[2] ms
+    private static final RedisScript<Long> IS_ONLINE_SCRIPT = RedisScript.of(
+            "local time = redis.call('TIME') " +
+            "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) " +
+            "local nodes = redis.call('ZRANGEBYSCORE', KEYS[1], now - tonumber(ARGV[2]), '+inf') " +
+            "for _, node in ipairs(nodes) do " +
+            "  if redis.call('GETBIT', ARGV[3] .. node, ARGV[1]) == 1 then return 1 end " +
+            "end " +
+            "return 0",
+            Long.class);
+
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Value("${notification.presence.enabled:false}")
+    private boolean enabled;
+
+    // Channel used instead of WEBSOCKET for users who are offline (PUSH, or IN_APP as an inbox)
+    @Value("${notification.presence.offline-channel:PUSH}")
+    private NotificationChannel offlineChannel;
+
+    @Value("${notification.presence.cache-ttl-ms:2000}")
+    private long cacheTtlMs;
+
+    @Value("${notification.presence.cache-size:100000}")
+    private int cacheSize;
+
+    // A node whose heartbeat is older than this no longer counts
+    @Value("${notification.presence.node-ttl-ms:30000}")
+    private long nodeTtlMs;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Set<String> localUsers = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, Long> userIndexes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CachedPresence> cache = new ConcurrentHashMap<>();
+
+    private final AtomicLong localHits = new AtomicLong(0);
+    private final AtomicLong cacheHits = new AtomicLong(0);
+    private final AtomicLong redisLookups = new AtomicLong(0);
+    private final AtomicLong reroutes = new AtomicLong(0);
+
+    @PostConstruct
+    void register() {
+        if (enabled) {
+            heartbeat();
+        }
+    }
+
+    @PreDestroy
+    void unregister() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            redisTemplate.opsForZSet().remove(NODES_KEY, nodeId);
+            redisTemplate.delete(nodeKey());
+        } catch (Exception e) {
+            System.err.println("Error removing presence node: " + e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // First WebSocket session of a user opened on this node
+    public void userConnected(String userId) {
+        localUsers.add(userId);
+        cache.remove(userId);
+        if (enabled) {
+            try {
+                redisTemplate.opsForValue().setBit(nodeKey(), userIndex(userId), true);
+            } catch (Exception e) {
+                System.err.println("Error publishing presence for user " + userId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // Last WebSocket session of a user on this node closed
+    public void userDisconnected(String userId) {
+        localUsers.remove(userId);
+        cache.remove(userId);
+        if (enabled) {
+            try {
+                redisTemplate.opsForValue().setBit(nodeKey(), userIndex(userId), false);
+            } catch (Exception e) {
+                System.err.println("Error clearing presence for user " + userId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Check whether a user has a live WebSocket session on any node
+     * @param userId User ID
+     * @return true if online; also true when presence is disabled or Redis is unreachable, so
+     *         callers fall back to attempting the WebSocket as before
+     */
+    public boolean isOnline(String userId) {
+        if (localUsers.contains(userId)) {
+            localHits.incrementAndGet();
+            return true;
+        }
+        if (!enabled) {
+            return true;
+        }
+
+        long now = System.currentTimeMillis();
+        CachedPresence cached = cache.get(userId);
+        if (cached != null && cached.expiresAt > now) {
+            cacheHits.incrementAndGet();
+            return cached.online;
+        }
+
+        boolean online;
+        try {
+            redisLookups.incrementAndGet();
+            Long result = redisTemplate.execute(IS_ONLINE_SCRIPT, Collections.singletonList(NODES_KEY),
+                    String.valueOf(userIndex(userId)), String.valueOf(nodeTtlMs), NODE_KEY_PREFIX);
+            online = result != null && result == 1;
+        } catch (Exception e) {
+            System.err.println("Presence lookup failed for user " + userId + ": " + e.getMessage());
+            return true;
+        }
+
+        if (cache.size() >= cacheSize) {
+            cache.clear(); // Crude bound; entries are only worth a couple of seconds anyway
+        }
+        cache.put(userId, new CachedPresence(online, now + cacheTtlMs));
+        return online;
+    }
+
+    /**
+     * Swap WEBSOCKET for the offline channel when the user has no live session, so the send is
+     * not queued just to fail and retry. Call before the notification is saved and queued.
+     * @param notification Notification about to be enqueued
+     * @return true if the channel selection was changed
+     */
+    public boolean applyPresenceRouting(Notification notification) {
+        if (!enabled) {
+            return false;
+        }
+
+        ChannelDeliveryState deliveryState = notification.getDeliveryState();
+        if (notification.isMultiChannel()) {
+            Set<NotificationChannel> channels = deliveryState.getChannels();
+            if (!channels.contains(NotificationChannel.WEBSOCKET) || isOnline(notification.getUserId())) {
+                return false;
+            }
+            channels.remove(NotificationChannel.WEBSOCKET);
+            channels.add(offlineChannel);
+            deliveryState.setChannelMask(ChannelDeliveryState.maskOf(channels));
+            if (notification.getChannel() == NotificationChannel.WEBSOCKET) {
+                notification.setChannel(offlineChannel);
+            }
+        } else {
+            if (notification.getChannel() != NotificationChannel.WEBSOCKET || isOnline(notification.getUserId())) {
+                return false;
+            }
+            notification.setChannel(offlineChannel);
+        }
+
+        reroutes.incrementAndGet();
+        System.out.println("📴 User " + notification.getUserId() + " is offline - notification routed to " + offlineChannel);
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${notification.presence.heartbeat-interval-ms:10000}")
+    public void heartbeat() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            redisTemplate.opsForZSet().add(NODES_KEY, nodeId, System.currentTimeMillis());
+            // Forget nodes that stopped heartbeating long ago
+            redisTemplate.opsForZSet().removeRangeByScore(NODES_KEY, 0, System.currentTimeMillis() - 10 * nodeTtlMs);
+
+            if (Boolean.FALSE.equals(redisTemplate.hasKey(nodeKey()))) {
+                // Bitmap lost (first start, expiry or Redis restart): republish this node's users
+                for (String userId : localUsers) {
+                    redisTemplate.opsForValue().setBit(nodeKey(), userIndex(userId), true);
+                }
+            }
+            redisTemplate.expire(nodeKey(), Duration.ofMillis(nodeTtlMs * 2));
+        } catch (Exception e) {
+            System.err.println("Presence heartbeat failed: " + e.getMessage());
+        }
+    }
+
+    public PresenceStats getStats() {
+        return new PresenceStats(localUsers.size(), localHits.get(), cacheHits.get(), redisLookups.get(), reroutes.get());
+    }
+
+    private long userIndex(String userId) {
+        return userIndexes.computeIfAbsent(userId, id ->
+                redisTemplate.execute(USER_INDEX_SCRIPT, List.of(USER_INDEX_KEY, USER_SEQUENCE_KEY), id));
+    }
+
+    private String nodeKey() {
+        return NODE_KEY_PREFIX + nodeId;
+    }
+
+    private static class CachedPresence {
+        private final boolean online;
+        private final long expiresAt;
+
+        CachedPresence(boolean online, long expiresAt) {
+            this.online = online;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public static class PresenceStats {
+        private final int localUsers;
+        private final long localHits;
+        private final long cacheHits;
+        private final long redisLookups;
+        private final long reroutes;
+
+        public PresenceStats(int localUsers, long localHits, long cacheHits, long redisLookups, long reroutes) {
+            this.localUsers = localUsers;
+            this.localHits = localHits;
+            this.cacheHits = cacheHits;
+            this.redisLookups = redisLookups;
+            this.reroutes = reroutes;
+        }
+
+        // Getters
+        public int getLocalUsers() { return localUsers; }
+        public long getLocalHits() { return localHits; }
+        public long getCacheHits() { return cacheHits; }
+        public long getRedisLookups() { return redisLookups; }
+        public long getReroutes() { return reroutes; }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.notification.service;
+
+import com.example.notification.config.RabbitMQConfig;
+import com.example.notification.entity.Notification;
+import com.example.notification.enums.NotificationPriority;
+import com.example.notification.repository.NotificationRepository;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.GetResponse;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounds the wait of lower priorities under sustained high-priority load. Messages that have sat
+ * at the head of a queue longer than the priority's aging threshold are moved to the next queue
+ * up. Each batch of gets, re-publishes and acks runs in one AMQP transaction, so a message is
+ * never lost or duplicated by a promotion.
+ */
+@Service
+public class PriorityAgingService {
+
+    // Checked highest first so a message is promoted at most one level per sweep
+    private static final List<NotificationPriority> AGING_ORDER = List.of(
+            NotificationPriority.HIGH, NotificationPriority.MEDIUM, NotificationPriority.LOW);
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private PriorityService priorityService;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationExpiryService expiryService;
+
+    @Value("${notification.aging.enabled:true}")
+    private boolean enabled;
+
+    // Maximum messages promoted per queue per sweep
+    @Value("${notification.aging.batch-size:500}")
+    private int batchSize;
+
+    private final MessagePropertiesConverter propertiesConverter = new DefaultMessagePropertiesConverter();
+    private final AtomicLong totalPromoted = new AtomicLong(0);
+
+    @Scheduled(fixedDelayString = "${notification.aging.sweep-interval-ms:10000}")
+    public void promoteAgedNotifications() {
+        if (!enabled) {
+            return;
+        }
+
+        for (NotificationPriority priority : AGING_ORDER) {
+            if (priorityService.isAgingEnabled(priority)) {
+                try {
+                    promoteFrom(priority);
+                } catch (Exception e) {
+                    System.err.println("Error promoting aged " + priority + " notifications: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void promoteFrom(NotificationPriority priority) throws Exception {
+        NotificationPriority target = priorityService.getPromotedPriority(priority);
+        Instant cutoff = Instant.now().minus(priorityService.getAgingThreshold(priority));
+
+        List<Long> promotedIds;
+        Connection connection = rabbitTemplate.getConnectionFactory().createConnection();
+        Channel channel = connection.createChannel(true);
+        try {
+            promotedIds = moveAgedMessages(channel, priority, target, cutoff);
+            channel.txCommit();
+        } catch (Exception e) {
+            channel.txRollback();
+            throw e;
+        } finally {
+            channel.close();
+        }
+
+        if (!promotedIds.isEmpty()) {
+            notificationRepository.updatePriorityForIds(promotedIds, target);
+            totalPromoted.addAndGet(promotedIds.size());
+            System.out.println("⏫ Promoted " + promotedIds.size() + " aged " + priority +
+                    " notifications to " + target);
+        }
+    }
+
+    private List<Long> moveAgedMessages(Channel channel, NotificationPriority from, NotificationPriority to,
+                                        Instant cutoff) throws Exception {
+        String queue = priorityService.getQueueName(from);
+        String routingKey = priorityService.getRoutingKey(to);
+        MessageConverter converter = rabbitTemplate.getMessageConverter();
+        List<Long> promoted = new ArrayList<>();
+
+        while (promoted.size() < batchSize) {
+            GetResponse response = channel.basicGet(queue, false);
+            if (response == null) {
+                break;
+            }
+            long deliveryTag = response.getEnvelope().getDeliveryTag();
+            MessageProperties properties = propertiesConverter.toMessageProperties(
+                    response.getProps(), response.getEnvelope(), "UTF-8");
+
+            // Messages within a queue share one priority, so the head is the oldest - stop at the first young one
+            Date enqueuedAt = properties.getTimestamp();
+            if (enqueuedAt == null || enqueuedAt.toInstant().isAfter(cutoff)) {
+                channel.basicReject(deliveryTag, true);
+                break;
+            }
+
+            Notification notification = (Notification) converter.fromMessage(new Message(response.getBody(), properties));
+            if (notification.isExpired(LocalDateTime.now())) {
+                channel.basicAck(deliveryTag, false);
+                expiryService.markExpired(notification.getId());
+                continue;
+            }
+
+            notification.setPriority(to);
+            properties.setPriority(10 - to.getLevel());
+            properties.setHeader("priority", to.name());
+            properties.setHeader("promotedFrom", from.name());
+            if (notification.getExpiresAt() != null) {
+                long ttlMillis = Duration.between(LocalDateTime.now(), notification.getExpiresAt()).toMillis();
+                properties.setExpiration(String.valueOf(Math.max(ttlMillis, 1)));
+            }
+
+            Message promotedMessage = converter.toMessage(notification, properties);
+            channel.basicPublish(RabbitMQConfig.NOTIFICATION_EXCHANGE, routingKey, false,
+                    propertiesConverter.fromMessageProperties(promotedMessage.getMessageProperties(), "UTF-8"),
+                    promotedMessage.getBody());
+            channel.basicAck(deliveryTag, false);
+            promoted.add(notification.getId());
+        }
+        return promoted;
+    }
+
+    public long getTotalPromoted() {
+        return totalPromoted.get();
+    }
+}
@@ -3,14 +3,27 @@ package com.example.notification.service;
 import com.example.notification.entity.Notification;
 import com.example.notification.enums.NotificationPriority;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+
 @Service
 public class PriorityService {
 
     @Autowired
     private UserService userService;
 
+    // Seconds a notification may wait before being promoted to the next queue (0 disables)
+    @Value("${notification.aging.low-seconds:300}")
+    private long lowAgingSeconds;
+
+    @Value("${notification.aging.medium-seconds:600}")
+    private long mediumAgingSeconds;
+
+    @Value("${notification.aging.high-seconds:0}")
+    private long highAgingSeconds;
+
     public NotificationPriority calculatePriority(Notification notification) {
         NotificationPriority basePriority = notification.getPriority();
 
@@ -32,6 +45,25 @@ public class PriorityService {
         }
     }
 
+    // Next priority up for aged notifications; CRITICAL has nowhere to go
+    public NotificationPriority getPromotedPriority(NotificationPriority priority) {
+        return boostPriority(priority);
+    }
+
+    // How long a notification of this priority may wait in its queue before promotion
+    public Duration getAgingThreshold(NotificationPriority priority) {
+        return switch (priority) {
+            case LOW -> Duration.ofSeconds(lowAgingSeconds);
+            case MEDIUM -> Duration.ofSeconds(mediumAgingSeconds);
+            case HIGH -> Duration.ofSeconds(highAgingSeconds);
+            case CRITICAL -> Duration.ZERO;
+        };
+    }
+
+    public boolean isAgingEnabled(NotificationPriority priority) {
+        return !getAgingThreshold(priority).isZero();
+    }
+
     public String getRoutingKey(NotificationPriority priority) {
         return "notification." + priority.name().toLowerCase();
     }
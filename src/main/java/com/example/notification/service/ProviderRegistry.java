@@ -0,0 +1,298 @@
+package com.example.notification.service;
+
+import com.example.notification.entity.Notification;
+import com.example.notification.enums.NotificationChannel;
+import com.example.notification.processor.HttpNotificationProvider;
+import com.example.notification.processor.NotificationProvider;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The vendors behind each channel and the routing between them. Every send goes to the available
+ * provider with the lowest (outstanding + 1) * EWMA latency / weight, so a slow or backed-up vendor
+ * automatically gets less traffic. A provider whose EWMA error rate crosses drain-error-rate is
+ * drained (receives nothing) for drain-duration-ms and then comes back with fresh statistics.
+ *
+ * Providers come from NotificationProvider beans plus HTTP vendors configured under
+ * notification.providers.[channel].names / .[name].url / .[name].weight.
+ */
+@Service
+public class ProviderRegistry {
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired(required = false)
+    private List<NotificationProvider> providerBeans = Collections.emptyList();
+
+    @Value("${notification.providers.drain-error-rate:0.5}")
+    private double drainErrorRate;
+
+    // Outcomes a provider needs before it can be drained
+    @Value("${notification.providers.min-samples:20}")
+    private int minSamples;
+
+    @Value("${notification.providers.drain-duration-ms:30000}")
+    private long drainDurationMs;
+
+    @Value("${notification.providers.latency-alpha:0.2}")
+    private double latencyAlpha;
+
+    @Value("${notification.providers.error-alpha:0.1}")
+    private double errorAlpha;
+
+    // Latency assumed for a provider until its first send completes
+    @Value("${notification.providers.initial-latency-ms:100}")
+    private double initialLatencyMs;
+
+    private final Map<NotificationChannel, List<ProviderState>> providers = new EnumMap<>(NotificationChannel.class);
+
+    @PostConstruct
+    void loadProviders() {
+        providerBeans.forEach(this::register);
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            String prefix = "notification.providers." + channel.name().toLowerCase().replace('_', '-');
+            String[] names = environment.getProperty(prefix + ".names", String[].class, new String[0]);
+            for (String name : names) {
+                String url = environment.getProperty(prefix + "." + name + ".url");
+                if (url == null) {
+                    System.err.println("Provider " + name + " for " + channel + " has no url configured, skipping");
+                    continue;
+                }
+                int weight = environment.getProperty(prefix + "." + name + ".weight", Integer.class, 1);
+                long timeoutMs = environment.getProperty(prefix + "." + name + ".timeout-ms", Long.class, 10000L);
+                register(new HttpNotificationProvider(name, channel, url, weight, timeoutMs, httpClient));
+            }
+        }
+    }
+
+    public void register(NotificationProvider provider) {
+        providers.computeIfAbsent(provider.getChannel(), c -> new CopyOnWriteArrayList<>())
+                .add(new ProviderState(provider, initialLatencyMs));
+        System.out.println("📡 Registered " + provider.getChannel() + " provider " + provider.getName()
+                + " (weight " + provider.getWeight() + ")");
+    }
+
+    public boolean hasProviders(NotificationChannel channel) {
+        List<ProviderState> channelProviders = providers.get(channel);
+        return channelProviders != null && !channelProviders.isEmpty();
+    }
+
+    /**
+     * Send through the channel's best provider right now
+     * @param channel Channel to send on
+     * @param notification Notification to deliver
+     * @param recipient Channel address
+     * @return Stage completing with the chosen provider's result
+     */
+    public CompletionStage<Boolean> send(NotificationChannel channel, Notification notification, String recipient) {
+        return send(channel, null, notification, recipient);
+    }
+
+    /**
+     * Name of the provider the next send on the channel would go to
+     * @param channel Channel to send on
+     * @return Provider name, to pass to {@link #send(NotificationChannel, String, Notification, String)}
+     */
+    public String selectProvider(NotificationChannel channel) {
+        return select(channel).provider.getName();
+    }
+
+    /**
+     * Send through a provider chosen earlier with {@link #selectProvider}, e.g. so that a hedge
+     * reaches the same vendor as the first attempt and its idempotency key drops the duplicate
+     * @param channel Channel to send on
+     * @param providerName Provider to use; null, or a provider no longer registered, picks the best one
+     * @param notification Notification to deliver
+     * @param recipient Channel address
+     * @return Stage completing with the provider's result
+     */
+    public CompletionStage<Boolean> send(NotificationChannel channel, String providerName,
+                                         Notification notification, String recipient) {
+        ProviderState named = providerName != null ? find(channel, providerName) : null;
+        ProviderState target = named != null ? named : select(channel);
+        target.outstanding.incrementAndGet();
+        target.sent.incrementAndGet();
+        long start = System.currentTimeMillis();
+
+        CompletionStage<Boolean> send;
+        try {
+            send = target.provider.send(notification, recipient);
+        } catch (Exception e) {
+            send = CompletableFuture.failedFuture(e);
+        }
+        return send.whenComplete((success, error) -> {
+            target.outstanding.decrementAndGet();
+            target.record(error == null && Boolean.TRUE.equals(success),
+                    System.currentTimeMillis() - start, System.currentTimeMillis());
+        });
+    }
+
+    private ProviderState find(NotificationChannel channel, String providerName) {
+        List<ProviderState> channelProviders = providers.get(channel);
+        if (channelProviders != null) {
+            for (ProviderState state : channelProviders) {
+                if (state.provider.getName().equals(providerName)) {
+                    return state;
+                }
+            }
+        }
+        return null;
+    }
+
+    ProviderState select(NotificationChannel channel) {
+        List<ProviderState> channelProviders = providers.get(channel);
+        if (channelProviders == null || channelProviders.isEmpty()) {
+            throw new IllegalStateException("No providers registered for " + channel);
+        }
+
+        long now = System.currentTimeMillis();
+        ProviderState best = null;
+        double bestScore = Double.MAX_VALUE;
+        for (ProviderState state : channelProviders) {
+            if (!state.isAvailable(now)) {
+                continue;
+            }
+            double score = state.score();
+            if (score < bestScore) {
+                best = state;
+                bestScore = score;
+            }
+        }
+        if (best != null) {
+            return best;
+        }
+
+        // Everything is drained: keep sending through the least loaded provider rather than dropping
+        // the channel; the channel's circuit breaker decides whether to stop altogether
+        for (ProviderState state : channelProviders) {
+            double score = state.score();
+            if (score < bestScore) {
+                best = state;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    public Map<NotificationChannel, List<ProviderStats>> getProviderStats() {
+        Map<NotificationChannel, List<ProviderStats>> stats = new LinkedHashMap<>();
+        long now = System.currentTimeMillis();
+        providers.forEach((channel, channelProviders) -> {
+            List<ProviderStats> channelStats = new ArrayList<>();
+            for (ProviderState state : channelProviders) {
+                channelStats.add(state.toStats(now));
+            }
+            stats.put(channel, channelStats);
+        });
+        return stats;
+    }
+
+    private class ProviderState {
+        private final NotificationProvider provider;
+        private final AtomicInteger outstanding = new AtomicInteger(0);
+        private final AtomicLong sent = new AtomicLong(0);
+        private final AtomicLong drains = new AtomicLong(0);
+
+        private double ewmaLatencyMs;
+        private double ewmaErrorRate;
+        private int samples;
+        private long drainedUntil;
+
+        ProviderState(NotificationProvider provider, double initialLatencyMs) {
+            this.provider = provider;
+            this.ewmaLatencyMs = initialLatencyMs;
+        }
+
+        synchronized double score() {
+            return (outstanding.get() + 1) * Math.max(1.0, ewmaLatencyMs) / Math.max(1, provider.getWeight());
+        }
+
+        synchronized void record(boolean success, long latencyMs, long now) {
+            samples++;
+            if (success) {
+                // Failures are often fast and would make a broken provider look attractive
+                ewmaLatencyMs = latencyAlpha * latencyMs + (1 - latencyAlpha) * ewmaLatencyMs;
+            }
+            ewmaErrorRate = errorAlpha * (success ? 0 : 1) + (1 - errorAlpha) * ewmaErrorRate;
+
+            if (drainedUntil == 0 && samples >= minSamples && ewmaErrorRate > drainErrorRate) {
+                drainedUntil = now + drainDurationMs;
+                drains.incrementAndGet();
+                System.out.println("🚰 Draining " + provider.getChannel() + " provider " + provider.getName()
+                        + " (error rate " + String.format("%.2f", ewmaErrorRate) + ") for " + drainDurationMs + "ms");
+            }
+        }
+
+        synchronized boolean isAvailable(long now) {
+            if (drainedUntil > 0 && now >= drainedUntil) {
+                // Back in rotation with a clean slate; it must fail minSamples times again to be drained
+                drainedUntil = 0;
+                ewmaErrorRate = 0;
+                samples = 0;
+                System.out.println("🚿 " + provider.getChannel() + " provider " + provider.getName() + " back in rotation");
+            }
+            return drainedUntil == 0;
+        }
+
+        synchronized ProviderStats toStats(long now) {
+            return new ProviderStats(provider.getName(), provider.getWeight(), outstanding.get(), sent.get(),
+                    ewmaLatencyMs, ewmaErrorRate, drainedUntil > now, drains.get());
+        }
+    }
+
+    public static class ProviderStats {
+        private final String name;
+        private final int weight;
+        private final int outstanding;
+        private final long sent;
+        private final double latencyMs;
+        private final double errorRate;
+        private final boolean drained;
+        private final long drains;
+
+        public ProviderStats(String name, int weight, int outstanding, long sent, double latencyMs,
+                             double errorRate, boolean drained, long drains) {
+            this.name = name;
+            this.weight = weight;
+            this.outstanding = outstanding;
+            this.sent = sent;
+            this.latencyMs = latencyMs;
+            this.errorRate = errorRate;
+            this.drained = drained;
+            this.drains = drains;
+        }
+
+        // Getters
+        public String getName() { return name; }
+        public int getWeight() { return weight; }
+        public int getOutstanding() { return outstanding; }
+        public long getSent() { return sent; }
+        public double getLatencyMs() { return latencyMs; }
+        public double getErrorRate() { return errorRate; }
+        public boolean isDrained() { return drained; }
+        public long getDrains() { return drains; }
+    }
+}
@@ -0,0 +1,351 @@
+package com.example.notification.service;
+
+import com.example.notification.enums.NotificationChannel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outbound send-rate limit per provider, shared by every node through a token bucket in Redis.
+ * Each node takes permits from Redis in small batches and hands them out locally, so most sends
+ * cost no Redis round trip. Callers wait for a permit (up to max-wait-ms) instead of hitting the
+ * provider and coming back with a 429; the wait is a timer, so it holds no consumer thread.
+ *
+ * Every vendor account has its own bucket, so adding a vendor adds its rate to the channel:
+ * limits of the vendors in the ProviderRegistry come from
+ * notification.providers.[channel].[name].rate-per-second / burst, and the channel's own sender
+ * (SMTP relay, FCM, ...) is limited by notification.throttle.[channel].rate-per-second / burst.
+ * Senders without a rate are unlimited.
+ */
+@Service
+public class ProviderThrottleService {
+
+    private static final String THROTTLE_PREFIX = "provider_throttle:";
+
+    // Refill the bucket from Redis server time, then grant up to ARGV[3] permits.
+    // Returns {granted, millis until the next permit when nothing could be granted}.
+    private static final RedisScript<List> TAKE_PERMITS_SCRIPT = RedisScript.of(
+            "local rate = tonumber(ARGV[1]) " +
+            "local burst = tonumber(ARGV[2]) " +
+            "local requested = tonumber(ARGV[3]) " +
+            "local time = redis.call('TIME') " +
+            "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) " +
+            "local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts') " +
+            "local tokens = tonumber(bucket[1]) " +
+            "local ts = tonumber(bucket[2]) " +
+            "if tokens == nil then tokens = burst ts = now end " +
+            "tokens = math.min(burst, tokens + math.max(0, now - ts) * rate / 1000) " +
+            "local granted = math.min(requested, math.floor(tokens)) " +
+            "tokens = tokens - granted " +
+            "redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', now) " +
+            "redis.call('PEXPIRE', KEYS[1], math.ceil(burst * 1000 / rate) + 1000) " +
+            "if granted > 0 then return {granted, 0} end " +
+            "return {0, math.ceil((1 - tokens) * 1000 / rate)}",
+            List.class);
+
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${notification.throttle.enabled:false}")
+    private boolean enabled;
+
+    // Longest a sender waits for a permit before the send goes to the retry path
+    @Value("${notification.throttle.max-wait-ms:30000}")
+    private long maxWaitMs;
+
+    // Unused prefetched permits are dropped after this long so an idle node cannot burst later
+    @Value("${notification.throttle.prefetch-ttl-ms:1000}")
+    private long prefetchTtlMs;
+
+    // Used to split the rate between nodes while Redis is unreachable
+    @Value("${notification.throttle.expected-nodes:1}")
+    private int expectedNodes;
+
+    // Keyed by channel ("sms") for a channel's own sender, by channel and vendor ("sms:vendor-a") for registry providers
+    private final Map<String, ProviderBucket> buckets = new LinkedHashMap<>();
+
+    // Re-checks the bucket for senders waiting on a permit
+    private ScheduledExecutorService waitTimer;
+
+    @PostConstruct
+    void createBuckets() {
+        waitTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "provider-throttle-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int defaultPrefetch = environment.getProperty("notification.throttle.default.prefetch", Integer.class, 5);
+
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            String channelKey = bucketKey(channel, null);
+            addBucket(channelKey, "notification.throttle." + channelKey, defaultPrefetch);
+
+            // Same names the ProviderRegistry registers vendors under
+            String providersPrefix = "notification.providers." + channelKey;
+            String[] names = environment.getProperty(providersPrefix + ".names", String[].class, new String[0]);
+            for (String name : names) {
+                addBucket(bucketKey(channel, name), providersPrefix + "." + name, defaultPrefetch);
+            }
+        }
+    }
+
+    private void addBucket(String key, String prefix, int defaultPrefetch) {
+        double rate = environment.getProperty(prefix + ".rate-per-second", Double.class, 0.0);
+        if (rate <= 0) {
+            return;
+        }
+        int burst = environment.getProperty(prefix + ".burst", Integer.class, (int) Math.max(1, Math.ceil(rate)));
+        int prefetch = environment.getProperty(prefix + ".prefetch", Integer.class, defaultPrefetch);
+        // Never hold more than a tenth of a second's worth locally, or nodes starve each other
+        prefetch = (int) Math.max(1, Math.min(prefetch, Math.ceil(rate / 10)));
+        buckets.put(key, new ProviderBucket(key, rate, burst, prefetch));
+    }
+
+    private static String bucketKey(NotificationChannel channel, String provider) {
+        String channelKey = channel.name().toLowerCase().replace('_', '-');
+        return provider == null ? channelKey : channelKey + ":" + provider;
+    }
+
+    /**
+     * Wait for permission to make one call to the channel's own sender, blocking the calling thread
+     * @param channel Channel whose sender will be called
+     * @return true once a permit was taken, false if none became available within max-wait-ms
+     */
+    public boolean acquire(NotificationChannel channel) {
+        return acquire(channel, null);
+    }
+
+    /**
+     * Wait for permission to make one provider call, blocking the calling thread
+     * @param channel Channel being sent on
+     * @param provider Registry provider that will be called, or null for the channel's own sender
+     * @return true once a permit was taken, false if none became available within max-wait-ms
+     */
+    public boolean acquire(NotificationChannel channel, String provider) {
+        return acquireAsync(channel, provider).join();
+    }
+
+    public CompletableFuture<Boolean> acquireAsync(NotificationChannel channel) {
+        return acquireAsync(channel, null);
+    }
+
+    /**
+     * Wait for permission to make one provider call without holding the calling thread
+     * @param channel Channel being sent on
+     * @param provider Registry provider that will be called, or null for the channel's own sender
+     * @return Future completing with true once a permit was taken (already complete when one was
+     *         available), or false if none became available within max-wait-ms
+     */
+    public CompletableFuture<Boolean> acquireAsync(NotificationChannel channel, String provider) {
+        ProviderBucket bucket = buckets.get(bucketKey(channel, provider));
+        if (!enabled || bucket == null) {
+            return CompletableFuture.completedFuture(true);
+        }
+
+        long retryAfterMs = bucket.tryTake();
+        if (retryAfterMs == 0) {
+            bucket.granted.incrementAndGet();
+            return CompletableFuture.completedFuture(true);
+        }
+
+        bucket.waits.incrementAndGet();
+        long start = System.currentTimeMillis();
+        CompletableFuture<Boolean> permit = new CompletableFuture<>();
+        scheduleRetake(bucket, permit, start, start + maxWaitMs, retryAfterMs);
+        return permit;
+    }
+
+    public boolean tryAcquire(NotificationChannel channel) {
+        return tryAcquire(channel, null);
+    }
+
+    /**
+     * Take a permit only if one is available right now
+     * @param channel Channel being sent on
+     * @param provider Registry provider that will be called, or null for the channel's own sender
+     * @return true if a permit was taken
+     */
+    public boolean tryAcquire(NotificationChannel channel, String provider) {
+        ProviderBucket bucket = buckets.get(bucketKey(channel, provider));
+        if (!enabled || bucket == null) {
+            return true;
+        }
+        if (bucket.tryTake() == 0) {
+            bucket.granted.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private void scheduleRetake(ProviderBucket bucket, CompletableFuture<Boolean> permit,
+                                long start, long deadline, long retryAfterMs) {
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
+            bucket.timeouts.incrementAndGet();
+            System.out.println("🚦 " + bucket.name + " provider throttle: no permit within " + maxWaitMs + "ms");
+            permit.complete(false);
+            return;
+        }
+        try {
+            waitTimer.schedule(() -> {
+                try {
+                    long nextRetryAfterMs = bucket.tryTake();
+                    if (nextRetryAfterMs == 0) {
+                        bucket.granted.incrementAndGet();
+                        bucket.totalWaitMs.addAndGet(System.currentTimeMillis() - start);
+                        permit.complete(true);
+                    } else {
+                        scheduleRetake(bucket, permit, start, deadline, nextRetryAfterMs);
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println("Provider throttle wait for " + bucket.name + " failed: " + e.getMessage());
+                    permit.complete(false);
+                }
+            }, Math.min(retryAfterMs, remaining), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            permit.complete(false); // Shutting down
+        }
+    }
+
+    // Waits already scheduled still run, so every waiter gets an answer
+    @PreDestroy
+    void shutdown() {
+        waitTimer.shutdown();
+    }
+
+    public Map<String, ThrottleStats> getThrottleStats() {
+        Map<String, ThrottleStats> stats = new LinkedHashMap<>();
+        buckets.forEach((key, bucket) -> stats.put(key, new ThrottleStats(
+                bucket.rate,
+                bucket.burst,
+                bucket.granted.get(),
+                bucket.waits.get(),
+                bucket.totalWaitMs.get(),
+                bucket.timeouts.get(),
+                bucket.redisFailures.get()
+        )));
+        return stats;
+    }
+
+    private class ProviderBucket {
+        private final String name;
+        private final String key;
+        private final double rate;
+        private final int burst;
+        private final int prefetch;
+
+        // Permits taken from Redis but not yet handed out
+        private int localPermits;
+        private long localPermitsExpireAt;
+
+        // Node-local bucket used only while Redis is unreachable
+        private double fallbackTokens;
+        private long fallbackRefilledAt = System.currentTimeMillis();
+
+        private final AtomicLong granted = new AtomicLong(0);
+        private final AtomicLong waits = new AtomicLong(0);
+        private final AtomicLong totalWaitMs = new AtomicLong(0);
+        private final AtomicLong timeouts = new AtomicLong(0);
+        private final AtomicLong redisFailures = new AtomicLong(0);
+
+        ProviderBucket(String name, double rate, int burst, int prefetch) {
+            this.name = name;
+            this.key = THROTTLE_PREFIX + name;
+            this.rate = rate;
+            this.burst = burst;
+            this.prefetch = prefetch;
+        }
+
+        // Returns 0 when a permit was taken, otherwise how long to wait before trying again
+        synchronized long tryTake() {
+            long now = System.currentTimeMillis();
+            if (localPermits > 0 && now < localPermitsExpireAt) {
+                localPermits--;
+                return 0;
+            }
+            localPermits = 0;
+
+            List<?> result;
+            try {
+                result = redisTemplate.execute(TAKE_PERMITS_SCRIPT, Collections.singletonList(key),
+                        String.valueOf(rate), String.valueOf(burst), String.valueOf(prefetch));
+            } catch (Exception e) {
+                if (redisFailures.incrementAndGet() == 1) {
+                    System.err.println("Provider throttle for " + name + " falling back to local limit: " + e.getMessage());
+                }
+                return tryTakeFallback(now);
+            }
+
+            long grantedNow = ((Number) result.get(0)).longValue();
+            if (grantedNow > 0) {
+                localPermits = (int) grantedNow - 1;
+                localPermitsExpireAt = now + prefetchTtlMs;
+                return 0;
+            }
+            return Math.max(1, ((Number) result.get(1)).longValue());
+        }
+
+        private long tryTakeFallback(long now) {
+            double localRate = rate / Math.max(1, expectedNodes);
+            fallbackTokens = Math.min(burst, fallbackTokens + (now - fallbackRefilledAt) * localRate / 1000);
+            fallbackRefilledAt = now;
+            if (fallbackTokens >= 1) {
+                fallbackTokens--;
+                return 0;
+            }
+            return (long) Math.max(1, Math.ceil((1 - fallbackTokens) * 1000 / localRate));
+        }
+    }
+
+    public static class ThrottleStats {
+        private final double ratePerSecond;
+        private final int burst;
+        private final long granted;
+        private final long waits;
+        private final long totalWaitMs;
+        private final long timeouts;
+        private final long redisFailures;
+
+        public ThrottleStats(double ratePerSecond, int burst, long granted, long waits, long totalWaitMs,
+                             long timeouts, long redisFailures) {
+            this.ratePerSecond = ratePerSecond;
+            this.burst = burst;
+            this.granted = granted;
+            this.waits = waits;
+            this.totalWaitMs = totalWaitMs;
+            this.timeouts = timeouts;
+            this.redisFailures = redisFailures;
+        }
+
+        // Getters
+        public double getRatePerSecond() { return ratePerSecond; }
+        public int getBurst() { return burst; }
+        public long getGranted() { return granted; }
+        public long getWaits() { return waits; }
+        public long getTotalWaitMs() { return totalWaitMs; }
+        public long getTimeouts() { return timeouts; }
+        public long getRedisFailures() { return redisFailures; }
+        public double getAverageWaitMs() {
+            return waits == 0 ? 0 : (double) totalWaitMs / waits;
+        }
+    }
+}
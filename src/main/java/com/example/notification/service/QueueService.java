@@ -6,6 +6,8 @@ import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -32,6 +34,12 @@ public class QueueService {
                     // Add timestamp for tracking
                     message.getMessageProperties().setTimestamp(new java.util.Date());
 
+                    // Let the broker discard the message once its time-to-live passes
+                    if (notification.getExpiresAt() != null) {
+                        long ttlMillis = Duration.between(LocalDateTime.now(), notification.getExpiresAt()).toMillis();
+                        message.getMessageProperties().setExpiration(String.valueOf(Math.max(ttlMillis, 1)));
+                    }
+
                     // Add custom headers
                     message.getMessageProperties().setHeader("priority", notification.getPriority().name());
                     message.getMessageProperties().setHeader("userId", notification.getUserId());
@@ -0,0 +1,225 @@
+package com.example.notification.service;
+
+import com.example.notification.dto.RecurringNotificationRequest;
+import com.example.notification.dto.RecurringNotificationResponse;
+import com.example.notification.entity.Notification;
+import com.example.notification.entity.NotificationAudit;
+import com.example.notification.entity.NotificationSeries;
+import com.example.notification.enums.NotificationStatus;
+import com.example.notification.repository.NotificationRepository;
+import com.example.notification.repository.NotificationSeriesRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Service
+public class RecurringNotificationService {
+
+    @Autowired
+    private NotificationSeriesRepository seriesRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private AuditAppender auditAppender;
+
+    @Autowired
+    private PriorityService priorityService;
+
+    @Autowired
+    private ScheduledNotificationService scheduledNotificationService;
+
+    @Autowired
+    private StatusTransitionService statusTransitionService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Occurrences are materialized once they fall inside the scheduling window
+    @Value("${notification.scheduling.window-minutes:10}")
+    private long windowMinutes;
+
+    @Value("${notification.scheduling.page-size:500}")
+    private int pageSize;
+
+    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Transactional
+    public RecurringNotificationResponse createSeries(RecurringNotificationRequest request) {
+        // Throws IllegalArgumentException for malformed expressions
+        CronExpression cron = CronExpression.parse(request.getCronExpression());
+
+        NotificationSeries series = new NotificationSeries(
+                request.getUserId(),
+                request.getTitle(),
+                request.getMessage(),
+                request.getPriority(),
+                request.getChannel(),
+                request.getCronExpression()
+        );
+        series.setEndAt(request.getEndAt());
+        series.setNextFireAt(nextOccurrence(cron, LocalDateTime.now(), series.getEndAt()));
+        series.setActive(series.getNextFireAt() != null);
+
+        series = seriesRepository.save(series);
+        System.out.println("🔁 Created recurring series " + series.getId() + " (" + series.getCronExpression() +
+                "), next occurrence " + series.getNextFireAt());
+
+        return convertToResponse(series);
+    }
+
+    @Transactional
+    public boolean cancelSeries(Long seriesId, String userId) {
+        Optional<NotificationSeries> optionalSeries = seriesRepository.findById(seriesId);
+        if (optionalSeries.isPresent()) {
+            NotificationSeries series = optionalSeries.get();
+            if (series.getUserId().equals(userId) && series.isActive()) {
+                series.setActive(false);
+                series.setNextFireAt(null);
+                seriesRepository.save(series);
+
+                // The occurrence already materialized would otherwise still fire
+                int occurrences = 0;
+                for (Long occurrenceId : notificationRepository.findIdsBySeriesIdAndStatus(seriesId, NotificationStatus.SCHEDULED)) {
+                    if (statusTransitionService.transition(occurrenceId, NotificationStatus.SCHEDULED, NotificationStatus.FAILED,
+                            "Cancelled by user", "Recurring series " + seriesId + " cancelled")) {
+                        scheduledNotificationService.cancelScheduledNotification(occurrenceId);
+                        occurrences++;
+                    }
+                }
+                System.out.println("❌ Cancelled recurring series: " + seriesId + " (" + occurrences + " pending occurrences)");
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Transactional(readOnly = true)
+    public List<RecurringNotificationResponse> getActiveSeries(String userId) {
+        return seriesRepository.findByUserIdAndActiveTrue(userId).stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    // Turn the next occurrence of each due series into a regular scheduled notification. Runs on every
+    // node; each page is claimed and materialized in its own transaction, and the claimed series stay
+    // locked until that page commits, so nodes never both materialize the same occurrence. Timers are
+    // armed only after the commit, so a rolled back page never fires.
+    @Scheduled(fixedDelayString = "${notification.scheduling.window-advance-ms:30000}")
+    public void materializeDueOccurrences() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plusMinutes(windowMinutes);
+
+        int materialized = 0;
+        Long afterId = 0L;
+        int claimed;
+        do {
+            List<Notification> occurrences = new ArrayList<>();
+            Long pageAfterId = afterId;
+            List<NotificationSeries> page = transactionTemplate.execute(status -> {
+                List<NotificationSeries> claimedSeries = seriesRepository.claimDueSeries(until, pageAfterId, pageSize);
+                for (NotificationSeries series : claimedSeries) {
+                    occurrences.add(materializeNextOccurrence(series, now));
+                }
+                return claimedSeries;
+            });
+            claimed = page != null ? page.size() : 0;
+            if (claimed == 0) {
+                break;
+            }
+            afterId = page.get(claimed - 1).getId();
+
+            // Past-due occurrences (e.g. after downtime) are left to the missed-notification sweep
+            occurrences.forEach(scheduledNotificationService::scheduleNotification);
+            materialized += occurrences.size();
+        } while (claimed == pageSize);
+
+        if (materialized > 0) {
+            System.out.println("🔁 Materialized " + materialized + " recurring notification occurrences");
+        }
+    }
+
+    private Notification materializeNextOccurrence(NotificationSeries series, LocalDateTime now) {
+        LocalDateTime fireAt = series.getNextFireAt();
+
+        Notification notification = new Notification(
+                series.getUserId(),
+                series.getTitle(),
+                series.getMessage(),
+                series.getPriority(),
+                series.getChannel()
+        );
+        notification.setSeriesId(series.getId());
+        notification.setPriority(priorityService.calculatePriority(notification));
+        notification.setScheduledAt(fireAt);
+        notification.setStatus(NotificationStatus.SCHEDULED);
+        notification = notificationRepository.save(notification);
+
+        auditAppender.append(new NotificationAudit(
+                notification.getId(),
+                notification.getUserId(),
+                null,
+                NotificationStatus.SCHEDULED,
+                "Occurrence of recurring series " + series.getId() + " scheduled for: " + fireAt.format(formatter)
+        ));
+
+        advance(series, now);
+        seriesRepository.save(series);
+        return notification;
+    }
+
+    // Advance past both the materialized occurrence and now, so downtime does not replay a backlog
+    void advance(NotificationSeries series, LocalDateTime now) {
+        LocalDateTime fireAt = series.getNextFireAt();
+        CronExpression cron = CronExpression.parse(series.getCronExpression());
+        LocalDateTime base = fireAt.isAfter(now) ? fireAt : now;
+        series.setNextFireAt(nextOccurrence(cron, base, series.getEndAt()));
+        series.setLastFiredAt(fireAt);
+        series.setOccurrenceCount(series.getOccurrenceCount() + 1);
+        series.setActive(series.getNextFireAt() != null);
+    }
+
+    private LocalDateTime nextOccurrence(CronExpression cron, LocalDateTime after, LocalDateTime endAt) {
+        LocalDateTime next = cron.next(after);
+        if (next == null || (endAt != null && next.isAfter(endAt))) {
+            return null;
+        }
+        return next;
+    }
+
+    private RecurringNotificationResponse convertToResponse(NotificationSeries series) {
+        RecurringNotificationResponse response = new RecurringNotificationResponse();
+        response.setId(series.getId());
+        response.setUserId(series.getUserId());
+        response.setTitle(series.getTitle());
+        response.setPriority(series.getPriority());
+        response.setChannel(series.getChannel());
+        response.setCronExpression(series.getCronExpression());
+        response.setOccurrenceCount(series.getOccurrenceCount());
+        response.setActive(series.isActive());
+
+        if (series.getNextFireAt() != null) {
+            response.setNextFireAt(series.getNextFireAt().format(formatter));
+        }
+        if (series.getLastFiredAt() != null) {
+            response.setLastFiredAt(series.getLastFiredAt().format(formatter));
+        }
+        if (series.getEndAt() != null) {
+            response.setEndAt(series.getEndAt().format(formatter));
+        }
+
+        return response;
+    }
+}
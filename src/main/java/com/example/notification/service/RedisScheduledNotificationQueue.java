@@ -0,0 +1,116 @@
+package com.example.notification.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Delay queue backed by a Redis sorted set: the member is the notification ID and the
+ * score is the due time in epoch millis. Every node polls the same set, so scheduling is
+ * shared across the cluster and survives restarts.
+ */
+@Service
+public class RedisScheduledNotificationQueue {
+
+    static final String SCHEDULE_KEY = "scheduled_notifications";
+
+    // Atomically pop up to ARGV[2] members whose score is <= ARGV[1]
+    private static final RedisScript<List> POP_DUE_SCRIPT = RedisScript.of(
+            "local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2]) " +
+            "if #due > 0 then redis.call('ZREM', KEYS[1], unpack(due)) end " +
+            "return due",
+            List.class);
+
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    /**
+     * Add (or move) a notification in the delay queue
+     * @param notificationId Notification ID
+     * @param dueAt Time the notification should fire
+     */
+    public void schedule(Long notificationId, LocalDateTime dueAt) {
+        long score = dueAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        redisTemplate.opsForZSet().add(SCHEDULE_KEY, String.valueOf(notificationId), score);
+    }
+
+    /**
+     * Remove a notification from the delay queue
+     * @param notificationId Notification ID
+     * @return true if the notification was queued and has been removed
+     */
+    public boolean cancel(Long notificationId) {
+        Long removed = redisTemplate.opsForZSet().remove(SCHEDULE_KEY, String.valueOf(notificationId));
+        return removed != null && removed > 0;
+    }
+
+    /**
+     * Remove a batch of notifications from the delay queue with a single ZREM
+     * @param notificationIds Notification IDs
+     * @return Number of notifications that were queued and have been removed
+     */
+    public long cancelAll(Collection<Long> notificationIds) {
+        if (notificationIds.isEmpty()) {
+            return 0;
+        }
+        Object[] members = notificationIds.stream().map(String::valueOf).toArray();
+        Long removed = redisTemplate.opsForZSet().remove(SCHEDULE_KEY, members);
+        return removed != null ? removed : 0;
+    }
+
+    /**
+     * Move a batch of notifications to a new due time with a single ZADD
+     * @param notificationIds Notification IDs
+     * @param dueAt New due time
+     */
+    public void scheduleAll(Collection<Long> notificationIds, LocalDateTime dueAt) {
+        if (notificationIds.isEmpty()) {
+            return;
+        }
+        double score = dueAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        Set<ZSetOperations.TypedTuple<String>> tuples = notificationIds.stream()
+                .map(id -> ZSetOperations.TypedTuple.of(String.valueOf(id), score))
+                .collect(Collectors.toSet());
+        redisTemplate.opsForZSet().add(SCHEDULE_KEY, tuples);
+    }
+
+    /**
+     * Claim notifications that are due. Claimed IDs are removed from the set in the same
+     * script, so concurrent pollers on other nodes never receive the same ID.
+     * @param now Current time
+     * @param batchSize Maximum number of IDs to claim
+     * @return Claimed notification IDs, ordered by due time
+     */
+    @SuppressWarnings("unchecked")
+    public List<Long> popDue(LocalDateTime now, int batchSize) {
+        long maxScore = now.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        List<Object> due = redisTemplate.execute(POP_DUE_SCRIPT,
+                Collections.singletonList(SCHEDULE_KEY),
+                String.valueOf(maxScore), String.valueOf(batchSize));
+
+        if (due == null || due.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return due.stream()
+                .map(id -> Long.valueOf(id.toString()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return Number of notifications currently waiting in the delay queue
+     */
+    public long size() {
+        Long size = redisTemplate.opsForZSet().zCard(SCHEDULE_KEY);
+        return size != null ? size : 0;
+    }
+}
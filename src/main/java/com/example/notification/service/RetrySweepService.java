@@ -0,0 +1,130 @@
+package com.example.notification.service;
+
+import com.example.notification.entity.Notification;
+import com.example.notification.enums.NotificationStatus;
+import com.example.notification.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Re-queues RETRYING notifications. Every move to RETRYING stores retry_at (exponential backoff
+ * for failed attempts, a fixed delay for sends that were deferred without an attempt); this sweep
+ * hands rows whose retry_at has passed back to PENDING and publishes them again. The hand-back is a
+ * guarded UPDATE returning the IDs it moved, so concurrent sweeps on several nodes never publish
+ * the same retry twice.
+ */
+@Service
+public class RetrySweepService {
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private StatusTransitionService statusTransitionService;
+
+    @Autowired
+    private QueueService queueService;
+
+    // Delay before the first retry; doubles with each further attempt
+    @Value("${notification.retry.base-delay-ms:30000}")
+    private long baseDelayMs;
+
+    @Value("${notification.retry.max-delay-ms:600000}")
+    private long maxDelayMs;
+
+    // Hold-back for sends deferred without an attempt when the caller has no better estimate
+    @Value("${notification.retry.defer-ms:5000}")
+    private long deferMs;
+
+    @Value("${notification.retry.sweep-batch-size:500}")
+    private int batchSize;
+
+    private final AtomicLong retriesRequeued = new AtomicLong(0);
+    private final AtomicLong requeueFailures = new AtomicLong(0);
+
+    /**
+     * When a notification that just failed should be tried again
+     * @param retriesSoFar Retries already made before this failure
+     * @return Time the sweep re-queues it
+     */
+    public LocalDateTime nextRetryAt(int retriesSoFar) {
+        long delay = baseDelayMs << Math.min(Math.max(retriesSoFar, 0), 20);
+        return LocalDateTime.now().plusNanos(Math.min(delay, maxDelayMs) * 1_000_000);
+    }
+
+    /**
+     * When a send that was deferred without an attempt should be tried again, using the default hold-back
+     * @return Time the sweep re-queues it
+     */
+    public LocalDateTime deferUntil() {
+        return deferUntil(deferMs);
+    }
+
+    /**
+     * When a send that was deferred without an attempt should be tried again
+     * @param delayMs How long to hold it back
+     * @return Time the sweep re-queues it
+     */
+    public LocalDateTime deferUntil(long delayMs) {
+        return LocalDateTime.now().plusNanos(Math.max(delayMs, 0) * 1_000_000);
+    }
+
+    @Scheduled(fixedDelayString = "${notification.retry.sweep-interval-ms:5000}")
+    public void requeueDueRetries() {
+        List<Long> ids;
+        do {
+            LocalDateTime now = LocalDateTime.now();
+            ids = notificationRepository.findDueRetryIds(now, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                return;
+            }
+
+            List<Long> released = notificationRepository.releaseDueRetries(ids, now,
+                    NotificationStatus.RETRYING.ordinal(), NotificationStatus.PENDING.ordinal(), "Retry due - re-queued");
+            if (!released.isEmpty()) {
+                for (Notification notification : notificationRepository.findAllById(released)) {
+                    requeue(notification);
+                }
+                System.out.println("🔁 Re-queued " + released.size() + " notifications due for retry");
+            }
+        } while (ids.size() == batchSize);
+    }
+
+    private void requeue(Notification notification) {
+        try {
+            queueService.sendToQueue(notification);
+            retriesRequeued.incrementAndGet();
+        } catch (Exception e) {
+            // Back to RETRYING so the next sweep tries again instead of leaving an unqueued PENDING row
+            requeueFailures.incrementAndGet();
+            System.err.println("Failed to re-queue notification " + notification.getId() + ": " + e.getMessage());
+            statusTransitionService.deferRetry(notification.getId(), NotificationStatus.PENDING,
+                    "Re-queue failed: " + e.getMessage(), deferUntil());
+        }
+    }
+
+    public RetryStats getStats() {
+        return new RetryStats(retriesRequeued.get(), requeueFailures.get());
+    }
+
+    public static class RetryStats {
+        private final long retriesRequeued;
+        private final long requeueFailures;
+
+        public RetryStats(long retriesRequeued, long requeueFailures) {
+            this.retriesRequeued = retriesRequeued;
+            this.requeueFailures = requeueFailures;
+        }
+
+        // Getters
+        public long getRetriesRequeued() { return retriesRequeued; }
+        public long getRequeueFailures() { return requeueFailures; }
+    }
+}
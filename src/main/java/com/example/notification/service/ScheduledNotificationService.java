@@ -2,18 +2,25 @@ package com.example.notification.service;
 
 import com.example.notification.entity.Notification;
 import com.example.notification.enums.NotificationStatus;
+import com.example.notification.enums.SchedulingBackend;
 import com.example.notification.repository.NotificationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
+import java.util.stream.Collectors;
 
 @Service
 public class ScheduledNotificationService {
@@ -27,72 +34,283 @@ public class ScheduledNotificationService {
     @Autowired
     private TaskScheduler taskScheduler;
 
-    private final ConcurrentHashMap<Long, ScheduledFuture<?>> scheduledTasks = new ConcurrentHashMap<>();
+    @Autowired
+    private RedisScheduledNotificationQueue redisQueue;
+
+    @Autowired
+    private SendTimeSmoother sendTimeSmoother;
+
+    // LOCAL keeps timers in this JVM, REDIS shares a sorted-set delay queue across nodes
+    @Value("${notification.scheduling.backend:LOCAL}")
+    private SchedulingBackend backend;
+
+    // Maximum IDs claimed from the Redis delay queue per script call
+    @Value("${notification.scheduling.redis.batch-size:200}")
+    private int redisBatchSize;
+
+    // Only notifications due within this many minutes are held as in-memory timers
+    @Value("${notification.scheduling.window-minutes:10}")
+    private long windowMinutes;
+
+    // Rows fetched per query while loading the window
+    @Value("${notification.scheduling.page-size:500}")
+    private int pageSize;
+
+    private final ConcurrentHashMap<Long, PendingTimer> scheduledTasks = new ConcurrentHashMap<>();
+
+    // Upper bound of the time range already loaded into the scheduler (null until the first load)
+    private volatile LocalDateTime loadedUntil;
 
     public void scheduleNotification(Notification notification) {
         if (notification.getScheduledAt() != null && notification.getScheduledAt().isAfter(LocalDateTime.now())) {
-            Date scheduleTime = Date.from(notification.getScheduledAt()
-                    .atZone(ZoneId.systemDefault()).toInstant());
+            if (backend == SchedulingBackend.REDIS) {
+                redisQueue.schedule(notification.getId(), notification.getScheduledAt());
+                System.out.println("📅 Scheduled notification " + notification.getId() +
+                        " for " + notification.getScheduledAt() + " (redis)");
+                return;
+            }
 
-            ScheduledFuture<?> scheduledTask = taskScheduler.schedule(
+            LocalDateTime horizon = loadedUntil;
+            if (horizon != null && notification.getScheduledAt().isAfter(horizon)) {
+                // Beyond the current window - the window loader will pick it up when it gets close
+                System.out.println("📅 Deferred notification " + notification.getId() +
+                        " for " + notification.getScheduledAt() + " (outside scheduling window)");
+                return;
+            }
+
+            registerTask(notification);
+            System.out.println("📅 Scheduled notification " + notification.getId() +
+                    " for " + notification.getScheduledAt());
+        }
+    }
+
+    private void registerTask(Notification notification) {
+        // computeIfAbsent keeps the request path and the window loader from double-scheduling
+        scheduledTasks.computeIfAbsent(notification.getId(), id -> {
+            // Spread round-time bursts across the priority's tolerance window (no-op unless enabled)
+            LocalDateTime fireAt = sendTimeSmoother.assignFireTime(
+                    notification.getScheduledAt(), notification.getPriority());
+            Date scheduleTime = Date.from(fireAt.atZone(ZoneId.systemDefault()).toInstant());
+
+            return new PendingTimer(taskScheduler.schedule(
                     () -> {
-                        System.out.println("⏰ Processing scheduled notification: " + notification.getId());
-                        notificationProcessor.processScheduledNotification(notification.getId());
-                        scheduledTasks.remove(notification.getId());
+                        System.out.println("⏰ Processing scheduled notification: " + id);
+                        notificationProcessor.processScheduledNotification(id);
+                        scheduledTasks.remove(id);
                     },
                     scheduleTime
-            );
+            ), fireAt);
+        });
+    }
 
-            scheduledTasks.put(notification.getId(), scheduledTask);
-            System.out.println("📅 Scheduled notification " + notification.getId() +
-                    " for " + notification.getScheduledAt());
+    // Stop a pending timer and give its smoothed send-time slot back
+    private boolean cancelTimer(Long notificationId) {
+        PendingTimer timer = scheduledTasks.remove(notificationId);
+        if (timer != null && !timer.future.isDone() && timer.future.cancel(false)) {
+            sendTimeSmoother.releaseFireTime(timer.fireAt);
+            return true;
         }
+        return false;
     }
 
     public boolean cancelScheduledNotification(Long notificationId) {
-        ScheduledFuture<?> scheduledTask = scheduledTasks.remove(notificationId);
-        if (scheduledTask != null && !scheduledTask.isDone()) {
-            boolean cancelled = scheduledTask.cancel(false);
-            System.out.println("❌ Cancelled scheduled notification: " + notificationId);
+        if (backend == SchedulingBackend.REDIS) {
+            boolean cancelled = redisQueue.cancel(notificationId);
+            if (cancelled) {
+                System.out.println("❌ Cancelled scheduled notification: " + notificationId);
+            }
             return cancelled;
         }
-        return false;
+
+        boolean cancelled = cancelTimer(notificationId);
+        if (cancelled) {
+            System.out.println("❌ Cancelled scheduled notification: " + notificationId);
+        }
+        return cancelled;
     }
 
-    @Scheduled(fixedRate = 60000)
+    /**
+     * Drop the timers (or Redis entries) for a batch of notifications
+     * @param notificationIds Notification IDs
+     * @return Number of timers that were still pending and have been removed
+     */
+    public long cancelScheduledNotifications(Collection<Long> notificationIds) {
+        if (backend == SchedulingBackend.REDIS) {
+            return redisQueue.cancelAll(notificationIds);
+        }
+
+        long cancelled = 0;
+        for (Long notificationId : notificationIds) {
+            if (cancelTimer(notificationId)) {
+                cancelled++;
+            }
+        }
+        return cancelled;
+    }
+
+    /**
+     * Move a batch of notifications to a new time. Timers are replaced, or left to the window
+     * loader if the new time is outside the current window.
+     * @param notifications Notifications to move
+     * @param scheduledAt New scheduled time
+     * @return Number of timers (or Redis schedule entries) armed for the new time
+     */
+    public long rescheduleNotifications(List<Notification> notifications, LocalDateTime scheduledAt) {
+        if (notifications.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = notifications.stream().map(Notification::getId).collect(Collectors.toList());
+        if (backend == SchedulingBackend.REDIS) {
+            redisQueue.scheduleAll(ids, scheduledAt);
+            return ids.size();
+        }
+
+        cancelScheduledNotifications(ids);
+
+        LocalDateTime horizon = loadedUntil;
+        if (!scheduledAt.isAfter(LocalDateTime.now()) || (horizon != null && scheduledAt.isAfter(horizon))) {
+            return 0; // Past-due ones go to the missed sweep, far-future ones to the window loader
+        }
+        for (Notification notification : notifications) {
+            notification.setScheduledAt(scheduledAt);
+            registerTask(notification);
+        }
+        return notifications.size();
+    }
+
+    // Rebuild the in-memory timers after a restart so notifications due soon fire on time
+    @EventListener(ApplicationReadyEvent.class)
+    public void rehydrateScheduledNotifications() {
+        if (backend == SchedulingBackend.REDIS) {
+            return; // The sorted set survives restarts on its own
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int loaded = loadWindow(now, now.plusMinutes(windowMinutes));
+        System.out.println("🔁 Rehydrated " + loaded + " scheduled notifications due before " + loadedUntil);
+    }
+
+    // Slide the window forward, loading only the newly covered time range
+    @Scheduled(fixedDelayString = "${notification.scheduling.window-advance-ms:30000}",
+            initialDelayString = "${notification.scheduling.window-advance-ms:30000}")
+    public void advanceSchedulingWindow() {
+        if (backend == SchedulingBackend.REDIS) {
+            return;
+        }
+
+        LocalDateTime from = loadedUntil;
+        LocalDateTime now = LocalDateTime.now();
+        if (from == null || from.isBefore(now)) {
+            from = now;
+        }
+
+        int loaded = loadWindow(from, now.plusMinutes(windowMinutes));
+        if (loaded > 0) {
+            System.out.println("🔁 Loaded " + loaded + " scheduled notifications due before " + loadedUntil);
+        }
+    }
+
+    private int loadWindow(LocalDateTime from, LocalDateTime until) {
+        // Publish the new horizon before querying so rows created concurrently schedule themselves;
+        // anything still missed is caught by the missed-notification sweep
+        loadedUntil = until;
+
+        int loaded = 0;
+        LocalDateTime afterTime = from;
+        Long afterId = 0L;
+        List<Notification> page;
+        do {
+            page = notificationRepository.findScheduledNotificationsBetween(
+                    NotificationStatus.SCHEDULED, afterTime, afterId, until, PageRequest.of(0, pageSize));
+
+            for (Notification notification : page) {
+                if (notification.getScheduledAt().isAfter(LocalDateTime.now())) {
+                    registerTask(notification);
+                    loaded++;
+                }
+            }
+
+            if (!page.isEmpty()) {
+                Notification last = page.get(page.size() - 1);
+                afterTime = last.getScheduledAt();
+                afterId = last.getId();
+            }
+        } while (page.size() == pageSize);
+
+        return loaded;
+    }
+
+    // Claim due notifications from the shared delay queue; each ID is handed to exactly one node
+    @Scheduled(fixedDelayString = "${notification.scheduling.redis.poll-interval-ms:250}")
+    public void pollRedisQueue() {
+        if (backend != SchedulingBackend.REDIS) {
+            return;
+        }
+
+        List<Long> dueIds;
+        do {
+            dueIds = redisQueue.popDue(LocalDateTime.now(), redisBatchSize);
+            for (Long notificationId : dueIds) {
+                System.out.println("⏰ Processing scheduled notification: " + notificationId);
+                notificationProcessor.processScheduledNotification(notificationId);
+            }
+        } while (dueIds.size() == redisBatchSize);
+    }
+
+    @Scheduled(fixedRateString = "${notification.scheduling.missed-sweep-ms:60000}")
     public void processMissedScheduledNotifications() {
         LocalDateTime now = LocalDateTime.now();
         List<Notification> missedNotifications = notificationRepository
                 .findScheduledNotificationsPastDue(NotificationStatus.SCHEDULED, now);
 
+        int processed = 0;
         for (Notification notification : missedNotifications) {
+            if (scheduledTasks.containsKey(notification.getId())) {
+                continue; // Its timer is still pending: smoothing moved it past scheduledAt
+            }
             System.out.println("🔄 Processing missed scheduled notification: " + notification.getId());
             notificationProcessor.processScheduledNotification(notification.getId());
+            processed++;
         }
 
-        if (!missedNotifications.isEmpty()) {
-            System.out.println("✅ Processed " + missedNotifications.size() + " missed scheduled notifications");
+        if (processed > 0) {
+            System.out.println("✅ Processed " + processed + " missed scheduled notifications");
         }
     }
 
     // Get statistics about scheduled notifications
     public ScheduledStats getScheduledStats() {
         long totalScheduled = notificationRepository.countByStatus(NotificationStatus.SCHEDULED);
-        int activeTasks = scheduledTasks.size();
+        int activeTasks = backend == SchedulingBackend.REDIS
+                ? (int) redisQueue.size()
+                : scheduledTasks.size();
 
-        return new ScheduledStats(totalScheduled, activeTasks);
+        return new ScheduledStats(totalScheduled, activeTasks, loadedUntil);
+    }
+
+    private static class PendingTimer {
+        private final ScheduledFuture<?> future;
+        private final LocalDateTime fireAt;
+
+        private PendingTimer(ScheduledFuture<?> future, LocalDateTime fireAt) {
+            this.future = future;
+            this.fireAt = fireAt;
+        }
     }
 
     public static class ScheduledStats {
         private final long totalScheduled;
         private final int activeTasks;
+        private final LocalDateTime windowEnd;
 
-        public ScheduledStats(long totalScheduled, int activeTasks) {
+        public ScheduledStats(long totalScheduled, int activeTasks, LocalDateTime windowEnd) {
             this.totalScheduled = totalScheduled;
             this.activeTasks = activeTasks;
+            this.windowEnd = windowEnd;
         }
 
         public long getTotalScheduled() { return totalScheduled; }
         public int getActiveTasks() { return activeTasks; }
+        public LocalDateTime getWindowEnd() { return windowEnd; }
     }
 }
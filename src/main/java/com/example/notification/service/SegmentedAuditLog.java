@@ -0,0 +1,428 @@
+package com.example.notification.service;
+
+import com.example.notification.entity.NotificationAudit;
+import com.example.notification.enums.NotificationStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Append-only audit store on memory-mapped segment files, used instead of notification_audit
+ * when notification.audit.segment-log.enabled is set.
+ *
+ * Each segment (audit-[sequence].seg) holds records with a fixed 36-byte header followed by the
+ * user ID and details:
+ *   int length | long notificationId | long timestampMillis | int prevForNotification |
+ *   int prevForUser | byte previousStatus | byte newStatus | short userIdLength | int detailsLength
+ * The length is written last, so a record torn by a crash reads as the end of the segment.
+ *
+ * The index is sparse: per segment it keeps only the offset of the newest record of each
+ * notification and user, and every record points back to the previous one for the same key in
+ * that segment. A page of a trail is read by walking those chains, newest segment first, skipping
+ * segments that lie entirely before the cursor and stopping at the first segment too old to add to
+ * a full page. The index is rebuilt by scanning the segments on startup.
+ *
+ * Records are identified by segment sequence and offset. Compaction only deletes sealed segments
+ * whose newest record is older than retention-days, so a record keeps its ID (and any cursor
+ * pointing at it stays valid) for as long as it exists.
+ *
+ * The segment files are local to the node that wrote them: with several instances each one would
+ * serve only the entries it appended itself. Enable it on single-node deployments only; clustered
+ * deployments keep the audit trail in notification_audit.
+ */
+@Service
+public class SegmentedAuditLog {
+
+    private static final int HEADER_SIZE = 36;
+    private static final int MAX_USER_ID_BYTES = 1024;
+    private static final int MAX_DETAILS_BYTES = 16 * 1024;
+    private static final int MIN_SEGMENT_SIZE = 64 * 1024;
+    private static final int NO_RECORD = -1;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("audit-(\\d+)\\.seg");
+    private static final NotificationStatus[] STATUSES = NotificationStatus.values();
+    private static final Comparator<long[]> OLDEST_FIRST = Comparator
+            .<long[]>comparingLong(key -> key[0])
+            .thenComparingLong(key -> key[1]);
+
+    @Value("${notification.audit.segment-log.enabled:false}")
+    private boolean enabled;
+
+    @Value("${notification.audit.segment-log.directory:./audit-log}")
+    private String directory;
+
+    @Value("${notification.audit.segment-log.segment-size-bytes:67108864}")
+    private int segmentSizeBytes;
+
+    @Value("${notification.audit.segment-log.retention-days:30}")
+    private int retentionDays;
+
+    private final ConcurrentSkipListMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+    private volatile Segment active;
+
+    private final AtomicLong appended = new AtomicLong(0);
+    private final AtomicLong segmentsDeleted = new AtomicLong(0);
+
+    @PostConstruct
+    public void open() {
+        if (!enabled) {
+            return;
+        }
+        segmentSizeBytes = Math.max(MIN_SEGMENT_SIZE, segmentSizeBytes);
+        try {
+            Path dir = Paths.get(directory);
+            Files.createDirectories(dir);
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path path : (Iterable<Path>) files::iterator) {
+                    Matcher matcher = SEGMENT_NAME.matcher(path.getFileName().toString());
+                    if (matcher.matches()) {
+                        int sequence = Integer.parseInt(matcher.group(1));
+                        segments.put(sequence, Segment.open(sequence, path, (int) Files.size(path)));
+                    } else if (path.getFileName().toString().endsWith(".compact")) {
+                        Files.deleteIfExists(path); // Compaction interrupted before its rename
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open audit segment log in " + directory, e);
+        }
+        active = segments.isEmpty() ? null : segments.lastEntry().getValue();
+        System.out.println("📼 Audit segment log opened in " + directory + " with " + segments.size() + " segments");
+    }
+
+    @PreDestroy
+    public void close() {
+        force();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Append an audit record to the active segment
+     * @param audit Audit entry
+     */
+    public synchronized void append(NotificationAudit audit) {
+        byte[] userId = truncate(audit.getUserId(), MAX_USER_ID_BYTES);
+        byte[] details = truncate(audit.getDetails(), MAX_DETAILS_BYTES);
+        int length = HEADER_SIZE + lengthOf(userId) + lengthOf(details);
+
+        if (active == null || active.capacity - active.writePosition < length) {
+            roll();
+        }
+        LocalDateTime timestamp = audit.getTimestamp() != null ? audit.getTimestamp() : LocalDateTime.now();
+        active.append(audit.getNotificationId() != null ? audit.getNotificationId() : 0L,
+                timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                audit.getPreviousStatus(), audit.getNewStatus(), userId, details, length);
+        appended.incrementAndGet();
+    }
+
+    /**
+     * One page of a notification's audit trail
+     * @param notificationId Notification ID
+     * @param beforeTimestamp Only records older than this position (timestamp, then ID) are returned
+     * @param beforeId ID half of the position
+     * @param limit Maximum number of records
+     * @return Records, newest first
+     */
+    public List<NotificationAudit> findByNotificationId(Long notificationId, LocalDateTime beforeTimestamp,
+                                                        long beforeId, int limit) {
+        return findPage(segment -> segment.lastByNotification.get(notificationId), 20, beforeTimestamp, beforeId, limit);
+    }
+
+    /**
+     * One page of the audit trail of all notifications of one user
+     * @param userId User ID
+     * @param beforeTimestamp Only records older than this position (timestamp, then ID) are returned
+     * @param beforeId ID half of the position
+     * @param limit Maximum number of records
+     * @return Records, newest first
+     */
+    public List<NotificationAudit> findByUserId(String userId, LocalDateTime beforeTimestamp, long beforeId, int limit) {
+        return findPage(segment -> segment.lastByUser.get(userId), 24, beforeTimestamp, beforeId, limit);
+    }
+
+    // Walks one key's chain per segment, newest segment first, keeping the newest `limit` records
+    // past the position; only the header of a record is read until it makes the page
+    private List<NotificationAudit> findPage(Function<Segment, Integer> newestRecord, int backPointer,
+                                             LocalDateTime beforeTimestamp, long beforeId, int limit) {
+        long before = beforeTimestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        boolean beforeHasFraction = beforeTimestamp.getNano() % 1_000_000 != 0;
+        PriorityQueue<long[]> page = new PriorityQueue<>(OLDEST_FIRST); // [timestamp, id] of the page so far
+
+        for (Segment segment : segments.descendingMap().values()) {
+            if (page.size() >= limit && segment.maxTimestamp < page.peek()[0]) {
+                break; // This and every older segment only hold records older than a full page
+            }
+            if (segment.minTimestamp > before) {
+                continue; // Entirely newer than the cursor
+            }
+            Integer offset = newestRecord.apply(segment);
+            while (offset != null && offset != NO_RECORD) {
+                long timestamp = segment.buffer.getLong(offset + 12);
+                long id = segment.idOf(offset);
+                // Millisecond timestamps against a cursor that may carry microseconds
+                boolean pastCursor = timestamp < before || (timestamp == before && (beforeHasFraction || id < beforeId));
+                if (pastCursor) {
+                    long[] key = {timestamp, id};
+                    if (page.size() < limit) {
+                        page.add(key);
+                    } else if (OLDEST_FIRST.compare(key, page.peek()) > 0) {
+                        page.poll();
+                        page.add(key);
+                    }
+                }
+                offset = segment.buffer.getInt(offset + backPointer);
+            }
+        }
+
+        List<NotificationAudit> trail = new ArrayList<>(page.size());
+        while (!page.isEmpty()) {
+            long id = page.poll()[1];
+            Segment segment = segments.get((int) (id >>> 32));
+            if (segment != null) { // Unless compaction deleted it meanwhile
+                trail.add(segment.read((int) id));
+            }
+        }
+        Collections.reverse(trail);
+        return trail;
+    }
+
+    // Mapped pages reach the OS on their own; this bounds what a machine crash can lose
+    @Scheduled(fixedDelayString = "${notification.audit.segment-log.force-interval-ms:1000}")
+    public void force() {
+        Segment current = active;
+        if (enabled && current != null) {
+            current.buffer.force();
+        }
+    }
+
+    // Whole segments only: rewriting one would move its records and change their position-based IDs
+    @Scheduled(fixedDelayString = "${notification.audit.segment-log.compaction-interval-ms:3600000}")
+    public void compact() {
+        if (!enabled) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - retentionDays * 86_400_000L;
+        for (Segment segment : segments.values()) {
+            if (segment == active) {
+                continue; // Never touch the segment being written
+            }
+            if (segment.maxTimestamp < cutoff) {
+                try {
+                    segments.remove(segment.sequence);
+                    Files.deleteIfExists(segment.path);
+                    segmentsDeleted.incrementAndGet();
+                } catch (IOException e) {
+                    System.err.println("Error deleting audit segment " + segment.path + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void roll() {
+        int sequence = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        Path path = Paths.get(directory, String.format("audit-%010d.seg", sequence));
+        try {
+            if (active != null) {
+                active.buffer.force();
+            }
+            Segment segment = Segment.create(sequence, path, segmentSizeBytes);
+            segments.put(sequence, segment);
+            active = segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create audit segment " + path, e);
+        }
+    }
+
+    public SegmentLogStats getStats() {
+        long bytesUsed = 0;
+        for (Segment segment : segments.values()) {
+            bytesUsed += segment.writePosition;
+        }
+        return new SegmentLogStats(segments.size(), bytesUsed, appended.get(), segmentsDeleted.get());
+    }
+
+    private static byte[] truncate(String value, int maxBytes) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= maxBytes) {
+            return bytes;
+        }
+        byte[] truncated = new byte[maxBytes];
+        System.arraycopy(bytes, 0, truncated, 0, maxBytes);
+        return truncated;
+    }
+
+    private static int lengthOf(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static NotificationStatus status(byte ordinal) {
+        return ordinal < 0 ? null : STATUSES[ordinal];
+    }
+
+    private static class Segment {
+        private final int sequence;
+        private Path path;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private volatile int writePosition;
+        private volatile long minTimestamp = Long.MAX_VALUE;
+        private volatile long maxTimestamp = Long.MIN_VALUE;
+
+        // Newest record per key in this segment; older ones are reached through the record back-pointers
+        private final Map<Long, Integer> lastByNotification = new ConcurrentHashMap<>();
+        private final Map<String, Integer> lastByUser = new ConcurrentHashMap<>();
+
+        private Segment(int sequence, Path path, MappedByteBuffer buffer, int capacity) {
+            this.sequence = sequence;
+            this.path = path;
+            this.buffer = buffer;
+            this.capacity = capacity;
+        }
+
+        static Segment create(int sequence, Path path, int capacity) throws IOException {
+            return new Segment(sequence, path, map(path, capacity), capacity);
+        }
+
+        // Reopen an existing segment and rebuild its index from the records
+        static Segment open(int sequence, Path path, int capacity) throws IOException {
+            Segment segment = new Segment(sequence, path, map(path, capacity), capacity);
+            int offset = 0;
+            int length;
+            while (offset + HEADER_SIZE <= capacity && (length = segment.buffer.getInt(offset)) > 0) {
+                long timestamp = segment.buffer.getLong(offset + 12);
+                segment.lastByNotification.put(segment.buffer.getLong(offset + 4), offset);
+                segment.lastByUser.put(segment.userIdAt(offset), offset);
+                segment.minTimestamp = Math.min(segment.minTimestamp, timestamp);
+                segment.maxTimestamp = Math.max(segment.maxTimestamp, timestamp);
+                offset += length;
+            }
+            segment.writePosition = offset;
+            return segment;
+        }
+
+        private static MappedByteBuffer map(Path path, int capacity) throws IOException {
+            // The mapping stays valid after the channel is closed
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            }
+        }
+
+        // Callers serialize appends
+        void append(long notificationId, long timestamp, NotificationStatus previousStatus,
+                    NotificationStatus newStatus, byte[] userId, byte[] details, int length) {
+            int offset = writePosition;
+            String userKey = userId == null ? "" : new String(userId, StandardCharsets.UTF_8);
+
+            buffer.putLong(offset + 4, notificationId);
+            buffer.putLong(offset + 12, timestamp);
+            buffer.putInt(offset + 20, lastByNotification.getOrDefault(notificationId, NO_RECORD));
+            buffer.putInt(offset + 24, lastByUser.getOrDefault(userKey, NO_RECORD));
+            buffer.put(offset + 28, (byte) (previousStatus != null ? previousStatus.ordinal() : -1));
+            buffer.put(offset + 29, (byte) (newStatus != null ? newStatus.ordinal() : -1));
+            buffer.putShort(offset + 30, (short) lengthOf(userId));
+            buffer.putInt(offset + 32, details != null ? details.length : -1);
+            if (userId != null) {
+                buffer.put(offset + HEADER_SIZE, userId);
+            }
+            if (details != null) {
+                buffer.put(offset + HEADER_SIZE + lengthOf(userId), details);
+            }
+            buffer.putInt(offset, length); // Last, so a torn record is never read
+
+            minTimestamp = Math.min(minTimestamp, timestamp);
+            maxTimestamp = Math.max(maxTimestamp, timestamp);
+            lastByNotification.put(notificationId, offset);
+            lastByUser.put(userKey, offset);
+            writePosition = offset + length;
+        }
+
+        NotificationAudit read(int offset) {
+            String userId = userIdAt(offset);
+            int detailsLength = buffer.getInt(offset + 32);
+            byte[] details = bytes(offset + HEADER_SIZE + buffer.getShort(offset + 30), detailsLength);
+
+            NotificationAudit audit = new NotificationAudit(
+                    buffer.getLong(offset + 4),
+                    userId.isEmpty() ? null : userId,
+                    status(buffer.get(offset + 28)),
+                    status(buffer.get(offset + 29)),
+                    details != null ? new String(details, StandardCharsets.UTF_8) : null
+            );
+            audit.setId(idOf(offset)); // Stable position-based ID
+            audit.setTimestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(buffer.getLong(offset + 12)), ZoneId.systemDefault()));
+            return audit;
+        }
+
+        long idOf(int offset) {
+            return ((long) sequence << 32) | offset;
+        }
+
+        String userIdAt(int offset) {
+            byte[] userId = bytes(offset + HEADER_SIZE, buffer.getShort(offset + 30));
+            return userId == null ? "" : new String(userId, StandardCharsets.UTF_8);
+        }
+
+        byte[] bytes(int offset, int length) {
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(offset, bytes);
+            return bytes;
+        }
+    }
+
+    public static class SegmentLogStats {
+        private final int segments;
+        private final long bytesUsed;
+        private final long appended;
+        private final long segmentsDeleted;
+
+        public SegmentLogStats(int segments, long bytesUsed, long appended, long segmentsDeleted) {
+            this.segments = segments;
+            this.bytesUsed = bytesUsed;
+            this.appended = appended;
+            this.segmentsDeleted = segmentsDeleted;
+        }
+
+        // Getters
+        public int getSegments() { return segments; }
+        public long getBytesUsed() { return bytesUsed; }
+        public long getAppended() { return appended; }
+        public long getSegmentsDeleted() { return segmentsDeleted; }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.notification.service;
+
+import com.example.notification.enums.NotificationPriority;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spreads scheduled firings that land on the same second (09:00:00 and friends) across a
+ * per-priority tolerance window so no second releases more than the target rate.
+ * CRITICAL notifications always fire at their exact time, but still count against the rate.
+ * Applies to the LOCAL scheduling backend only: the Redis poller releases everything that is due.
+ */
+@Component
+public class SendTimeSmoother {
+
+    @Value("${notification.scheduling.smoothing.enabled:false}")
+    private boolean enabled;
+
+    // Target number of scheduled notifications released per second
+    @Value("${notification.scheduling.smoothing.max-per-second:200}")
+    private int maxPerSecond;
+
+    @Value("${notification.scheduling.smoothing.tolerance-seconds.high:30}")
+    private int highToleranceSeconds;
+
+    @Value("${notification.scheduling.smoothing.tolerance-seconds.medium:120}")
+    private int mediumToleranceSeconds;
+
+    @Value("${notification.scheduling.smoothing.tolerance-seconds.low:300}")
+    private int lowToleranceSeconds;
+
+    // Epoch second -> firings already assigned to that second
+    private final ConcurrentHashMap<Long, AtomicInteger> slots = new ConcurrentHashMap<>();
+
+    /**
+     * Pick the actual fire time for a scheduled notification
+     * @param scheduledAt Time requested by the client
+     * @param priority Notification priority
+     * @return The first second within the priority's tolerance that is still under the target rate,
+     *         or the end of the tolerance window if every second is full
+     */
+    public LocalDateTime assignFireTime(LocalDateTime scheduledAt, NotificationPriority priority) {
+        if (!enabled) {
+            return scheduledAt;
+        }
+
+        ZoneId zone = ZoneId.systemDefault();
+        long requestedSecond = scheduledAt.atZone(zone).toEpochSecond();
+        int tolerance = getToleranceSeconds(priority);
+
+        for (int offset = 0; offset <= tolerance; offset++) {
+            AtomicInteger slot = slots.computeIfAbsent(requestedSecond + offset, s -> new AtomicInteger());
+            if (slot.incrementAndGet() <= maxPerSecond) {
+                return scheduledAt.plusSeconds(offset);
+            }
+            slot.decrementAndGet();
+        }
+
+        // Every second in the window is full - fire at the end of the window rather than later
+        slots.computeIfAbsent(requestedSecond + tolerance, s -> new AtomicInteger()).incrementAndGet();
+        return scheduledAt.plusSeconds(tolerance);
+    }
+
+    /**
+     * Give back the slot of a firing that was cancelled or moved before it fired
+     * @param fireAt Fire time returned by {@link #assignFireTime}
+     */
+    public void releaseFireTime(LocalDateTime fireAt) {
+        if (!enabled) {
+            return;
+        }
+        AtomicInteger slot = slots.get(fireAt.atZone(ZoneId.systemDefault()).toEpochSecond());
+        if (slot != null) {
+            slot.updateAndGet(count -> Math.max(0, count - 1));
+        }
+    }
+
+    int getToleranceSeconds(NotificationPriority priority) {
+        return switch (priority) {
+            case CRITICAL -> 0;
+            case HIGH -> highToleranceSeconds;
+            case MEDIUM -> mediumToleranceSeconds;
+            case LOW -> lowToleranceSeconds;
+        };
+    }
+
+    // Drop counters for seconds that have already passed
+    @Scheduled(fixedRate = 60000)
+    public void pruneElapsedSlots() {
+        long nowSecond = LocalDateTime.now().atZone(ZoneId.systemDefault()).toEpochSecond();
+        slots.keySet().removeIf(second -> second < nowSecond);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.notification.service;
+
+import com.example.notification.enums.NotificationChannel;
+import com.example.notification.enums.NotificationStatus;
+import com.example.notification.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Status transitions for the consumer hot path. Each transition is one guarded UPDATE that also
+ * writes the audit row (no entity load, no dirty checking), and only succeeds if the notification
+ * is still in the status the caller expects, so concurrent consumers cannot overwrite each other.
+ */
+@Service
+public class StatusTransitionService {
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    /**
+     * Move a notification between statuses
+     * @param notificationId Notification ID
+     * @param expected Status the notification must currently be in
+     * @param next Status to move to
+     * @param details Audit details
+     * @return true if this caller made the transition, false if the notification was not in the expected status
+     */
+    public boolean transition(Long notificationId, NotificationStatus expected, NotificationStatus next, String details) {
+        return transition(notificationId, expected, next, null, details);
+    }
+
+    /**
+     * Move a notification between statuses and record an error message on it
+     * @param notificationId Notification ID
+     * @param expected Status the notification must currently be in
+     * @param next Status to move to
+     * @param errorMessage Error message to store on the notification (null keeps the current one)
+     * @param details Audit details
+     * @return true if this caller made the transition
+     */
+    public boolean transition(Long notificationId, NotificationStatus expected, NotificationStatus next,
+                              String errorMessage, String details) {
+        return notificationRepository.transitionStatus(
+                notificationId,
+                expected.name(),
+                expected.ordinal(),
+                next.name(),
+                next.ordinal(),
+                errorMessage,
+                LocalDateTime.now(),
+                details
+        ) > 0;
+    }
+
+    /**
+     * Store a new channel for a notification that is still queued, e.g. the circuit breaker fallback
+     * @param notificationId Notification ID
+     * @param expected Status the notification must currently be in
+     * @param channel Channel it is now delivered on
+     * @param details Audit details
+     * @return true if the channel was changed, false if the notification was not in the expected status
+     */
+    public boolean reroute(Long notificationId, NotificationStatus expected, NotificationChannel channel, String details) {
+        return notificationRepository.rerouteChannel(
+                notificationId,
+                expected.name(),
+                expected.ordinal(),
+                channel.name(),
+                LocalDateTime.now(),
+                details
+        ) > 0;
+    }
+
+    /**
+     * Move a notification to RETRYING after a failed attempt and bump its retry count
+     * @param notificationId Notification ID
+     * @param expected Status the notification must currently be in
+     * @param errorMessage Why the attempt failed
+     * @param retryAt When the retry sweep hands it back to the queue
+     * @return true if this caller made the transition
+     */
+    public boolean markRetrying(Long notificationId, NotificationStatus expected, String errorMessage,
+                                LocalDateTime retryAt) {
+        return moveToRetrying(notificationId, expected, 1, retryAt, errorMessage);
+    }
+
+    /**
+     * Move a notification to RETRYING without counting an attempt, for sends that were never made
+     * (open circuit, provider throttle)
+     * @param notificationId Notification ID
+     * @param expected Status the notification must currently be in
+     * @param reason Why the send was deferred
+     * @param retryAt When the retry sweep hands it back to the queue
+     * @return true if this caller made the transition
+     */
+    public boolean deferRetry(Long notificationId, NotificationStatus expected, String reason, LocalDateTime retryAt) {
+        return moveToRetrying(notificationId, expected, 0, retryAt, reason);
+    }
+
+    private boolean moveToRetrying(Long notificationId, NotificationStatus expected, int retryIncrement,
+                                   LocalDateTime retryAt, String errorMessage) {
+        return notificationRepository.transitionToRetrying(
+                notificationId,
+                expected.name(),
+                expected.ordinal(),
+                NotificationStatus.RETRYING.ordinal(),
+                retryIncrement,
+                retryAt,
+                errorMessage,
+                LocalDateTime.now()
+        ) > 0;
+    }
+
+    /**
+     * Record the combined outcome of a multi-channel delivery and leave PROCESSING
+     * @param notificationId Notification ID
+     * @param deliveredMask Channels that accepted the notification
+     * @param failedMask Channels that did not
+     * @param next Overall status to move to
+     * @param countRetry Whether this attempt counts against the retry limit
+     * @param retryAt When the retry sweep hands it back to the queue (only for RETRYING, else null)
+     * @param errorMessage Error message to store on the notification (null keeps the current one)
+     * @param details Audit details
+     * @return true if this caller made the transition
+     */
+    public boolean completeChannelDelivery(Long notificationId, int deliveredMask, int failedMask,
+                                           NotificationStatus next, boolean countRetry, LocalDateTime retryAt,
+                                           String errorMessage, String details) {
+        return notificationRepository.completeChannelDelivery(
+                notificationId,
+                deliveredMask,
+                failedMask,
+                NotificationStatus.PROCESSING.ordinal(),
+                next.name(),
+                next.ordinal(),
+                countRetry ? 1 : 0,
+                retryAt,
+                errorMessage,
+                LocalDateTime.now(),
+                details
+        ) > 0;
+    }
+}
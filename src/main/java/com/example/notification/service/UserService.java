@@ -22,27 +22,27 @@ public class UserService {
     }
 
     public boolean isVIPUser(String userId) {
-        return findById(userId)
-                .map(user -> user.getUserType() == UserType.VIP || user.getUserType() == UserType.ADMIN)
+        return getUserType(userId)
+                .map(type -> type == UserType.VIP || type == UserType.ADMIN)
                 .orElse(false);
     }
 
     // NEW: Check if user is admin
     public boolean isAdminUser(String userId) {
-        return findById(userId)
-                .map(user -> user.getUserType() == UserType.ADMIN)
+        return getUserType(userId)
+                .map(type -> type == UserType.ADMIN)
                 .orElse(false);
     }
 
     // NEW: Check if user has admin or VIP role
     public boolean hasAdminOrVIPRole(String userId) {
-        return findById(userId)
-                .map(user -> user.getUserType() == UserType.ADMIN || user.getUserType() == UserType.VIP)
+        return getUserType(userId)
+                .map(type -> type == UserType.ADMIN || type == UserType.VIP)
                 .orElse(false);
     }
 
     // NEW: Get user type
     public Optional<UserType> getUserType(String userId) {
-        return findById(userId).map(User::getUserType);
+        return userRepository.findUserTypeByUserId(userId);
     }
 }
@@ -2,7 +2,9 @@ package com.example.notification.websocket;
 
 import com.example.notification.dto.WebSocketNotificationMessage;
 import com.example.notification.entity.Notification;
+import com.example.notification.service.PresenceService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.*;
 
@@ -16,11 +18,18 @@ public class NotificationWebSocketHandler implements WebSocketHandler {
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final ConcurrentHashMap<String, CopyOnWriteArrayList<WebSocketSession>> userSessions = new ConcurrentHashMap<>();
 
+    @Autowired
+    private PresenceService presenceService;
+
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
         String userId = getUserIdFromSession(session);
         if (userId != null) {
-            userSessions.computeIfAbsent(userId, k -> new CopyOnWriteArrayList<>()).add(session);
+            CopyOnWriteArrayList<WebSocketSession> sessions = userSessions.computeIfAbsent(userId, k -> new CopyOnWriteArrayList<>());
+            sessions.add(session);
+            if (sessions.size() == 1) {
+                presenceService.userConnected(userId);
+            }
             System.out.println("WebSocket connection established for user: " + userId);
         }
     }
@@ -49,6 +58,11 @@ public class NotificationWebSocketHandler implements WebSocketHandler {
         return false;
     }
 
+    public boolean hasOpenSession(String userId) {
+        CopyOnWriteArrayList<WebSocketSession> sessions = userSessions.get(userId);
+        return sessions != null && sessions.stream().anyMatch(WebSocketSession::isOpen);
+    }
+
     public boolean sendNotificationToUser(String userId, Notification notification) {
         CopyOnWriteArrayList<WebSocketSession> sessions = userSessions.get(userId);
         if (sessions == null || sessions.isEmpty()) {
@@ -85,6 +99,7 @@ public class NotificationWebSocketHandler implements WebSocketHandler {
                 sessions.remove(session);
                 if (sessions.isEmpty()) {
                     userSessions.remove(userId);
+                    presenceService.userDisconnected(userId);
                 }
             }
         }
@@ -0,0 +1,75 @@
+-- Schema as previously generated by Hibernate (ddl-auto: update). Existing databases are baselined
+-- at this version and start from V2.
+
+CREATE TABLE notifications (
+    id                    BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id               VARCHAR(255) NOT NULL,
+    title                 VARCHAR(255) NOT NULL,
+    message               TEXT,
+    priority              VARCHAR(255),
+    channel               VARCHAR(255),
+    status                VARCHAR(255),
+    created_at            TIMESTAMP(6),
+    scheduled_at          TIMESTAMP(6),
+    sent_at               TIMESTAMP(6),
+    processing_started_at TIMESTAMP(6),
+    retry_count           INTEGER NOT NULL,
+    error_message         VARCHAR(255),
+    series_id             BIGINT,
+    expires_at            TIMESTAMP(6),
+    channel_mask          INTEGER,
+    delivered_mask        INTEGER,
+    failed_mask           INTEGER
+);
+
+CREATE TABLE notification_metadata (
+    notification_id BIGINT NOT NULL REFERENCES notifications (id),
+    metadata_key    VARCHAR(255) NOT NULL,
+    metadata        VARCHAR(255),
+    PRIMARY KEY (notification_id, metadata_key)
+);
+
+-- Statuses are stored as ordinals here
+CREATE TABLE notification_audit (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    notification_id BIGINT,
+    user_id         VARCHAR(255),
+    previous_status SMALLINT,
+    new_status      SMALLINT,
+    timestamp       TIMESTAMP(6),
+    details         VARCHAR(255)
+);
+
+CREATE TABLE users (
+    user_id      VARCHAR(255) PRIMARY KEY,
+    email        VARCHAR(255) NOT NULL,
+    phone_number VARCHAR(255),
+    fcm_token    VARCHAR(255),
+    user_type    VARCHAR(255)
+);
+
+-- Map key is the channel ordinal
+CREATE TABLE user_preferences (
+    user_user_id            VARCHAR(255) NOT NULL REFERENCES users (user_id),
+    channel_preferences_key SMALLINT NOT NULL,
+    channel_preferences     BOOLEAN,
+    PRIMARY KEY (user_user_id, channel_preferences_key)
+);
+
+CREATE TABLE notification_series (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id          VARCHAR(255) NOT NULL,
+    title            VARCHAR(255) NOT NULL,
+    message          TEXT,
+    priority         VARCHAR(255),
+    channel          VARCHAR(255),
+    cron_expression  VARCHAR(255) NOT NULL,
+    next_fire_at     TIMESTAMP(6),
+    last_fired_at    TIMESTAMP(6),
+    end_at           TIMESTAMP(6),
+    active           BOOLEAN NOT NULL,
+    occurrence_count BIGINT NOT NULL,
+    created_at       TIMESTAMP(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_series_next_fire ON notification_series (active, next_fire_at);
@@ -0,0 +1,50 @@
+-- One index per repository access path. Composite rather than partial where the status arrives as a
+-- bind parameter: a generic prepared plan cannot prove a partial index's predicate.
+
+-- findByUserIdOrderByCreatedAtDesc, findByUserIdAndPriorityOrderByCreatedAtDesc; newest-first user history
+CREATE INDEX IF NOT EXISTS idx_notifications_user_created
+    ON notifications (user_id, created_at DESC, id DESC);
+
+-- findByUserIdAndStatus
+CREATE INDEX IF NOT EXISTS idx_notifications_user_status
+    ON notifications (user_id, status);
+
+-- findScheduledNotificationsPastDue, findPendingNotificationsByPriority, both findScheduledNotificationsBetween,
+-- countByStatus, findByStatusAndRetryCountLessThan
+CREATE INDEX IF NOT EXISTS idx_notifications_status_scheduled
+    ON notifications (status, scheduled_at, id);
+
+-- findByFilterAfterId (bulk operations page by id within a status), findByStatusIn
+CREATE INDEX IF NOT EXISTS idx_notifications_status_id
+    ON notifications (status, id);
+
+-- findAbandonedClaimIds: only the few rows currently being processed
+CREATE INDEX IF NOT EXISTS idx_notifications_processing_claim
+    ON notifications (processing_started_at, id) WHERE status = 'PROCESSING';
+
+-- findFailedNotificationsExceedingRetries
+CREATE INDEX IF NOT EXISTS idx_notifications_failed_retries
+    ON notifications (retry_count, created_at DESC) WHERE status = 'FAILED';
+
+-- findExpiredIds: only notifications with a time-to-live
+CREATE INDEX IF NOT EXISTS idx_notifications_expires
+    ON notifications (expires_at, id) WHERE expires_at IS NOT NULL;
+
+-- findNotificationsBetweenDates, countByStatusAndDateRange: created_at follows insertion order, so a
+-- block-range index is a few pages instead of a B-tree over every row
+CREATE INDEX IF NOT EXISTS idx_notifications_created_brin
+    ON notifications USING BRIN (created_at);
+
+-- Audit trails per notification and per user
+CREATE INDEX IF NOT EXISTS idx_audit_notification_timestamp
+    ON notification_audit (notification_id, timestamp DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_audit_user_timestamp
+    ON notification_audit (user_id, timestamp DESC, id DESC);
+
+-- clearFcmTokens
+CREATE INDEX IF NOT EXISTS idx_users_fcm_token
+    ON users (fcm_token) WHERE fcm_token IS NOT NULL;
+
+-- findByUserIdAndActiveTrue
+CREATE INDEX IF NOT EXISTS idx_series_user_active
+    ON notification_series (user_id) WHERE active;
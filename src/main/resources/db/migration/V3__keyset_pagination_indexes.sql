@@ -0,0 +1,6 @@
+-- Keyset pages of a user's notifications in one status (sent history, scheduled list) walk this index
+-- from the cursor onwards; it also serves findByUserIdAndStatus, so the narrower index goes.
+CREATE INDEX IF NOT EXISTS idx_notifications_user_status_created
+    ON notifications (user_id, status, created_at DESC, id DESC);
+
+DROP INDEX IF EXISTS idx_notifications_user_status;
@@ -0,0 +1,31 @@
+-- Notification metadata moves from notification_metadata (one row per entry) to a JSONB column on
+-- the notification, and channel preferences from user_preferences to a bitmask of disabled channels
+-- (bit = NotificationChannel ordinal, the same key the collection table used).
+
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS metadata JSONB;
+
+UPDATE notifications n
+SET metadata = m.entries
+FROM (SELECT notification_id, jsonb_object_agg(metadata_key, metadata) AS entries
+      FROM notification_metadata
+      GROUP BY notification_id) m
+WHERE n.id = m.notification_id;
+
+DROP TABLE notification_metadata;
+
+-- findByFilterAfterId campaign and tag criteria (containment)
+CREATE INDEX IF NOT EXISTS idx_notifications_metadata
+    ON notifications USING GIN (metadata jsonb_path_ops);
+
+-- Channels without an entry were never turned off, so they stay enabled
+ALTER TABLE users ADD COLUMN IF NOT EXISTS disabled_channel_mask INTEGER NOT NULL DEFAULT 0;
+
+UPDATE users u
+SET disabled_channel_mask = p.mask
+FROM (SELECT user_user_id, bit_or(1 << channel_preferences_key) AS mask
+      FROM user_preferences
+      WHERE channel_preferences = FALSE
+      GROUP BY user_user_id) p
+WHERE u.user_id = p.user_user_id;
+
+DROP TABLE user_preferences;
@@ -0,0 +1,3 @@
+-- findIdsBySeriesIdAndStatus: pending occurrences cancelled together with their series
+CREATE INDEX IF NOT EXISTS idx_notifications_series_status
+    ON notifications (series_id, status) WHERE series_id IS NOT NULL;
@@ -0,0 +1,9 @@
+-- When a RETRYING notification is due to be re-queued; set on every move to RETRYING
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS retry_at TIMESTAMP(6);
+
+-- Rows that went to RETRYING before the sweep existed were never re-queued: retry them right away
+UPDATE notifications SET retry_at = now() WHERE status = 'RETRYING' AND retry_at IS NULL;
+
+-- findDueRetryIds: only the rows waiting for a retry
+CREATE INDEX IF NOT EXISTS idx_notifications_retry_due
+    ON notifications (retry_at, id) WHERE status = 'RETRYING';
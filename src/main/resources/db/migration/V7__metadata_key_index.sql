@@ -0,0 +1,9 @@
+-- findByFilterAfterId tag criterion without a value ("has key"). jsonb_exists() is a plain function
+-- call that no index answers, and jsonb_path_ops does not support the key-exists operator, so the
+-- keys are indexed as a text array and matched by array containment.
+CREATE OR REPLACE FUNCTION notification_metadata_keys(metadata JSONB) RETURNS TEXT[]
+    LANGUAGE sql IMMUTABLE STRICT PARALLEL SAFE
+AS 'SELECT ARRAY(SELECT jsonb_object_keys(metadata))';
+
+CREATE INDEX IF NOT EXISTS idx_notifications_metadata_keys
+    ON notifications USING GIN (notification_metadata_keys(metadata));
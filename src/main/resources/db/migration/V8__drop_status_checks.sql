@@ -0,0 +1,7 @@
+-- Databases baselined from a Hibernate-generated schema carry CHECK constraints listing the statuses
+-- that existed at the time (up to RETRYING, ordinals 0-5), which reject EXPIRED. The enum is the
+-- source of truth for the allowed values, so the constraints are dropped rather than rewritten.
+ALTER TABLE notifications DROP CONSTRAINT IF EXISTS notifications_status_check;
+
+ALTER TABLE notification_audit DROP CONSTRAINT IF EXISTS notification_audit_previous_status_check;
+ALTER TABLE notification_audit DROP CONSTRAINT IF EXISTS notification_audit_new_status_check;
@@ -0,0 +1,13 @@
+-- The V1 baseline reproduces the Hibernate-generated tables without the CHECK constraints Hibernate
+-- put on every enum column, so baselined databases still have them and fresh ones do not. Drop the
+-- rest of them (V8 dropped the status ones) so both kinds of database have the same schema, and a
+-- new enum constant does not need a migration of its own. V1 is left as is to keep its checksum.
+ALTER TABLE notifications DROP CONSTRAINT IF EXISTS notifications_priority_check;
+ALTER TABLE notifications DROP CONSTRAINT IF EXISTS notifications_channel_check;
+
+ALTER TABLE users DROP CONSTRAINT IF EXISTS users_user_type_check;
+
+ALTER TABLE user_preferences DROP CONSTRAINT IF EXISTS user_preferences_channel_preferences_key_check;
+
+ALTER TABLE notification_series DROP CONSTRAINT IF EXISTS notification_series_priority_check;
+ALTER TABLE notification_series DROP CONSTRAINT IF EXISTS notification_series_channel_check;
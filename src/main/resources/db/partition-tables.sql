@@ -0,0 +1,67 @@
+-- One-time conversion of notifications (by created_at) and notification_audit (by timestamp) into
+-- tables range-partitioned by month. Existing rows are copied into monthly partitions covering the
+-- oldest row through three months ahead; later months are created by PartitionMaintenanceService.
+-- Runs as a single statement, so it is one transaction; tables already partitioned are skipped.
+DO $$
+DECLARE
+    spec record;
+    fk record;
+    month_start date;
+    last_month date;
+    max_id bigint;
+    index_defs text[];
+    index_def text;
+BEGIN
+    -- Several nodes may start at once
+    PERFORM pg_advisory_xact_lock(hashtext('notification_partitioning'));
+
+    FOR spec IN SELECT * FROM (VALUES ('notifications', 'created_at'), ('notification_audit', 'timestamp')) AS t(tbl, col) LOOP
+        IF to_regclass(spec.tbl) IS NULL
+                OR EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(spec.tbl)) THEN
+            CONTINUE;
+        END IF;
+
+        -- A partitioned table cannot be referenced by id alone
+        FOR fk IN SELECT conname, conrelid::regclass AS rel FROM pg_constraint
+                WHERE contype = 'f' AND confrelid = to_regclass(spec.tbl) LOOP
+            EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', fk.rel, fk.conname);
+        END LOOP;
+
+        -- Secondary indexes (db/migration) are rebuilt on the partitioned table once the rows are in
+        SELECT coalesce(array_agg(indexdef), '{}') INTO index_defs FROM pg_indexes
+                WHERE schemaname = current_schema() AND tablename = spec.tbl AND indexdef NOT LIKE 'CREATE UNIQUE%';
+
+        EXECUTE format('ALTER TABLE %I RENAME TO %I', spec.tbl, spec.tbl || '_unpartitioned');
+        EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS) PARTITION BY RANGE (%I)',
+                spec.tbl, spec.tbl || '_unpartitioned', spec.col);
+
+        -- The old identity sequence belongs to the old table; ids continue from a new one
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I', spec.tbl || '_pk_seq');
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', spec.tbl, spec.tbl || '_pk_seq');
+        EXECUTE format('ALTER SEQUENCE %I OWNED BY %I.id', spec.tbl || '_pk_seq', spec.tbl);
+        EXECUTE format('ALTER TABLE %I ADD PRIMARY KEY (id, %I)', spec.tbl, spec.col);
+
+        -- Catches rows without a creation time and months nobody created a partition for
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I DEFAULT', spec.tbl || '_default', spec.tbl);
+
+        EXECUTE format('SELECT date_trunc(''month'', min(%I))::date, max(id) FROM %I', spec.col, spec.tbl || '_unpartitioned')
+                INTO month_start, max_id;
+        month_start := coalesce(month_start, date_trunc('month', now())::date);
+        last_month := (date_trunc('month', now()) + interval '3 months')::date;
+        WHILE month_start <= last_month LOOP
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                    spec.tbl || '_p' || to_char(month_start, 'YYYYMM'), spec.tbl,
+                    month_start, (month_start + interval '1 month')::date);
+            month_start := (month_start + interval '1 month')::date;
+        END LOOP;
+
+        EXECUTE format('INSERT INTO %I SELECT * FROM %I', spec.tbl, spec.tbl || '_unpartitioned');
+        PERFORM setval(spec.tbl || '_pk_seq', coalesce(max_id, 0) + 1, false);
+        EXECUTE format('DROP TABLE %I', spec.tbl || '_unpartitioned');
+        FOREACH index_def IN ARRAY index_defs LOOP
+            EXECUTE index_def;
+        END LOOP;
+
+        RAISE NOTICE 'Partitioned % by %', spec.tbl, spec.col;
+    END LOOP;
+END $$;
@@ -1,5 +1,6 @@
 package com.example.notification.controller;
 
+import com.example.notification.dto.CursorPage;
 import com.example.notification.dto.NotificationRequest;
 import com.example.notification.dto.NotificationResponse;
 import com.example.notification.enums.NotificationChannel;
@@ -21,6 +22,7 @@ import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -70,17 +72,18 @@ class NotificationControllerTest {
         // Given
         String userId = "user123";
         List<NotificationResponse> scheduledNotifications = Arrays.asList(testNotification);
-        when(notificationService.getScheduledNotifications(userId)).thenReturn(scheduledNotifications);
+        when(notificationService.getScheduledNotifications(eq(userId), isNull(), isNull()))
+                .thenReturn(new CursorPage<>(scheduledNotifications, null, false));
 
         // When & Then
         mockMvc.perform(get("/api/notifications/user/scheduled/{userId}", userId))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$[0].id").value(1))
-                .andExpect(jsonPath("$[0].userId").value("user123"))
-                .andExpect(jsonPath("$[0].title").value("Test Notification"))
-                .andExpect(jsonPath("$[0].status").value("SCHEDULED"))
-                .andExpect(jsonPath("$[0].scheduled").value(true));
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.items[0].userId").value("user123"))
+                .andExpect(jsonPath("$.items[0].title").value("Test Notification"))
+                .andExpect(jsonPath("$.items[0].status").value("SCHEDULED"))
+                .andExpect(jsonPath("$.items[0].scheduled").value(true));
     }
 
     @Test
@@ -132,14 +135,15 @@ class NotificationControllerTest {
         // Given
         String userId = "user123";
         List<NotificationResponse> allNotifications = Arrays.asList(testNotification);
-        when(notificationService.getAllUserNotifications(userId)).thenReturn(allNotifications);
+        when(notificationService.getAllUserNotifications(eq(userId), isNull(), isNull()))
+                .thenReturn(new CursorPage<>(allNotifications, null, false));
 
         // When & Then
         mockMvc.perform(get("/api/notifications/user/all/{userId}", userId))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$[0].id").value(1))
-                .andExpect(jsonPath("$[0].userId").value("user123"));
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.items[0].userId").value("user123"));
     }
 
     @Test
@@ -147,13 +151,31 @@ class NotificationControllerTest {
         // Given
         String userId = "user123";
         List<NotificationResponse> sentNotifications = Arrays.asList(testNotification);
-        when(notificationService.getUserNotifications(userId)).thenReturn(sentNotifications);
+        when(notificationService.getUserNotifications(userId, "next-page", 1))
+                .thenReturn(new CursorPage<>(sentNotifications, "following-page", true));
 
         // When & Then
-        mockMvc.perform(get("/api/notifications/user/{userId}", userId))
+        mockMvc.perform(get("/api/notifications/user/{userId}", userId)
+                        .param("cursor", "next-page")
+                        .param("limit", "1"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$[0].id").value(1))
-                .andExpect(jsonPath("$[0].userId").value("user123"));
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.items[0].userId").value("user123"))
+                .andExpect(jsonPath("$.nextCursor").value("following-page"))
+                .andExpect(jsonPath("$.hasMore").value(true));
+    }
+
+    @Test
+    void testGetUserNotifications_InvalidCursor() throws Exception {
+        // Given
+        String userId = "user123";
+        when(notificationService.getUserNotifications(eq(userId), eq("garbage"), any()))
+                .thenThrow(new IllegalArgumentException("Invalid cursor: garbage"));
+
+        // When & Then
+        mockMvc.perform(get("/api/notifications/user/{userId}", userId)
+                        .param("cursor", "garbage"))
+                .andExpect(status().isBadRequest());
     }
 } 
\ No newline at end of file
@@ -0,0 +1,265 @@
+package com.example.notification.processor;
+
+import com.example.notification.entity.ChannelDeliveryState;
+import com.example.notification.entity.Notification;
+import com.example.notification.enums.NotificationChannel;
+import com.example.notification.enums.NotificationStatus;
+import com.example.notification.service.IdempotentConsumerService;
+import com.example.notification.service.RetrySweepService;
+import com.example.notification.service.StatusTransitionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MultiChannelDispatcherTest {
+
+    private NotificationProcessor pushProcessor;
+    private NotificationProcessor emailProcessor;
+    private NotificationProcessor inAppProcessor;
+    private StatusTransitionService statusTransitionService;
+    private IdempotentConsumerService idempotentConsumerService;
+    private MultiChannelDispatcher dispatcher;
+    private DeliveryCompletionExecutor completionExecutor;
+    private RetrySweepService retrySweepService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        retrySweepService = new RetrySweepService();
+        ReflectionTestUtils.setField(retrySweepService, "baseDelayMs", 30000L);
+        ReflectionTestUtils.setField(retrySweepService, "maxDelayMs", 600000L);
+        completionExecutor = new DeliveryCompletionExecutor();
+        ReflectionTestUtils.setField(completionExecutor, "threads", 2);
+        completionExecutor.init();
+        pushProcessor = processor(NotificationChannel.PUSH);
+        emailProcessor = processor(NotificationChannel.EMAIL);
+        inAppProcessor = processor(NotificationChannel.IN_APP);
+        statusTransitionService = mock(StatusTransitionService.class);
+        when(statusTransitionService.transition(anyLong(), any(), any(), anyString())).thenReturn(true);
+
+        dispatcher = new MultiChannelDispatcher(List.of(pushProcessor, emailProcessor, inAppProcessor));
+        ReflectionTestUtils.setField(dispatcher, "statusTransitionService", statusTransitionService);
+        idempotentConsumerService = mock(IdempotentConsumerService.class);
+        ReflectionTestUtils.setField(dispatcher, "idempotentConsumerService", idempotentConsumerService);
+        ReflectionTestUtils.setField(dispatcher, "completionExecutor", completionExecutor);
+        ReflectionTestUtils.setField(dispatcher, "retrySweepService", retrySweepService);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        completionExecutor.shutdown();
+    }
+
+    @Test
+    void testChannelsAreSentInParallel() throws Exception {
+        // Given
+        Notification notification = notification(NotificationChannel.PUSH, NotificationChannel.EMAIL, NotificationChannel.IN_APP);
+        for (NotificationProcessor processor : List.of(pushProcessor, emailProcessor, inAppProcessor)) {
+            when(processor.deliverAsync(notification)).thenAnswer(inv -> CompletableFuture.supplyAsync(() -> true,
+                    CompletableFuture.delayedExecutor(150, TimeUnit.MILLISECONDS)));
+        }
+
+        // When
+        long start = System.currentTimeMillis();
+        dispatcher.dispatch(notification).toCompletableFuture().get(2, TimeUnit.SECONDS);
+        long elapsed = System.currentTimeMillis() - start;
+
+        // Then
+        assertTrue(elapsed < 400, "Channels should overlap, took " + elapsed + "ms");
+        int allChannels = ChannelDeliveryState.maskOf(
+                EnumSet.of(NotificationChannel.PUSH, NotificationChannel.EMAIL, NotificationChannel.IN_APP));
+        verify(statusTransitionService).completeChannelDelivery(eq(1L), eq(allChannels), eq(0),
+                eq(NotificationStatus.SENT), eq(false), isNull(), isNull(), anyString());
+    }
+
+    @Test
+    void testPartialFailureRetriesWithFailedMask() throws Exception {
+        // Given
+        Notification notification = notification(NotificationChannel.PUSH, NotificationChannel.EMAIL);
+        when(pushProcessor.deliverAsync(notification)).thenReturn(CompletableFuture.completedFuture(true));
+        when(emailProcessor.deliverAsync(notification)).thenReturn(CompletableFuture.failedFuture(new RuntimeException("smtp down")));
+
+        // When
+        dispatcher.dispatch(notification).toCompletableFuture().get(2, TimeUnit.SECONDS);
+
+        // Then: PUSH is kept as delivered and the row stays retryable for EMAIL
+        verify(statusTransitionService).completeChannelDelivery(eq(1L),
+                eq(ChannelDeliveryState.maskOf(EnumSet.of(NotificationChannel.PUSH))),
+                eq(ChannelDeliveryState.maskOf(EnumSet.of(NotificationChannel.EMAIL))),
+                eq(NotificationStatus.RETRYING), eq(true), notNull(), anyString(), anyString());
+        verify(idempotentConsumerService, never()).recordHandled(anyLong());
+    }
+
+    @Test
+    void testRetrySendsOnlyUndeliveredChannels() throws Exception {
+        // Given: PUSH delivered on the first attempt
+        Notification notification = notification(NotificationChannel.PUSH, NotificationChannel.EMAIL);
+        notification.setStatus(NotificationStatus.RETRYING);
+        notification.setRetryCount(1);
+        notification.getDeliveryState().setDeliveredMask(ChannelDeliveryState.maskOf(EnumSet.of(NotificationChannel.PUSH)));
+        when(emailProcessor.deliverAsync(notification)).thenReturn(CompletableFuture.completedFuture(true));
+
+        // When
+        dispatcher.dispatch(notification).toCompletableFuture().get(2, TimeUnit.SECONDS);
+
+        // Then
+        verify(pushProcessor, never()).tryReserveInFlight();
+        verify(pushProcessor, never()).deliverAsync(any());
+        verify(statusTransitionService).completeChannelDelivery(eq(1L),
+                eq(ChannelDeliveryState.maskOf(EnumSet.of(NotificationChannel.PUSH, NotificationChannel.EMAIL))),
+                eq(0), eq(NotificationStatus.SENT), eq(false), isNull(), isNull(), anyString());
+    }
+
+    @Test
+    void testPartialFailureIsSentOnceRetriesAreExhausted() throws Exception {
+        // Given
+        Notification notification = notification(NotificationChannel.PUSH, NotificationChannel.EMAIL);
+        notification.setRetryCount(3);
+        when(pushProcessor.deliverAsync(notification)).thenReturn(CompletableFuture.completedFuture(true));
+        when(emailProcessor.deliverAsync(notification)).thenReturn(CompletableFuture.completedFuture(false));
+
+        // When
+        dispatcher.dispatch(notification).toCompletableFuture().get(2, TimeUnit.SECONDS);
+
+        // Then
+        verify(statusTransitionService).completeChannelDelivery(eq(1L),
+                eq(ChannelDeliveryState.maskOf(EnumSet.of(NotificationChannel.PUSH))),
+                eq(ChannelDeliveryState.maskOf(EnumSet.of(NotificationChannel.EMAIL))),
+                eq(NotificationStatus.SENT), eq(false), isNull(), anyString(), anyString());
+    }
+
+    @Test
+    void testAllChannelsFailingGoesToRetry() throws Exception {
+        // Given
+        Notification notification = notification(NotificationChannel.PUSH, NotificationChannel.EMAIL);
+        when(pushProcessor.deliverAsync(notification)).thenReturn(CompletableFuture.completedFuture(false));
+        when(emailProcessor.deliverAsync(notification)).thenReturn(CompletableFuture.completedFuture(false));
+
+        // When
+        dispatcher.dispatch(notification).toCompletableFuture().get(2, TimeUnit.SECONDS);
+
+        // Then
+        verify(statusTransitionService).completeChannelDelivery(eq(1L), eq(0), anyInt(),
+                eq(NotificationStatus.RETRYING), eq(true), notNull(), anyString(), anyString());
+    }
+
+    @Test
+    void testOutcomeIsRecordedOnCompletionPool() throws Exception {
+        // Given: the sends complete on the common pool, as the simulated providers do
+        Notification notification = notification(NotificationChannel.PUSH, NotificationChannel.EMAIL);
+        for (NotificationProcessor processor : List.of(pushProcessor, emailProcessor)) {
+            when(processor.deliverAsync(notification)).thenAnswer(inv -> CompletableFuture.supplyAsync(() -> true,
+                    CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS)));
+        }
+        AtomicReference<String> recordingThread = new AtomicReference<>();
+        when(statusTransitionService.completeChannelDelivery(anyLong(), anyInt(), anyInt(), any(), anyBoolean(), any(), any(), any()))
+                .thenAnswer(inv -> {
+                    recordingThread.set(Thread.currentThread().getName());
+                    return true;
+                });
+
+        // When
+        dispatcher.dispatch(notification).toCompletableFuture().get(2, TimeUnit.SECONDS);
+
+        // Then
+        assertTrue(recordingThread.get().startsWith("delivery-completion-"),
+                "Outcome recorded on " + recordingThread.get());
+    }
+
+    @Test
+    void testLostClaimSendsNothing() throws Exception {
+        // Given
+        Notification notification = notification(NotificationChannel.PUSH, NotificationChannel.EMAIL);
+        when(statusTransitionService.transition(anyLong(), any(), any(), anyString())).thenReturn(false);
+
+        // When
+        dispatcher.dispatch(notification).toCompletableFuture().get(2, TimeUnit.SECONDS);
+
+        // Then
+        verify(pushProcessor, never()).deliverAsync(any());
+        verify(emailProcessor, never()).deliverAsync(any());
+        verify(statusTransitionService, never()).completeChannelDelivery(anyLong(), anyInt(), anyInt(), any(),
+                anyBoolean(), any(), any(), any());
+        // The holder of the claim may still hand it back, so it must not be remembered as a duplicate
+        verify(idempotentConsumerService).recordClaimConflict(1L);
+        verify(pushProcessor).releaseInFlight();
+        verify(emailProcessor).releaseInFlight();
+        verify(idempotentConsumerService, never()).recordHandled(anyLong());
+    }
+
+    @Test
+    void testFullInFlightWindowDefersWithoutClaiming() throws Exception {
+        // Given
+        Notification notification = notification(NotificationChannel.PUSH, NotificationChannel.EMAIL);
+        when(pushProcessor.tryReserveInFlight()).thenReturn(false);
+
+        // When
+        dispatcher.dispatch(notification).toCompletableFuture().get(2, TimeUnit.SECONDS);
+
+        // Then: nothing sent, the slot already taken on EMAIL is given back, and the sweep will retry it
+        verify(statusTransitionService, never()).transition(anyLong(), any(), any(), anyString());
+        verify(emailProcessor, never()).deliverAsync(any());
+        verify(emailProcessor).releaseInFlight();
+        verify(pushProcessor, never()).releaseInFlight();
+        verify(statusTransitionService).deferRetry(eq(1L), eq(NotificationStatus.PENDING), anyString(),
+                any(LocalDateTime.class));
+    }
+
+    @Test
+    void testInFlightSlotsAreReleasedWhenSendsFinish() throws Exception {
+        // Given
+        Notification notification = notification(NotificationChannel.PUSH, NotificationChannel.EMAIL);
+        when(pushProcessor.deliverAsync(notification)).thenReturn(CompletableFuture.completedFuture(true));
+        when(emailProcessor.deliverAsync(notification)).thenReturn(CompletableFuture.failedFuture(new RuntimeException("down")));
+
+        // When
+        dispatcher.dispatch(notification).toCompletableFuture().get(2, TimeUnit.SECONDS);
+
+        // Then
+        verify(pushProcessor).releaseInFlight();
+        verify(emailProcessor).releaseInFlight();
+    }
+
+    @Test
+    void testOnlyRecordedSendIsRememberedAsHandled() throws Exception {
+        // Given
+        Notification notification = notification(NotificationChannel.PUSH, NotificationChannel.EMAIL);
+        when(pushProcessor.deliverAsync(notification)).thenReturn(CompletableFuture.completedFuture(true));
+        when(emailProcessor.deliverAsync(notification)).thenReturn(CompletableFuture.completedFuture(true));
+        when(statusTransitionService.completeChannelDelivery(anyLong(), anyInt(), anyInt(), any(), anyBoolean(), any(), any(), any()))
+                .thenReturn(true);
+
+        // When
+        dispatcher.dispatch(notification).toCompletableFuture().get(2, TimeUnit.SECONDS);
+
+        // Then
+        verify(idempotentConsumerService).recordHandled(1L);
+    }
+
+    private NotificationProcessor processor(NotificationChannel channel) throws InterruptedException {
+        NotificationProcessor processor = mock(NotificationProcessor.class);
+        when(processor.getChannel()).thenReturn(channel);
+        when(processor.tryReserveInFlight()).thenReturn(true);
+        return processor;
+    }
+
+    private Notification notification(NotificationChannel... channels) {
+        Notification notification = new Notification();
+        notification.setId(1L);
+        notification.setChannel(channels[0]);
+        notification.setStatus(NotificationStatus.PENDING);
+        notification.setDeliveryState(new ChannelDeliveryState(List.of(channels)));
+        return notification;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.notification.processor;
+
+import com.example.notification.entity.Notification;
+import com.example.notification.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class PushBatchSenderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+    private HttpServer gateway;
+    private UserRepository userRepository;
+    private PushBatchSender sender;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Local stand-in for the push gateway: tokens starting with "bad" are unregistered
+        gateway = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        gateway.createContext("/batch", exchange -> {
+            JsonNode messages = objectMapper.readTree(exchange.getRequestBody()).path("messages");
+            batchSizes.add(messages.size());
+            ObjectNode response = objectMapper.createObjectNode();
+            ArrayNode results = response.putArray("results");
+            for (JsonNode message : messages) {
+                if (message.path("token").asText().startsWith("bad")) {
+                    results.addObject().put("success", false).put("error", "UNREGISTERED");
+                } else {
+                    results.addObject().put("success", true);
+                }
+            }
+            byte[] body = objectMapper.writeValueAsString(response).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        gateway.start();
+
+        userRepository = mock(UserRepository.class);
+        when(userRepository.clearFcmTokens(anyCollection())).thenAnswer(inv -> ((Collection<?>) inv.getArgument(0)).size());
+
+        sender = new PushBatchSender();
+        ReflectionTestUtils.setField(sender, "userRepository", userRepository);
+        ReflectionTestUtils.setField(sender, "gatewayUrl", "http://localhost:" + gateway.getAddress().getPort() + "/batch");
+        ReflectionTestUtils.setField(sender, "lingerMs", 50L);
+        ReflectionTestUtils.setField(sender, "maxBatchSize", 500);
+        ReflectionTestUtils.setField(sender, "requestTimeoutMs", 5000L);
+        sender.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sender.stop();
+        gateway.stop(0);
+    }
+
+    @Test
+    void testCoalescesConcurrentPushesIntoOneBatch() throws Exception {
+        // Given
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            results.add(sender.submit("token" + i, notification(i)));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertTrue(results.stream().allMatch(CompletableFuture::join));
+        assertEquals(20, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.size() < 20, "Pushes should be coalesced, got batches " + batchSizes);
+        verify(userRepository, never()).clearFcmTokens(anyCollection());
+    }
+
+    @Test
+    void testMapsPerTokenResultsAndPrunesInvalidTokens() throws Exception {
+        // Given
+        CompletableFuture<Boolean> good = sender.submit("token1", notification(1));
+        CompletableFuture<Boolean> bad = sender.submit("bad-token", notification(2));
+
+        // When
+        boolean goodResult = good.get(5, TimeUnit.SECONDS);
+        ExecutionException badResult = assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+
+        // Then: the rejected token is a recipient miss, not a failed gateway call
+        assertTrue(goodResult);
+        assertInstanceOf(RecipientUnavailableException.class, badResult.getCause());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<String>> pruned = ArgumentCaptor.forClass(Collection.class);
+        verify(userRepository, timeout(1000)).clearFcmTokens(pruned.capture());
+        assertEquals(List.of("bad-token"), new ArrayList<>(pruned.getValue()));
+    }
+
+    @Test
+    void testFullBatchIsSentWithoutWaitingForLinger() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(sender, "maxBatchSize", 10);
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 25; i++) {
+            results.add(sender.submit("token" + i, notification(i)));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 10), "Batches exceeded limit: " + batchSizes);
+        assertEquals(25, batchSizes.stream().mapToInt(Integer::intValue).sum());
+    }
+
+    private Notification notification(long id) {
+        Notification notification = new Notification();
+        notification.setId(id);
+        notification.setTitle("Title " + id);
+        notification.setMessage("Message " + id);
+        return notification;
+    }
+}
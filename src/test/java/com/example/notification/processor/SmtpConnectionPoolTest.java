@@ -0,0 +1,108 @@
+package com.example.notification.processor;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.Message;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SmtpConnectionPoolTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private SmtpConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new SmtpConnectionPool();
+        ReflectionTestUtils.setField(pool, "host", "localhost");
+        ReflectionTestUtils.setField(pool, "port", ServerSetupTest.SMTP.getPort());
+        ReflectionTestUtils.setField(pool, "username", "");
+        ReflectionTestUtils.setField(pool, "password", "");
+        ReflectionTestUtils.setField(pool, "poolSize", 2);
+        ReflectionTestUtils.setField(pool, "maxMessagesPerConnection", 1000);
+        ReflectionTestUtils.setField(pool, "borrowTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(pool, "validateAfterIdleMs", 30000L);
+        pool.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void testReusesConnectionsAcrossMessages() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            pool.send(message("user" + i + "@example.com", "Message " + i));
+        }
+
+        assertEquals(10, greenMail.getReceivedMessages().length);
+        assertEquals(1, pool.getConnectionsOpened());
+        assertEquals(1, pool.getOpenConnections());
+    }
+
+    @Test
+    void testRecyclesConnectionAfterMessageLimit() throws Exception {
+        ReflectionTestUtils.setField(pool, "maxMessagesPerConnection", 3);
+
+        for (int i = 0; i < 7; i++) {
+            pool.send(message("user@example.com", "Message " + i));
+        }
+
+        assertEquals(7, greenMail.getReceivedMessages().length);
+        assertEquals(3, pool.getConnectionsOpened());
+    }
+
+    @Test
+    void testThroughputPerConnection() throws Exception {
+        int messages = 500;
+        int connections = 2;
+        ExecutorService senders = Executors.newFixedThreadPool(connections);
+
+        long start = System.nanoTime();
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < messages; i++) {
+            MimeMessage message = message("user" + i + "@example.com", "Message " + i);
+            results.add(senders.submit(() -> {
+                pool.send(message);
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        senders.shutdown();
+
+        System.out.printf("SMTP pool: %d messages over %d connections, %.0f msg/s per connection%n",
+                messages, pool.getConnectionsOpened(), messages / seconds / pool.getConnectionsOpened());
+
+        assertEquals(messages, greenMail.getReceivedMessages().length);
+        assertTrue(pool.getConnectionsOpened() <= connections);
+    }
+
+    private MimeMessage message(String to, String subject) throws Exception {
+        MimeMessage message = new MimeMessage(pool.getSession());
+        message.setFrom(new InternetAddress("no-reply@example.com"));
+        message.setRecipient(Message.RecipientType.TO, new InternetAddress(to));
+        message.setSubject(subject);
+        message.setText("Body of " + subject);
+        message.saveChanges();
+        return message;
+    }
+}
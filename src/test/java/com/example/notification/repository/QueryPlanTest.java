@@ -0,0 +1,439 @@
+package com.example.notification.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the migrations into a scratch schema of the local Postgres and checks that every repository
+ * query can be answered from an index. Each statement is PREPAREd with bind parameters and explained
+ * with plan_cache_mode = force_generic_plan, which is the plan a server-prepared statement ends up
+ * reusing, so a predicate that only an inlined literal makes indexable shows up as a failure.
+ * Sequential scans are disabled for the session, so a plan that still contains one means no index
+ * serves the query.
+ * <p>
+ * Native queries are taken from their @Query annotations. Derived and JPQL queries are checked against
+ * the SQL Hibernate generates for them, kept below next to the JPQL it was written from; a changed
+ * annotation or a new repository method fails the test until its SQL here is updated.
+ * <p>
+ * Skipped when no Postgres is reachable (PLAN_TEST_DB_URL / PLAN_TEST_DB_USER / PLAN_TEST_DB_PASSWORD),
+ * unless PLAN_TEST_REQUIRED=true, in which case a missing database fails the build.
+ */
+class QueryPlanTest {
+
+    private static final String SCHEMA = "query_plan_check";
+
+    private static final String URL = System.getenv().getOrDefault("PLAN_TEST_DB_URL", "jdbc:postgresql://localhost:5432/testdb");
+    private static final String USER = System.getenv().getOrDefault("PLAN_TEST_DB_USER", "myuser");
+    private static final String PASSWORD = System.getenv().getOrDefault("PLAN_TEST_DB_PASSWORD", "mypass");
+    private static final boolean REQUIRED = Boolean.parseBoolean(System.getenv("PLAN_TEST_REQUIRED"));
+
+    private static final List<Class<?>> REPOSITORIES = List.of(NotificationRepository.class,
+            NotificationAuditRepository.class, NotificationSeriesRepository.class, UserRepository.class);
+
+    private static final Pattern IN_LIST_PARAMETER = Pattern.compile("(?i)\\bIN\\s+:(\\w+)");
+    private static final Pattern NAMED_PARAMETER = Pattern.compile("(?<!:):(\\w+)");
+    private static final Pattern POSITIONAL_PARAMETER = Pattern.compile("\\$(\\d+)");
+
+    private static final String VIEW_COLUMNS = "select n1_0.id,n1_0.user_id,n1_0.title,n1_0.message,n1_0.priority," +
+            "n1_0.channel,n1_0.status,n1_0.created_at,n1_0.scheduled_at,n1_0.sent_at,n1_0.expires_at," +
+            "n1_0.channel_mask,n1_0.delivered_mask,n1_0.failed_mask from notifications n1_0 ";
+
+    // SQL Hibernate issues for the derived and JPQL queries (collection parameters bound as one element)
+    private static final List<HibernateQuery> HIBERNATE_QUERIES = List.of(
+            new HibernateQuery(NotificationRepository.class, "findViewById", 1,
+                    NotificationRepository.VIEW_SELECT + "WHERE n.id = :id",
+                    VIEW_COLUMNS + "where n1_0.id=$1"),
+            new HibernateQuery(NotificationRepository.class, "findViewByIdAndUserId", 2,
+                    NotificationRepository.VIEW_SELECT + "WHERE n.id = :id AND n.userId = :userId",
+                    VIEW_COLUMNS + "where n1_0.id=$1 and n1_0.user_id=$2"),
+            new HibernateQuery(NotificationRepository.class, "existsByIdAndUserId", 2, null,
+                    "select n1_0.id from notifications n1_0 where n1_0.id=$1 and n1_0.user_id=$2 fetch first 1 rows only"),
+            new HibernateQuery(NotificationRepository.class, "findByUserIdAndStatus", 2, null,
+                    "select n1_0.* from notifications n1_0 where n1_0.user_id=$1 and n1_0.status=$2"),
+            new HibernateQuery(NotificationRepository.class, "findByUserIdOrderByCreatedAtDesc", 1, null,
+                    "select n1_0.* from notifications n1_0 where n1_0.user_id=$1 order by n1_0.created_at desc"),
+            new HibernateQuery(NotificationRepository.class, "findUserPage", 4,
+                    NotificationRepository.VIEW_SELECT + "WHERE n.userId = :userId AND n.createdAt <= :beforeCreatedAt " +
+                            "AND (n.createdAt < :beforeCreatedAt OR n.id < :beforeId) ORDER BY n.createdAt DESC, n.id DESC",
+                    VIEW_COLUMNS + "where n1_0.user_id=$1 and n1_0.created_at<=$2 and (n1_0.created_at<$3 or n1_0.id<$4) " +
+                            "order by n1_0.created_at desc,n1_0.id desc fetch first $5 rows only"),
+            new HibernateQuery(NotificationRepository.class, "findUserPageByStatus", 5,
+                    NotificationRepository.VIEW_SELECT + "WHERE n.userId = :userId AND n.status = :status " +
+                            "AND n.createdAt <= :beforeCreatedAt AND (n.createdAt < :beforeCreatedAt OR n.id < :beforeId) " +
+                            "ORDER BY n.createdAt DESC, n.id DESC",
+                    VIEW_COLUMNS + "where n1_0.user_id=$1 and n1_0.status=$2 and n1_0.created_at<=$3 " +
+                            "and (n1_0.created_at<$4 or n1_0.id<$5) order by n1_0.created_at desc,n1_0.id desc fetch first $6 rows only"),
+            new HibernateQuery(NotificationRepository.class, "findIdsBySeriesIdAndStatus", 2,
+                    "SELECT n.id FROM Notification n WHERE n.seriesId = :seriesId AND n.status = :status",
+                    "select n1_0.id from notifications n1_0 where n1_0.series_id=$1 and n1_0.status=$2"),
+            new HibernateQuery(NotificationRepository.class, "findPendingNotificationsByPriority", 2,
+                    "SELECT n FROM Notification n WHERE n.status = :status AND n.scheduledAt <= :now ORDER BY n.priority, n.createdAt",
+                    "select n1_0.* from notifications n1_0 where n1_0.status=$1 and n1_0.scheduled_at<=$2 " +
+                            "order by n1_0.priority,n1_0.created_at"),
+            new HibernateQuery(NotificationRepository.class, "findByStatusAndRetryCountLessThan", 2, null,
+                    "select n1_0.* from notifications n1_0 where n1_0.status=$1 and n1_0.retry_count<$2"),
+            new HibernateQuery(NotificationRepository.class, "findScheduledNotificationsPastDue", 2,
+                    "SELECT n FROM Notification n WHERE n.status = :status AND n.scheduledAt <= :now",
+                    "select n1_0.* from notifications n1_0 where n1_0.status=$1 and n1_0.scheduled_at<=$2"),
+            new HibernateQuery(NotificationRepository.class, "countByStatus", 1, null,
+                    "select count(n1_0.id) from notifications n1_0 where n1_0.status=$1"),
+            new HibernateQuery(NotificationRepository.class, "findScheduledNotificationsBetween", 3,
+                    "SELECT n FROM Notification n WHERE n.status = :status AND n.scheduledAt BETWEEN :startTime AND :endTime ORDER BY n.scheduledAt",
+                    "select n1_0.* from notifications n1_0 where n1_0.status=$1 and n1_0.scheduled_at between $2 and $3 " +
+                            "order by n1_0.scheduled_at"),
+            new HibernateQuery(NotificationRepository.class, "findScheduledNotificationsBetween", 5,
+                    "SELECT n FROM Notification n WHERE n.status = :status AND n.scheduledAt <= :endTime " +
+                            "AND (n.scheduledAt > :afterTime OR (n.scheduledAt = :afterTime AND n.id > :afterId)) " +
+                            "ORDER BY n.scheduledAt, n.id",
+                    "select n1_0.* from notifications n1_0 where n1_0.status=$1 and n1_0.scheduled_at<=$2 " +
+                            "and (n1_0.scheduled_at>$3 or (n1_0.scheduled_at=$4 and n1_0.id>$5)) " +
+                            "order by n1_0.scheduled_at,n1_0.id fetch first $6 rows only"),
+            new HibernateQuery(NotificationRepository.class, "findExpiredIds", 3,
+                    "SELECT n.id FROM Notification n WHERE n.status IN :statuses AND n.expiresAt < :now ORDER BY n.id",
+                    "select n1_0.id from notifications n1_0 where n1_0.status in ($1) and n1_0.expires_at<$2 " +
+                            "order by n1_0.id fetch first $3 rows only"),
+            new HibernateQuery(NotificationRepository.class, "updatePriorityForIds", 2,
+                    "UPDATE Notification n SET n.priority = :priority WHERE n.id IN :ids",
+                    "update notifications set priority=$1 where id in ($2)"),
+            new HibernateQuery(NotificationRepository.class, "findDueRetryIds", 2,
+                    "SELECT n.id FROM Notification n WHERE n.status = com.example.notification.enums.NotificationStatus.RETRYING " +
+                            "AND n.retryAt <= :now ORDER BY n.retryAt, n.id",
+                    "select n1_0.id from notifications n1_0 where n1_0.status='RETRYING' and n1_0.retry_at<=$1 " +
+                            "order by n1_0.retry_at,n1_0.id fetch first $2 rows only"),
+            new HibernateQuery(NotificationRepository.class, "findAbandonedClaimIds", 2,
+                    "SELECT n.id FROM Notification n WHERE n.status = com.example.notification.enums.NotificationStatus.PROCESSING " +
+                            "AND (n.processingStartedAt IS NULL OR n.processingStartedAt < :claimedBefore) ORDER BY n.id",
+                    "select n1_0.id from notifications n1_0 where n1_0.status='PROCESSING' " +
+                            "and (n1_0.processing_started_at is null or n1_0.processing_started_at<$1) " +
+                            "order by n1_0.id fetch first $2 rows only"),
+            new HibernateQuery(NotificationRepository.class, "findByStatusIn", 1,
+                    "SELECT n FROM Notification n WHERE n.status IN :statuses ORDER BY n.createdAt DESC",
+                    "select n1_0.* from notifications n1_0 where n1_0.status in ($1) order by n1_0.created_at desc"),
+            new HibernateQuery(NotificationRepository.class, "findByUserIdAndPriorityOrderByCreatedAtDesc", 2, null,
+                    "select n1_0.* from notifications n1_0 where n1_0.user_id=$1 and n1_0.priority=$2 " +
+                            "order by n1_0.created_at desc"),
+            new HibernateQuery(NotificationRepository.class, "findNotificationsBetweenDates", 2,
+                    "SELECT n FROM Notification n WHERE n.createdAt BETWEEN :startTime AND :endTime ORDER BY n.createdAt DESC",
+                    "select n1_0.* from notifications n1_0 where n1_0.created_at between $1 and $2 order by n1_0.created_at desc"),
+            new HibernateQuery(NotificationRepository.class, "countByStatusAndDateRange", 3,
+                    "SELECT COUNT(n) FROM Notification n WHERE n.status = :status AND n.createdAt BETWEEN :startTime AND :endTime",
+                    "select count(n1_0.id) from notifications n1_0 where n1_0.status=$1 and n1_0.created_at between $2 and $3"),
+            new HibernateQuery(NotificationRepository.class, "findFailedNotificationsExceedingRetries", 1,
+                    "SELECT n FROM Notification n WHERE n.status = 'FAILED' AND n.retryCount >= :maxRetries ORDER BY n.createdAt DESC",
+                    "select n1_0.* from notifications n1_0 where n1_0.status='FAILED' and n1_0.retry_count>=$1 " +
+                            "order by n1_0.created_at desc"),
+
+            new HibernateQuery(NotificationAuditRepository.class, "findByNotificationIdOrderByTimestampDesc", 1, null,
+                    "select n1_0.* from notification_audit n1_0 where n1_0.notification_id=$1 order by n1_0.timestamp desc"),
+            new HibernateQuery(NotificationAuditRepository.class, "findByUserIdOrderByTimestampDesc", 1, null,
+                    "select n1_0.* from notification_audit n1_0 where n1_0.user_id=$1 order by n1_0.timestamp desc"),
+            new HibernateQuery(NotificationAuditRepository.class, "findNotificationTrailPage", 4,
+                    "SELECT a FROM NotificationAudit a WHERE a.notificationId = :notificationId AND a.timestamp <= :beforeTimestamp " +
+                            "AND (a.timestamp < :beforeTimestamp OR a.id < :beforeId) ORDER BY a.timestamp DESC, a.id DESC",
+                    "select a1_0.* from notification_audit a1_0 where a1_0.notification_id=$1 and a1_0.timestamp<=$2 " +
+                            "and (a1_0.timestamp<$3 or a1_0.id<$4) order by a1_0.timestamp desc,a1_0.id desc fetch first $5 rows only"),
+            new HibernateQuery(NotificationAuditRepository.class, "findUserTrailPage", 4,
+                    "SELECT a FROM NotificationAudit a WHERE a.userId = :userId AND a.timestamp <= :beforeTimestamp " +
+                            "AND (a.timestamp < :beforeTimestamp OR a.id < :beforeId) ORDER BY a.timestamp DESC, a.id DESC",
+                    "select a1_0.* from notification_audit a1_0 where a1_0.user_id=$1 and a1_0.timestamp<=$2 " +
+                            "and (a1_0.timestamp<$3 or a1_0.id<$4) order by a1_0.timestamp desc,a1_0.id desc fetch first $5 rows only"),
+
+            new HibernateQuery(NotificationSeriesRepository.class, "findByUserIdAndActiveTrue", 1, null,
+                    "select n1_0.* from notification_series n1_0 where n1_0.user_id=$1 and n1_0.active=true"),
+            new HibernateQuery(NotificationSeriesRepository.class, "countByActiveTrue", 0, null,
+                    "select count(n1_0.id) from notification_series n1_0 where n1_0.active=true"),
+
+            new HibernateQuery(UserRepository.class, "findUserTypeByUserId", 1,
+                    "SELECT u.userType FROM User u WHERE u.userId = :userId",
+                    "select u1_0.user_type from users u1_0 where u1_0.user_id=$1"),
+            new HibernateQuery(UserRepository.class, "clearFcmTokens", 1,
+                    "UPDATE User u SET u.fcmToken = NULL WHERE u.fcmToken IN :tokens",
+                    "update users set fcm_token=null where fcm_token in ($1)")
+    );
+
+    // findByFilterAfterId metadata criteria and the index each one must be able to use
+    private static final Map<String, String> METADATA_PREDICATES = Map.of(
+            "n.metadata @> jsonb_build_object('campaignId', CAST(:campaignId AS varchar))",
+            "idx_notifications_metadata",
+            "notification_metadata_keys(n.metadata) @> ARRAY[CAST(:tagKey AS text)]",
+            "idx_notifications_metadata_keys",
+            "n.metadata @> jsonb_build_object(CAST(:tagKey AS varchar), CAST(:tagValue AS varchar))",
+            "idx_notifications_metadata"
+    );
+
+    private static Connection connection;
+    private static String skipReason;
+
+    @BeforeAll
+    static void migrateAndSeed() throws SQLException {
+        try {
+            connection = DriverManager.getConnection(URL, USER, PASSWORD);
+        } catch (SQLException e) {
+            if (REQUIRED) {
+                fail("PLAN_TEST_REQUIRED is set but Postgres is not reachable at " + URL + ": " + e.getMessage());
+            }
+            skipReason = "No local Postgres for query plan checks: " + e.getMessage();
+            return;
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+        Flyway.configure()
+                .dataSource(URL, USER, PASSWORD)
+                .schemas(SCHEMA)
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET search_path TO " + SCHEMA);
+            statement.execute("INSERT INTO notifications (user_id, title, status, priority, channel, created_at, " +
+                    "scheduled_at, retry_count, expires_at, processing_started_at, retry_at, series_id, metadata) " +
+                    "SELECT 'user-' || (i % 500), 'title', " +
+                    "(ARRAY['PENDING','SCHEDULED','PROCESSING','SENT','FAILED','RETRYING'])[1 + i % 6], 'MEDIUM', 'EMAIL', " +
+                    "now() - (i || ' minutes')::interval, now() + ((i % 100) || ' minutes')::interval, i % 4, " +
+                    "CASE WHEN i % 10 = 0 THEN now() + interval '1 day' END, " +
+                    "CASE WHEN i % 6 = 2 THEN now() - interval '1 hour' END, " +
+                    "CASE WHEN i % 6 = 5 THEN now() + ((i % 30) || ' seconds')::interval END, " +
+                    "CASE WHEN i % 20 = 0 THEN i % 200 END, " +
+                    "jsonb_build_object('campaignId', 'campaign-' || (i % 50)) " +
+                    "  || CASE WHEN i % 7 = 0 THEN jsonb_build_object('segment', 'segment-' || (i % 3)) ELSE '{}' END " +
+                    "FROM generate_series(1, 20000) AS i");
+            statement.execute("INSERT INTO notification_audit (notification_id, user_id, previous_status, new_status, timestamp, details) " +
+                    "SELECT i, 'user-' || (i % 500), 0, 2, now() - (i || ' seconds')::interval, 'details' " +
+                    "FROM generate_series(1, 20000) AS i");
+            statement.execute("INSERT INTO users (user_id, email, fcm_token) " +
+                    "SELECT 'user-' || i, 'user' || i || '@example.com', 'token-' || i FROM generate_series(1, 500) AS i");
+            statement.execute("INSERT INTO notification_series (user_id, title, priority, channel, cron_expression, " +
+                    "next_fire_at, active, occurrence_count, created_at) " +
+                    "SELECT 'user-' || (i % 500), 'title', 'MEDIUM', 'EMAIL', '0 0 9 * * *', " +
+                    "now() + ((i % 1440) || ' minutes')::interval, i % 10 <> 0, 0, now() " +
+                    "FROM generate_series(1, 2000) AS i");
+            statement.execute("ANALYZE");
+            statement.execute("SET enable_seqscan = off");
+            statement.execute("SET plan_cache_mode = force_generic_plan");
+        }
+    }
+
+    @AfterAll
+    static void dropSchema() throws SQLException {
+        if (connection == null) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Test
+    void testEveryRepositoryQueryIsChecked() {
+        // Given / When
+        List<String> unchecked = new ArrayList<>();
+        for (Class<?> repository : REPOSITORIES) {
+            for (Method method : repository.getDeclaredMethods()) {
+                if (!isNative(method) && findHibernateQuery(repository, method) == null) {
+                    unchecked.add(repository.getSimpleName() + "." + method.getName()
+                            + "(" + method.getParameterCount() + " parameters)");
+                }
+            }
+        }
+
+        // Then
+        assertTrue(unchecked.isEmpty(), "No query plan check for " + unchecked
+                + "; add the SQL Hibernate generates for it to HIBERNATE_QUERIES");
+    }
+
+    @Test
+    void testHibernateQueriesMatchTheirRepositoryMethods() throws NoSuchMethodException {
+        for (HibernateQuery query : HIBERNATE_QUERIES) {
+            // Given
+            Method method = findMethod(query);
+
+            // When
+            Query annotation = method.getAnnotation(Query.class);
+
+            // Then: the SQL above was written from this JPQL; when it changes, the SQL has to follow
+            assertEquals(query.jpql, annotation == null ? null : annotation.value(),
+                    query.name() + " changed; update its SQL in HIBERNATE_QUERIES and re-check the plan");
+        }
+    }
+
+    @Test
+    void testNativeQueriesUseIndexes() throws SQLException {
+        assumeTrue(connection != null, skipReason);
+
+        for (Class<?> repository : REPOSITORIES) {
+            for (Method method : repository.getDeclaredMethods()) {
+                if (isNative(method)) {
+                    // Given: the statement exactly as annotated, with its parameters bound positionally
+                    String sql = nativeSql(method);
+
+                    // When
+                    String plan = explainGeneric(sql);
+
+                    // Then
+                    assertFalse(plan.contains("Seq Scan"),
+                            repository.getSimpleName() + "." + method.getName() + " regressed to a sequential scan:\n" + plan);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testHibernateQueriesUseIndexes() throws SQLException {
+        assumeTrue(connection != null, skipReason);
+
+        for (HibernateQuery query : HIBERNATE_QUERIES) {
+            // When
+            String plan = explainGeneric(query.sql);
+
+            // Then
+            assertFalse(plan.contains("Seq Scan"), query.name() + " regressed to a sequential scan:\n" + plan);
+        }
+    }
+
+    @Test
+    void testFilterMetadataCriteriaUseTheirIndexes() throws Exception {
+        assumeTrue(connection != null, skipReason);
+        String filterQuery = NotificationRepository.class.getMethod("findByFilterAfterId", String.class, Long.class,
+                String.class, Long.class, LocalDateTime.class, LocalDateTime.class, String.class,
+                String.class, String.class, Pageable.class).getAnnotation(Query.class).value();
+
+        for (Map.Entry<String, String> predicate : METADATA_PREDICATES.entrySet()) {
+            // Given: the criterion as findByFilterAfterId writes it, on its own
+            assertTrue(filterQuery.contains(predicate.getKey()),
+                    "findByFilterAfterId no longer contains " + predicate.getKey() + "; update METADATA_PREDICATES");
+
+            // When
+            String plan = explainGeneric(toPositional("SELECT n.id FROM notifications n WHERE " + predicate.getKey()));
+
+            // Then
+            assertTrue(plan.contains(predicate.getValue()),
+                    predicate.getKey() + " is not answered by " + predicate.getValue() + ":\n" + plan);
+        }
+    }
+
+    private static boolean isNative(Method method) {
+        Query annotation = method.getAnnotation(Query.class);
+        return annotation != null && annotation.nativeQuery();
+    }
+
+    private static HibernateQuery findHibernateQuery(Class<?> repository, Method method) {
+        for (HibernateQuery query : HIBERNATE_QUERIES) {
+            if (query.repository == repository && query.method.equals(method.getName())
+                    && query.parameterCount == method.getParameterCount()) {
+                return query;
+            }
+        }
+        return null;
+    }
+
+    private static Method findMethod(HibernateQuery query) throws NoSuchMethodException {
+        return Arrays.stream(query.repository.getDeclaredMethods())
+                .filter(method -> method.getName().equals(query.method)
+                        && method.getParameterCount() == query.parameterCount)
+                .findFirst()
+                .orElseThrow(() -> new NoSuchMethodException(query.name() + " no longer exists"));
+    }
+
+    // The native SQL as the driver receives it; a Pageable adds the row limit Hibernate appends
+    private static String nativeSql(Method method) {
+        String sql = toPositional(method.getAnnotation(Query.class).value());
+        if (Arrays.asList(method.getParameterTypes()).contains(Pageable.class)) {
+            sql += " fetch first $" + (parameterCount(sql) + 1) + " rows only";
+        }
+        return sql;
+    }
+
+    // Named parameters to $n, one per distinct name; a collection bound to IN becomes a one-element list
+    private static String toPositional(String sql) {
+        String expanded = IN_LIST_PARAMETER.matcher(sql).replaceAll("IN (:$1)");
+        Map<String, Integer> positions = new LinkedHashMap<>();
+        Matcher matcher = NAMED_PARAMETER.matcher(expanded);
+        StringBuilder positional = new StringBuilder();
+        while (matcher.find()) {
+            Integer position = positions.get(matcher.group(1));
+            if (position == null) {
+                position = positions.size() + 1;
+                positions.put(matcher.group(1), position);
+            }
+            matcher.appendReplacement(positional, Matcher.quoteReplacement("$" + position));
+        }
+        matcher.appendTail(positional);
+        return positional.toString();
+    }
+
+    private static int parameterCount(String sql) {
+        int count = 0;
+        Matcher matcher = POSITIONAL_PARAMETER.matcher(sql);
+        while (matcher.find()) {
+            count = Math.max(count, Integer.parseInt(matcher.group(1)));
+        }
+        return count;
+    }
+
+    // EXPLAIN without ANALYZE, so data-modifying statements are planned but not run
+    private String explainGeneric(String sql) throws SQLException {
+        String arguments = parameterCount(sql) == 0 ? ""
+                : "(" + String.join(", ", Collections.nCopies(parameterCount(sql), "NULL")) + ")";
+        StringBuilder plan = new StringBuilder();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PREPARE plan_check AS " + sql);
+            try (ResultSet rows = statement.executeQuery("EXPLAIN EXECUTE plan_check" + arguments)) {
+                while (rows.next()) {
+                    plan.append(rows.getString(1)).append('\n');
+                }
+            } finally {
+                statement.execute("DEALLOCATE plan_check");
+            }
+        }
+        return plan.toString();
+    }
+
+    private static final class HibernateQuery {
+        private final Class<?> repository;
+        private final String method;
+        private final int parameterCount;
+        private final String jpql;
+        private final String sql;
+
+        // jpql is null for derived queries
+        HibernateQuery(Class<?> repository, String method, int parameterCount, String jpql, String sql) {
+            this.repository = repository;
+            this.method = method;
+            this.parameterCount = parameterCount;
+            this.jpql = jpql;
+            this.sql = sql;
+        }
+
+        String name() {
+            return repository.getSimpleName() + "." + method;
+        }
+    }
+}
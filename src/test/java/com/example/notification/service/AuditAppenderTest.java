@@ -0,0 +1,162 @@
+package com.example.notification.service;
+
+import com.example.notification.entity.NotificationAudit;
+import com.example.notification.enums.NotificationStatus;
+import com.example.notification.repository.NotificationAuditRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AuditAppenderTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private NotificationAuditRepository auditRepository;
+    private AuditAppender auditAppender;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        auditRepository = mock(NotificationAuditRepository.class);
+
+        auditAppender = new AuditAppender();
+        ReflectionTestUtils.setField(auditAppender, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(auditAppender, "auditRepository", auditRepository);
+        ReflectionTestUtils.setField(auditAppender, "segmentedAuditLog", new SegmentedAuditLog());
+        ReflectionTestUtils.setField(auditAppender, "durability", AuditAppender.Durability.ASYNC);
+        ReflectionTestUtils.setField(auditAppender, "flushIntervalMs", 60000L); // Tests flush by hand
+        ReflectionTestUtils.setField(auditAppender, "batchSize", 100);
+        ReflectionTestUtils.setField(auditAppender, "bufferCapacity", 3);
+        ReflectionTestUtils.setField(auditAppender, "commitTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(auditAppender, "retryBackoffMs", 0L); // Retries are not held back unless a test asks
+        ReflectionTestUtils.setField(auditAppender, "maxRetryBackoffMs", 0L);
+        auditAppender.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        auditAppender.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testEntriesAreWrittenInOneBatch() {
+        // Given
+        for (long id = 1; id <= 3; id++) {
+            auditAppender.append(audit(id));
+        }
+        verifyNoInteractions(jdbcTemplate);
+
+        // When
+        auditAppender.flush();
+
+        // Then
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyCollection(), eq(3),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(3, auditAppender.getStats().getWritten());
+        assertEquals(0, auditAppender.getStats().getBuffered());
+    }
+
+    @Test
+    void testFullBufferFallsBackToDirectWrite() {
+        // Given
+        for (long id = 1; id <= 3; id++) {
+            auditAppender.append(audit(id));
+        }
+
+        // When
+        auditAppender.append(audit(4L));
+
+        // Then
+        verify(auditRepository, times(1)).save(any(NotificationAudit.class));
+        assertEquals(1, auditAppender.getStats().getOverflowWrites());
+        assertEquals(3, auditAppender.getStats().getBuffered());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFailedBatchIsRetried() {
+        // Given
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(new int[][]{{1, 1}});
+        auditAppender.append(audit(1L));
+        auditAppender.append(audit(2L));
+
+        // When
+        auditAppender.flush();
+        assertEquals(0, auditAppender.getStats().getWritten());
+        assertEquals(2, auditAppender.getStats().getBuffered());
+        auditAppender.flush();
+
+        // Then
+        assertEquals(2, auditAppender.getStats().getWritten());
+        assertEquals(0, auditAppender.getStats().getBuffered());
+        assertEquals(0, auditAppender.getStats().getDropped());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFailedBatchBacksOffAndFillsTheBuffer() {
+        // Given
+        ReflectionTestUtils.setField(auditAppender, "retryBackoffMs", 60000L);
+        ReflectionTestUtils.setField(auditAppender, "maxRetryBackoffMs", 60000L);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        auditAppender.append(audit(1L));
+        auditAppender.append(audit(2L));
+        auditAppender.flush();
+
+        // When
+        auditAppender.flush(); // Still backing off
+        auditAppender.append(audit(3L));
+        auditAppender.append(audit(4L));
+
+        // Then
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(3, auditAppender.getStats().getBuffered());
+        assertEquals(1, auditAppender.getStats().getOverflowWrites());
+        assertEquals(1, auditAppender.getStats().getFailedWrites());
+        assertEquals(0, auditAppender.getStats().getDropped());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGroupCommitReportsFailedWrite() {
+        // Given
+        ReflectionTestUtils.setField(auditAppender, "durability", AuditAppender.Durability.GROUP_COMMIT);
+        ReflectionTestUtils.setField(auditAppender, "batchSize", 1); // Written as soon as it is buffered
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        // When / Then
+        assertThrows(DataAccessResourceFailureException.class, () -> auditAppender.append(audit(1L)));
+        assertEquals(0, auditAppender.getStats().getWritten());
+    }
+
+    @Test
+    void testSyncModeWritesInCallersTransaction() {
+        // Given
+        ReflectionTestUtils.setField(auditAppender, "durability", AuditAppender.Durability.SYNC);
+
+        // When
+        auditAppender.append(audit(1L));
+
+        // Then
+        verify(auditRepository).save(any(NotificationAudit.class));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private NotificationAudit audit(Long notificationId) {
+        return new NotificationAudit(notificationId, "user-1", NotificationStatus.PENDING,
+                NotificationStatus.PROCESSING, "Processing started");
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.notification.service;
+
+import com.example.notification.enums.NotificationChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChannelBulkheadServiceTest {
+
+    private ChannelBulkheadService bulkheadService;
+
+    @BeforeEach
+    void setUp() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("notification.bulkhead.default.threads", "1")
+                .withProperty("notification.bulkhead.default.queue-capacity", "1");
+        bulkheadService = new ChannelBulkheadService();
+        ReflectionTestUtils.setField(bulkheadService, "environment", environment);
+        bulkheadService.createBulkheads();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkheadService.shutdown();
+    }
+
+    @Test
+    void testSaturatedBulkheadRejectsTask() throws Exception {
+        // Given: the only thread is busy and the queue is full
+        CountDownLatch release = new CountDownLatch(1);
+        assertTrue(bulkheadService.execute(NotificationChannel.EMAIL, () -> awaitQuietly(release)));
+        assertTrue(bulkheadService.execute(NotificationChannel.EMAIL, () -> { }));
+
+        // When
+        AtomicBoolean ran = new AtomicBoolean();
+        boolean accepted = bulkheadService.execute(NotificationChannel.EMAIL, () -> ran.set(true));
+        release.countDown();
+
+        // Then: the task was refused rather than run on the submitting thread
+        assertFalse(accepted);
+        assertFalse(ran.get());
+        assertEquals(1, bulkheadService.getBulkheadStats().get(NotificationChannel.EMAIL).getRejected());
+        assertEquals(0, bulkheadService.getBulkheadStats().get(NotificationChannel.SMS).getRejected());
+    }
+
+    @Test
+    void testTaskRunsOnBulkheadThreadWhenThereIsRoom() throws Exception {
+        // Given
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<String> threadName = new AtomicReference<>();
+
+        // When
+        boolean accepted = bulkheadService.execute(NotificationChannel.SMS, () -> {
+            threadName.set(Thread.currentThread().getName());
+            done.countDown();
+        });
+
+        // Then
+        assertTrue(accepted);
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertTrue(threadName.get().startsWith("bulkhead-sms-"));
+    }
+
+    private void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
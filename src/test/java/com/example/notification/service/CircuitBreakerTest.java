@@ -0,0 +1,80 @@
+package com.example.notification.service;
+
+import com.example.notification.enums.CircuitState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private AtomicLong clock;
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(0);
+        // window 10, min 4 calls, 50% failures, 50% slow (>= 1000ms), open 5s, 2 probes
+        breaker = new CircuitBreaker("SMS", 10, 4, 0.5, 0.5, 1000, 5000, 2, clock::get);
+    }
+
+    @Test
+    void testOpensOnFailureRate() {
+        breaker.onResult(true, 10);
+        breaker.onResult(false, 10);
+        breaker.onResult(true, 10);
+        assertEquals(CircuitState.CLOSED, breaker.getState());
+
+        breaker.onResult(false, 10);
+
+        assertEquals(CircuitState.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void testOpensOnSlowCallRate() {
+        for (int i = 0; i < 4; i++) {
+            breaker.onResult(true, i < 2 ? 10 : 1500);
+        }
+
+        assertEquals(CircuitState.OPEN, breaker.getState());
+    }
+
+    @Test
+    void testHalfOpenProbesCloseBreaker() {
+        tripBreaker();
+        clock.addAndGet(5000);
+
+        assertTrue(breaker.tryAcquirePermission());
+        assertEquals(CircuitState.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission()); // only two probes
+
+        breaker.onResult(true, 10);
+        breaker.onResult(true, 10);
+
+        assertEquals(CircuitState.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void testFailedProbeReopensBreaker() {
+        tripBreaker();
+        clock.addAndGet(5000);
+
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onResult(false, 10);
+
+        assertEquals(CircuitState.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    private void tripBreaker() {
+        for (int i = 0; i < 4; i++) {
+            breaker.onResult(false, 10);
+        }
+        assertEquals(CircuitState.OPEN, breaker.getState());
+    }
+}
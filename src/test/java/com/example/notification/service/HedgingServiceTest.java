@@ -0,0 +1,122 @@
+package com.example.notification.service;
+
+import com.example.notification.enums.NotificationChannel;
+import com.example.notification.enums.NotificationPriority;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgingServiceTest {
+
+    private HedgingService hedgingService;
+
+    @BeforeEach
+    void setUp() {
+        hedgingService = new HedgingService();
+        ReflectionTestUtils.setField(hedgingService, "enabled", true);
+        ReflectionTestUtils.setField(hedgingService, "hedgedChannels", List.of(NotificationChannel.PUSH));
+        ReflectionTestUtils.setField(hedgingService, "hedgedPriorities", List.of(NotificationPriority.CRITICAL));
+        ReflectionTestUtils.setField(hedgingService, "budgetPercent", 100.0);
+        ReflectionTestUtils.setField(hedgingService, "minDelayMs", 10L);
+        ReflectionTestUtils.setField(hedgingService, "windowSize", 100);
+        ReflectionTestUtils.setField(hedgingService, "minSamples", 10);
+        hedgingService.init();
+
+        // Observed p95 of 20ms
+        for (int i = 0; i < 100; i++) {
+            hedgingService.recordLatency(NotificationChannel.PUSH, 20);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        hedgingService.shutdown();
+    }
+
+    @Test
+    void testOnlyOptedInChannelsAndPrioritiesAreHedged() {
+        assertTrue(hedgingService.isHedged(NotificationChannel.PUSH, NotificationPriority.CRITICAL));
+        assertFalse(hedgingService.isHedged(NotificationChannel.PUSH, NotificationPriority.HIGH));
+        assertFalse(hedgingService.isHedged(NotificationChannel.SMS, NotificationPriority.CRITICAL));
+    }
+
+    @Test
+    void testSlowPrimaryIsHedgedAndFirstSuccessWins() throws Exception {
+        // Given
+        CompletableFuture<Boolean> slowPrimary = new CompletableFuture<>();
+
+        // When
+        boolean result = hedgingService.hedge(NotificationChannel.PUSH,
+                () -> slowPrimary,
+                () -> CompletableFuture.completedFuture(true)
+        ).toCompletableFuture().get(2, TimeUnit.SECONDS);
+
+        // Then
+        assertTrue(result);
+        assertTrue(slowPrimary.isCancelled());
+        HedgingService.HedgeStats stats = hedgingService.getHedgeStats().get(NotificationChannel.PUSH);
+        assertEquals(1, stats.getHedged());
+        assertEquals(1, stats.getHedgeWins());
+    }
+
+    @Test
+    void testFastPrimaryIsNotHedged() throws Exception {
+        // Given
+        AtomicInteger alternateCalls = new AtomicInteger();
+
+        // When
+        boolean result = hedgingService.hedge(NotificationChannel.PUSH,
+                () -> CompletableFuture.completedFuture(true),
+                () -> {
+                    alternateCalls.incrementAndGet();
+                    return CompletableFuture.completedFuture(true);
+                }
+        ).toCompletableFuture().get(2, TimeUnit.SECONDS);
+        Thread.sleep(50);
+
+        // Then
+        assertTrue(result);
+        assertEquals(0, alternateCalls.get());
+        assertEquals(0, hedgingService.getHedgeStats().get(NotificationChannel.PUSH).getHedged());
+    }
+
+    @Test
+    void testHedgesAreLimitedByBudget() throws Exception {
+        // Given - one hedge per 10 eligible sends
+        ReflectionTestUtils.setField(hedgingService, "budgetPercent", 10.0);
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            CompletableFuture<Boolean> slowPrimary = new CompletableFuture<>();
+            CompletableFuture.delayedExecutor(60, TimeUnit.MILLISECONDS).execute(() -> slowPrimary.complete(true));
+            hedgingService.hedge(NotificationChannel.PUSH,
+                    () -> slowPrimary,
+                    () -> new CompletableFuture<>()
+            ).toCompletableFuture().get(2, TimeUnit.SECONDS);
+        }
+
+        // Then
+        HedgingService.HedgeStats stats = hedgingService.getHedgeStats().get(NotificationChannel.PUSH);
+        assertEquals(20, stats.getEligible());
+        assertEquals(2, stats.getHedged());
+        assertEquals(18, stats.getBudgetExhausted());
+    }
+
+    @Test
+    void testFailureOfAllAttemptsIsReported() throws Exception {
+        boolean result = hedgingService.hedge(NotificationChannel.PUSH,
+                () -> CompletableFuture.completedFuture(false),
+                () -> CompletableFuture.completedFuture(true)
+        ).toCompletableFuture().get(2, TimeUnit.SECONDS);
+
+        assertFalse(result);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.notification.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotentConsumerServiceTest {
+
+    private IdempotentConsumerService idempotentConsumerService;
+
+    @BeforeEach
+    void setUp() {
+        idempotentConsumerService = new IdempotentConsumerService();
+        ReflectionTestUtils.setField(idempotentConsumerService, "recentIds", 1024);
+        idempotentConsumerService.init();
+    }
+
+    @Test
+    void testHandledNotificationIsReportedAsDuplicate() {
+        // Given
+        idempotentConsumerService.recordHandled(42L);
+
+        // When / Then
+        assertTrue(idempotentConsumerService.isDuplicate(42L));
+        assertFalse(idempotentConsumerService.isDuplicate(43L));
+        assertEquals(1, idempotentConsumerService.getStats().getDuplicatesSkipped());
+    }
+
+    @Test
+    void testFilterNeverReportsUnseenIds() {
+        // Given - far more IDs than slots, so most slots get overwritten
+        for (long id = 1; id <= 10_000; id++) {
+            idempotentConsumerService.recordHandled(id);
+        }
+
+        // When / Then
+        for (long id = 10_001; id <= 20_000; id++) {
+            assertFalse(idempotentConsumerService.isDuplicate(id));
+        }
+        assertTrue(idempotentConsumerService.isDuplicate(10_000L));
+    }
+
+    @Test
+    void testClaimConflictIsCountedButNotRemembered() {
+        // When: another consumer holds the claim, and may yet hand the notification back
+        idempotentConsumerService.recordClaimConflict(7L);
+
+        // Then
+        assertEquals(1, idempotentConsumerService.getStats().getClaimConflicts());
+        assertFalse(idempotentConsumerService.isDuplicate(7L));
+    }
+}
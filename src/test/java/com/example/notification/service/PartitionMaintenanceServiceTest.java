@@ -0,0 +1,28 @@
+package com.example.notification.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionMaintenanceServiceTest {
+
+    @Test
+    void testOnlyMonthsBeforeCutoffAreDropped() {
+        // Given
+        List<String> partitions = List.of(
+                "notifications_default",
+                "notifications_p202601",
+                "notifications_p202602",
+                "notifications_p202603",
+                "notifications_p202604");
+
+        // When
+        List<String> expired = PartitionMaintenanceService.partitionsToDrop(partitions, YearMonth.of(2026, 3));
+
+        // Then
+        assertEquals(List.of("notifications_p202601", "notifications_p202602"), expired);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.notification.service;
+
+import com.example.notification.entity.ChannelDeliveryState;
+import com.example.notification.entity.Notification;
+import com.example.notification.enums.NotificationChannel;
+import com.example.notification.enums.NotificationPriority;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PresenceServiceTest {
+
+    private RedisTemplate<String, String> redisTemplate;
+    private PresenceService presenceService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        when(redisTemplate.opsForValue()).thenReturn(mock(ValueOperations.class));
+
+        presenceService = new PresenceService();
+        ReflectionTestUtils.setField(presenceService, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(presenceService, "enabled", true);
+        ReflectionTestUtils.setField(presenceService, "offlineChannel", NotificationChannel.PUSH);
+        ReflectionTestUtils.setField(presenceService, "cacheTtlMs", 60000L);
+        ReflectionTestUtils.setField(presenceService, "cacheSize", 1000);
+        ReflectionTestUtils.setField(presenceService, "nodeTtlMs", 30000L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testOfflineUserIsRoutedToOfflineChannelAndCached() {
+        // Given: first script call assigns the user index, second reports the bit unset on every node
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(7L, 0L);
+        Notification notification = new Notification("user-1", "Hi", "Hello",
+                NotificationPriority.MEDIUM, NotificationChannel.WEBSOCKET);
+
+        // When
+        boolean rerouted = presenceService.applyPresenceRouting(notification);
+
+        // Then
+        assertTrue(rerouted);
+        assertEquals(NotificationChannel.PUSH, notification.getChannel());
+        assertFalse(presenceService.isOnline("user-1"));
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+        assertEquals(1, presenceService.getStats().getCacheHits());
+        assertEquals(1, presenceService.getStats().getReroutes());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testLocallyConnectedUserNeedsNoLookup() {
+        // Given
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(3L);
+        presenceService.userConnected("user-2");
+        Notification notification = new Notification("user-2", "Hi", "Hello",
+                NotificationPriority.MEDIUM, NotificationChannel.WEBSOCKET);
+
+        // When
+        boolean rerouted = presenceService.applyPresenceRouting(notification);
+
+        // Then
+        assertFalse(rerouted);
+        assertEquals(NotificationChannel.WEBSOCKET, notification.getChannel());
+        verify(redisTemplate.opsForValue()).setBit(anyString(), eq(3L), eq(true));
+        assertEquals(1, presenceService.getStats().getLocalHits());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testMultiChannelSwapsOnlyWebSocket() {
+        // Given
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(9L, 0L);
+        Notification notification = new Notification("user-3", "Hi", "Hello",
+                NotificationPriority.MEDIUM, NotificationChannel.EMAIL);
+        notification.setDeliveryState(new ChannelDeliveryState(
+                EnumSet.of(NotificationChannel.EMAIL, NotificationChannel.WEBSOCKET)));
+
+        // When
+        presenceService.applyPresenceRouting(notification);
+
+        // Then
+        assertEquals(EnumSet.of(NotificationChannel.EMAIL, NotificationChannel.PUSH),
+                notification.getDeliveryState().getChannels());
+        assertEquals(NotificationChannel.EMAIL, notification.getChannel());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRedisFailureKeepsWebSocket() {
+        // Given
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        Notification notification = new Notification("user-4", "Hi", "Hello",
+                NotificationPriority.MEDIUM, NotificationChannel.WEBSOCKET);
+
+        // When
+        boolean rerouted = presenceService.applyPresenceRouting(notification);
+
+        // Then
+        assertFalse(rerouted);
+        assertEquals(NotificationChannel.WEBSOCKET, notification.getChannel());
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.notification.service;
+
+import com.example.notification.entity.Notification;
+import com.example.notification.enums.NotificationChannel;
+import com.example.notification.processor.NotificationProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProviderRegistryTest {
+
+    private ProviderRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new ProviderRegistry();
+        ReflectionTestUtils.setField(registry, "environment", new MockEnvironment());
+        ReflectionTestUtils.setField(registry, "drainErrorRate", 0.5);
+        ReflectionTestUtils.setField(registry, "minSamples", 10);
+        ReflectionTestUtils.setField(registry, "drainDurationMs", 60000L);
+        ReflectionTestUtils.setField(registry, "latencyAlpha", 0.2);
+        ReflectionTestUtils.setField(registry, "errorAlpha", 0.2);
+        ReflectionTestUtils.setField(registry, "initialLatencyMs", 100.0);
+        registry.loadProviders();
+    }
+
+    @Test
+    void testConcurrentLoadIsSpreadByOutstandingRequests() throws Exception {
+        // Given
+        FakeProvider vendorA = new FakeProvider("vendor-a", 1, 200, true);
+        FakeProvider vendorB = new FakeProvider("vendor-b", 1, 200, true);
+        registry.register(vendorA);
+        registry.register(vendorB);
+
+        // When
+        List<CompletableFuture<Boolean>> sends = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            sends.add(registry.send(NotificationChannel.SMS, notification(i), "+15550000").toCompletableFuture());
+        }
+        CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(50, vendorA.calls.get());
+        assertEquals(50, vendorB.calls.get());
+    }
+
+    @Test
+    void testWeightsSkewTheSplit() throws Exception {
+        // Given
+        FakeProvider heavy = new FakeProvider("heavy", 3, 200, true);
+        FakeProvider light = new FakeProvider("light", 1, 200, true);
+        registry.register(heavy);
+        registry.register(light);
+
+        // When
+        List<CompletableFuture<Boolean>> sends = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            sends.add(registry.send(NotificationChannel.SMS, notification(i), "+15550000").toCompletableFuture());
+        }
+        CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(75, heavy.calls.get(), 1);
+        assertEquals(25, light.calls.get(), 1);
+    }
+
+    @Test
+    void testFailingProviderIsDrained() throws Exception {
+        // Given
+        FakeProvider healthy = new FakeProvider("healthy", 1, 0, true);
+        FakeProvider broken = new FakeProvider("broken", 100, 0, false);
+        registry.register(healthy);
+        registry.register(broken);
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            registry.send(NotificationChannel.SMS, notification(i), "+15550000").toCompletableFuture().get(1, TimeUnit.SECONDS);
+        }
+
+        // Then - the heavily weighted broken vendor only sees traffic until it is drained
+        Map<String, ProviderRegistry.ProviderStats> stats = registry.getProviderStats().get(NotificationChannel.SMS)
+                .stream().collect(Collectors.toMap(ProviderRegistry.ProviderStats::getName, s -> s));
+        assertTrue(stats.get("broken").isDrained());
+        assertEquals(1, stats.get("broken").getDrains());
+        assertEquals(10, broken.calls.get());
+        assertEquals(40, healthy.calls.get());
+    }
+
+    @Test
+    void testAllDrainedStillRoutes() throws Exception {
+        // Given
+        FakeProvider broken = new FakeProvider("broken", 1, 0, false);
+        registry.register(broken);
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            registry.send(NotificationChannel.SMS, notification(i), "+15550000").toCompletableFuture().get(1, TimeUnit.SECONDS);
+        }
+
+        // Then
+        assertEquals(20, broken.calls.get());
+        assertFalse(registry.hasProviders(NotificationChannel.EMAIL));
+    }
+
+    @Test
+    void testSendToSelectedProviderIgnoresLoad() throws Exception {
+        // Given: the first attempt went to vendor-a and is still outstanding there
+        FakeProvider vendorA = new FakeProvider("vendor-a", 1, 200, true);
+        FakeProvider vendorB = new FakeProvider("vendor-b", 1, 200, true);
+        registry.register(vendorA);
+        registry.register(vendorB);
+        String selected = registry.selectProvider(NotificationChannel.SMS);
+        CompletableFuture<Boolean> first = registry.send(NotificationChannel.SMS, selected, notification(1), "+15550000")
+                .toCompletableFuture();
+
+        // When: the hedge is sent while the other vendor is the less loaded one
+        CompletableFuture<Boolean> hedge = registry.send(NotificationChannel.SMS, selected, notification(1), "+15550000")
+                .toCompletableFuture();
+        CompletableFuture.allOf(first, hedge).get(5, TimeUnit.SECONDS);
+
+        // Then: both reached the same vendor, which can drop the duplicate
+        FakeProvider chosen = "vendor-a".equals(selected) ? vendorA : vendorB;
+        FakeProvider other = chosen == vendorA ? vendorB : vendorA;
+        assertEquals(2, chosen.calls.get());
+        assertEquals(0, other.calls.get());
+    }
+
+    private Notification notification(long id) {
+        Notification notification = new Notification();
+        notification.setId(id);
+        notification.setTitle("Title " + id);
+        notification.setMessage("Message " + id);
+        return notification;
+    }
+
+    private static class FakeProvider implements NotificationProvider {
+        private final String name;
+        private final int weight;
+        private final long latencyMs;
+        private final boolean succeeds;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        FakeProvider(String name, int weight, long latencyMs, boolean succeeds) {
+            this.name = name;
+            this.weight = weight;
+            this.latencyMs = latencyMs;
+            this.succeeds = succeeds;
+        }
+
+        @Override
+        public String getName() { return name; }
+
+        @Override
+        public NotificationChannel getChannel() { return NotificationChannel.SMS; }
+
+        @Override
+        public int getWeight() { return weight; }
+
+        @Override
+        public CompletionStage<Boolean> send(Notification notification, String recipient) {
+            calls.incrementAndGet();
+            if (latencyMs == 0) {
+                return CompletableFuture.completedFuture(succeeds);
+            }
+            return CompletableFuture.supplyAsync(() -> succeeds,
+                    CompletableFuture.delayedExecutor(latencyMs, TimeUnit.MILLISECONDS));
+        }
+    }
+}
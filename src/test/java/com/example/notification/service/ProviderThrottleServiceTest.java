@@ -0,0 +1,191 @@
+package com.example.notification.service;
+
+import com.example.notification.enums.NotificationChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProviderThrottleServiceTest {
+
+    private RedisTemplate<String, String> redisTemplate;
+    private ProviderThrottleService throttleService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("notification.throttle.sms.rate-per-second", "100")
+                .withProperty("notification.throttle.sms.prefetch", "5")
+                .withProperty("notification.providers.sms.names", "vendor-a,vendor-b")
+                .withProperty("notification.providers.sms.vendor-a.rate-per-second", "100")
+                .withProperty("notification.providers.sms.vendor-b.rate-per-second", "100");
+
+        throttleService = new ProviderThrottleService();
+        ReflectionTestUtils.setField(throttleService, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(throttleService, "environment", environment);
+        ReflectionTestUtils.setField(throttleService, "enabled", true);
+        ReflectionTestUtils.setField(throttleService, "maxWaitMs", 200L);
+        ReflectionTestUtils.setField(throttleService, "prefetchTtlMs", 1000L);
+        ReflectionTestUtils.setField(throttleService, "expectedNodes", 2);
+        throttleService.createBuckets();
+    }
+
+    @AfterEach
+    void tearDown() {
+        throttleService.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPrefetchedPermitsAvoidRedisRoundTrips() {
+        // Given
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(5L, 0L));
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            assertTrue(throttleService.acquire(NotificationChannel.SMS));
+        }
+
+        // Then
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+        assertEquals(10, throttleService.getThrottleStats().get("sms").getGranted());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testWaitsForPermitAndTimesOut() {
+        // Given
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(0L, 50L));
+
+        // When
+        long start = System.currentTimeMillis();
+        boolean acquired = throttleService.acquire(NotificationChannel.SMS);
+
+        // Then
+        assertFalse(acquired);
+        assertTrue(System.currentTimeMillis() - start >= 200);
+        ProviderThrottleService.ThrottleStats stats = throttleService.getThrottleStats().get("sms");
+        assertEquals(1, stats.getWaits());
+        assertEquals(1, stats.getTimeouts());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFallsBackToLocalLimitWhenRedisIsDown() {
+        // Given
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        // When - 100/s split over 2 nodes allows roughly 10 permits in 200ms
+        int granted = 0;
+        long deadline = System.currentTimeMillis() + 200;
+        while (System.currentTimeMillis() < deadline && throttleService.acquire(NotificationChannel.SMS)) {
+            granted++;
+        }
+
+        // Then
+        assertTrue(granted > 0 && granted <= 15, "Granted " + granted);
+        assertTrue(throttleService.getThrottleStats().get("sms").getRedisFailures() > 0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAsyncWaitDoesNotHoldTheCaller() throws Exception {
+        // Given: no permit now, one after the bucket refills
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(0L, 50L))
+                .thenReturn(List.of(1L, 0L));
+
+        // When
+        long start = System.currentTimeMillis();
+        CompletableFuture<Boolean> permit = throttleService.acquireAsync(NotificationChannel.SMS);
+        long returnedAfter = System.currentTimeMillis() - start;
+
+        // Then
+        assertTrue(returnedAfter < 40, "Caller held for " + returnedAfter + "ms");
+        assertFalse(permit.isDone());
+        assertTrue(permit.get(1, TimeUnit.SECONDS));
+        ProviderThrottleService.ThrottleStats stats = throttleService.getThrottleStats().get("sms");
+        assertEquals(1, stats.getWaits());
+        assertEquals(1, stats.getGranted());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAsyncWaitTimesOutWithoutPermit() throws Exception {
+        // Given
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(0L, 50L));
+
+        // When
+        boolean acquired = throttleService.acquireAsync(NotificationChannel.SMS).get(1, TimeUnit.SECONDS);
+
+        // Then
+        assertFalse(acquired);
+        assertEquals(1, throttleService.getThrottleStats().get("sms").getTimeouts());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testTryAcquireNeverWaits() {
+        // Given
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(0L, 500L));
+
+        // When
+        long start = System.currentTimeMillis();
+        boolean acquired = throttleService.tryAcquire(NotificationChannel.SMS);
+
+        // Then
+        assertFalse(acquired);
+        assertTrue(System.currentTimeMillis() - start < 100);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testEachVendorHasItsOwnBucket() {
+        // Given: vendor-a's bucket is empty, vendor-b's is not
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("provider_throttle:sms:vendor-a")), any(Object[].class)))
+                .thenReturn(List.of(0L, 500L));
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("provider_throttle:sms:vendor-b")), any(Object[].class)))
+                .thenReturn(List.of(5L, 0L));
+
+        // When
+        boolean vendorA = throttleService.tryAcquire(NotificationChannel.SMS, "vendor-a");
+        boolean vendorB = throttleService.tryAcquire(NotificationChannel.SMS, "vendor-b");
+
+        // Then: vendor-b's permits are not limited by vendor-a's account, nor by the channel bucket
+        assertFalse(vendorA);
+        assertTrue(vendorB);
+        assertEquals(1, throttleService.getThrottleStats().get("sms:vendor-b").getGranted());
+        assertEquals(0, throttleService.getThrottleStats().get("sms").getGranted());
+    }
+
+    @Test
+    void testUnconfiguredVendorIsUnlimited() {
+        assertTrue(throttleService.acquire(NotificationChannel.SMS, "vendor-c"));
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void testUnconfiguredChannelIsUnlimited() {
+        assertTrue(throttleService.acquire(NotificationChannel.EMAIL));
+        verifyNoInteractions(redisTemplate);
+    }
+}
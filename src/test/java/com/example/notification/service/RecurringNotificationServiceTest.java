@@ -0,0 +1,205 @@
+package com.example.notification.service;
+
+import com.example.notification.entity.Notification;
+import com.example.notification.entity.NotificationSeries;
+import com.example.notification.enums.NotificationChannel;
+import com.example.notification.enums.NotificationPriority;
+import com.example.notification.enums.NotificationStatus;
+import com.example.notification.repository.NotificationRepository;
+import com.example.notification.repository.NotificationSeriesRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RecurringNotificationServiceTest {
+
+    private NotificationSeriesRepository seriesRepository;
+    private NotificationRepository notificationRepository;
+    private ScheduledNotificationService scheduledNotificationService;
+    private StatusTransitionService statusTransitionService;
+    private TransactionTemplate transactionTemplate;
+    private RecurringNotificationService recurringNotificationService;
+
+    @BeforeEach
+    void setUp() {
+        seriesRepository = mock(NotificationSeriesRepository.class);
+        notificationRepository = mock(NotificationRepository.class);
+        scheduledNotificationService = mock(ScheduledNotificationService.class);
+        statusTransitionService = mock(StatusTransitionService.class);
+        transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        PriorityService priorityService = mock(PriorityService.class);
+        when(priorityService.calculatePriority(any(Notification.class))).thenReturn(NotificationPriority.MEDIUM);
+
+        recurringNotificationService = new RecurringNotificationService();
+        ReflectionTestUtils.setField(recurringNotificationService, "seriesRepository", seriesRepository);
+        ReflectionTestUtils.setField(recurringNotificationService, "notificationRepository", notificationRepository);
+        ReflectionTestUtils.setField(recurringNotificationService, "scheduledNotificationService", scheduledNotificationService);
+        ReflectionTestUtils.setField(recurringNotificationService, "statusTransitionService", statusTransitionService);
+        ReflectionTestUtils.setField(recurringNotificationService, "priorityService", priorityService);
+        ReflectionTestUtils.setField(recurringNotificationService, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(recurringNotificationService, "auditAppender", mock(AuditAppender.class));
+        ReflectionTestUtils.setField(recurringNotificationService, "windowMinutes", 10L);
+        ReflectionTestUtils.setField(recurringNotificationService, "pageSize", 500);
+    }
+
+    @Test
+    void testAdvanceMovesToTheNextOccurrence() {
+        // Given: daily at 09:00, occurrence due shortly
+        NotificationSeries series = dailySeries(LocalDateTime.of(2026, 1, 5, 9, 0));
+
+        // When
+        recurringNotificationService.advance(series, LocalDateTime.of(2026, 1, 5, 8, 55));
+
+        // Then
+        assertEquals(LocalDateTime.of(2026, 1, 6, 9, 0), series.getNextFireAt());
+        assertEquals(LocalDateTime.of(2026, 1, 5, 9, 0), series.getLastFiredAt());
+        assertEquals(1, series.getOccurrenceCount());
+        assertTrue(series.isActive());
+    }
+
+    @Test
+    void testAdvanceAfterDowntimeSkipsMissedOccurrences() {
+        // Given: the node was down for several days
+        NotificationSeries series = dailySeries(LocalDateTime.of(2026, 1, 1, 9, 0));
+
+        // When
+        recurringNotificationService.advance(series, LocalDateTime.of(2026, 1, 5, 12, 0));
+
+        // Then: one occurrence was materialized, the next is the first one after now
+        assertEquals(LocalDateTime.of(2026, 1, 6, 9, 0), series.getNextFireAt());
+        assertEquals(1, series.getOccurrenceCount());
+    }
+
+    @Test
+    void testAdvancePastEndDeactivatesSeries() {
+        // Given
+        NotificationSeries series = dailySeries(LocalDateTime.of(2026, 1, 5, 9, 0));
+        series.setEndAt(LocalDateTime.of(2026, 1, 5, 23, 0));
+
+        // When
+        recurringNotificationService.advance(series, LocalDateTime.of(2026, 1, 5, 8, 55));
+
+        // Then
+        assertNull(series.getNextFireAt());
+        assertFalse(series.isActive());
+    }
+
+    @Test
+    void testMaterializeSchedulesClaimedSeriesAndAdvancesIt() {
+        // Given
+        LocalDateTime fireAt = LocalDateTime.now().plusMinutes(5).withNano(0);
+        NotificationSeries series = dailySeries(fireAt);
+        when(seriesRepository.claimDueSeries(any(LocalDateTime.class), eq(0L), eq(500)))
+                .thenReturn(List.of(series));
+        when(notificationRepository.save(any(Notification.class))).thenAnswer(invocation -> {
+            Notification notification = invocation.getArgument(0);
+            notification.setId(5L);
+            return notification;
+        });
+
+        // When
+        recurringNotificationService.materializeDueOccurrences();
+
+        // Then
+        verify(scheduledNotificationService).scheduleNotification(argThat(notification ->
+                notification.getId() == 5L && fireAt.equals(notification.getScheduledAt())
+                        && notification.getSeriesId() == 3L));
+        verify(seriesRepository).save(series);
+        assertTrue(series.getNextFireAt().isAfter(fireAt));
+        assertEquals(fireAt, series.getLastFiredAt());
+    }
+
+    @Test
+    void testTimersAreArmedAfterThePageCommits() {
+        // Given
+        NotificationSeries series = dailySeries(LocalDateTime.now().plusMinutes(5).withNano(0));
+        when(seriesRepository.claimDueSeries(any(LocalDateTime.class), eq(0L), eq(500)))
+                .thenReturn(List.of(series));
+        when(notificationRepository.save(any(Notification.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            Object page = invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+            verify(scheduledNotificationService, never()).scheduleNotification(any());
+            return page;
+        });
+
+        // When
+        recurringNotificationService.materializeDueOccurrences();
+
+        // Then
+        verify(transactionTemplate, times(1)).execute(any());
+        verify(scheduledNotificationService).scheduleNotification(any(Notification.class));
+    }
+
+    @Test
+    void testCancelSeriesCancelsMaterializedOccurrence() {
+        // Given
+        NotificationSeries series = dailySeries(LocalDateTime.of(2026, 1, 5, 9, 0));
+        when(seriesRepository.findById(3L)).thenReturn(Optional.of(series));
+        when(notificationRepository.findIdsBySeriesIdAndStatus(3L, NotificationStatus.SCHEDULED))
+                .thenReturn(List.of(11L));
+        when(statusTransitionService.transition(eq(11L), eq(NotificationStatus.SCHEDULED),
+                eq(NotificationStatus.FAILED), anyString(), anyString())).thenReturn(true);
+
+        // When
+        boolean cancelled = recurringNotificationService.cancelSeries(3L, "user-1");
+
+        // Then
+        assertTrue(cancelled);
+        assertFalse(series.isActive());
+        assertNull(series.getNextFireAt());
+        verify(scheduledNotificationService).cancelScheduledNotification(11L);
+    }
+
+    @Test
+    void testCancelSeriesKeepsOccurrenceThatAlreadyFired() {
+        // Given: the occurrence left SCHEDULED before the cancel got to it
+        NotificationSeries series = dailySeries(LocalDateTime.of(2026, 1, 5, 9, 0));
+        when(seriesRepository.findById(3L)).thenReturn(Optional.of(series));
+        when(notificationRepository.findIdsBySeriesIdAndStatus(3L, NotificationStatus.SCHEDULED))
+                .thenReturn(List.of(11L));
+        when(statusTransitionService.transition(anyLong(), any(), any(), anyString(), anyString())).thenReturn(false);
+
+        // When
+        boolean cancelled = recurringNotificationService.cancelSeries(3L, "user-1");
+
+        // Then
+        assertTrue(cancelled);
+        verify(scheduledNotificationService, never()).cancelScheduledNotification(anyLong());
+    }
+
+    @Test
+    void testCancelSeriesOfAnotherUserIsRefused() {
+        // Given
+        NotificationSeries series = dailySeries(LocalDateTime.of(2026, 1, 5, 9, 0));
+        when(seriesRepository.findById(3L)).thenReturn(Optional.of(series));
+
+        // When
+        boolean cancelled = recurringNotificationService.cancelSeries(3L, "user-2");
+
+        // Then
+        assertFalse(cancelled);
+        assertTrue(series.isActive());
+        verify(notificationRepository, never()).findIdsBySeriesIdAndStatus(anyLong(), any());
+        verify(seriesRepository, never()).save(any());
+    }
+
+    private NotificationSeries dailySeries(LocalDateTime nextFireAt) {
+        NotificationSeries series = new NotificationSeries("user-1", "Standup", "Daily standup",
+                NotificationPriority.MEDIUM, NotificationChannel.EMAIL, "0 0 9 * * *");
+        series.setId(3L);
+        series.setNextFireAt(nextFireAt);
+        return series;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.notification.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Schedule/fire throughput of the Redis delay queue. Needs the Redis from docker-compose:
+ * mvn test -Dtest=RedisScheduledNotificationQueueBenchmarkTest -Dbenchmark.redis=true
+ */
+@EnabledIfSystemProperty(named = "benchmark.redis", matches = "true")
+class RedisScheduledNotificationQueueBenchmarkTest {
+
+    private static final int NOTIFICATIONS = 50_000;
+    private static final int BATCH_SIZE = 200;
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private RedisScheduledNotificationQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory("localhost", 6379);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+
+        queue = new RedisScheduledNotificationQueue();
+        ReflectionTestUtils.setField(queue, "redisTemplate", redisTemplate);
+        redisTemplate.delete(RedisScheduledNotificationQueue.SCHEDULE_KEY);
+    }
+
+    @AfterEach
+    void tearDown() {
+        redisTemplate.delete(RedisScheduledNotificationQueue.SCHEDULE_KEY);
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void scheduleAndFireThroughput() {
+        LocalDateTime dueAt = LocalDateTime.now().minusSeconds(1);
+
+        long scheduleStart = System.nanoTime();
+        for (long id = 1; id <= NOTIFICATIONS; id++) {
+            queue.schedule(id, dueAt.plusNanos(id * 1000));
+        }
+        long scheduleNanos = System.nanoTime() - scheduleStart;
+
+        Set<Long> fired = new HashSet<>();
+        LocalDateTime now = LocalDateTime.now().plusSeconds(1);
+        long fireStart = System.nanoTime();
+        List<Long> batch;
+        do {
+            batch = queue.popDue(now, BATCH_SIZE);
+            fired.addAll(batch);
+        } while (!batch.isEmpty());
+        long fireNanos = System.nanoTime() - fireStart;
+
+        System.out.printf("Scheduled %d notifications: %.0f ops/s%n",
+                NOTIFICATIONS, NOTIFICATIONS / (scheduleNanos / 1e9));
+        System.out.printf("Fired %d notifications in batches of %d: %.0f ops/s%n",
+                fired.size(), BATCH_SIZE, fired.size() / (fireNanos / 1e9));
+
+        assertEquals(NOTIFICATIONS, fired.size());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void cancelRemovesSingleEntry() {
+        queue.schedule(1L, LocalDateTime.now().plusMinutes(5));
+        queue.schedule(2L, LocalDateTime.now().plusMinutes(5));
+
+        assertTrue(queue.cancel(1L));
+        assertFalse(queue.cancel(1L));
+        assertEquals(1, queue.size());
+    }
+}
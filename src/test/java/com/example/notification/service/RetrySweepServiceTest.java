@@ -0,0 +1,117 @@
+package com.example.notification.service;
+
+import com.example.notification.entity.Notification;
+import com.example.notification.enums.NotificationStatus;
+import com.example.notification.repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RetrySweepServiceTest {
+
+    private NotificationRepository notificationRepository;
+    private StatusTransitionService statusTransitionService;
+    private QueueService queueService;
+    private RetrySweepService retrySweepService;
+
+    @BeforeEach
+    void setUp() {
+        notificationRepository = mock(NotificationRepository.class);
+        statusTransitionService = mock(StatusTransitionService.class);
+        queueService = mock(QueueService.class);
+
+        retrySweepService = new RetrySweepService();
+        ReflectionTestUtils.setField(retrySweepService, "notificationRepository", notificationRepository);
+        ReflectionTestUtils.setField(retrySweepService, "statusTransitionService", statusTransitionService);
+        ReflectionTestUtils.setField(retrySweepService, "queueService", queueService);
+        ReflectionTestUtils.setField(retrySweepService, "baseDelayMs", 1000L);
+        ReflectionTestUtils.setField(retrySweepService, "maxDelayMs", 5000L);
+        ReflectionTestUtils.setField(retrySweepService, "deferMs", 200L);
+        ReflectionTestUtils.setField(retrySweepService, "batchSize", 500);
+    }
+
+    @Test
+    void testBackoffDoublesPerAttemptUpToTheCap() {
+        // When
+        long first = delayMs(retrySweepService.nextRetryAt(0));
+        long third = delayMs(retrySweepService.nextRetryAt(2));
+        long capped = delayMs(retrySweepService.nextRetryAt(10));
+
+        // Then
+        assertEquals(1000, first, 100);
+        assertEquals(4000, third, 100);
+        assertEquals(5000, capped, 100);
+    }
+
+    @Test
+    void testOnlyReleasedRetriesAreRequeued() {
+        // Given: another node released notification 2 between the read and the UPDATE
+        when(notificationRepository.findDueRetryIds(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L));
+        when(notificationRepository.releaseDueRetries(eq(List.of(1L, 2L)), any(LocalDateTime.class),
+                anyInt(), anyInt(), anyString())).thenReturn(List.of(1L));
+        Notification notification = pending(1L);
+        when(notificationRepository.findAllById(List.of(1L))).thenReturn(List.of(notification));
+
+        // When
+        retrySweepService.requeueDueRetries();
+
+        // Then
+        verify(queueService).sendToQueue(notification);
+        verify(queueService, times(1)).sendToQueue(any());
+        assertEquals(1, retrySweepService.getStats().getRetriesRequeued());
+    }
+
+    @Test
+    void testFailedRequeueGoesBackToRetrying() {
+        // Given
+        when(notificationRepository.findDueRetryIds(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(1L));
+        when(notificationRepository.releaseDueRetries(anyList(), any(LocalDateTime.class), anyInt(), anyInt(), anyString()))
+                .thenReturn(List.of(1L));
+        when(notificationRepository.findAllById(List.of(1L))).thenReturn(List.of(pending(1L)));
+        doThrow(new RuntimeException("broker down")).when(queueService).sendToQueue(any());
+
+        // When
+        retrySweepService.requeueDueRetries();
+
+        // Then
+        verify(statusTransitionService).deferRetry(eq(1L), eq(NotificationStatus.PENDING), contains("broker down"),
+                any(LocalDateTime.class));
+        assertEquals(1, retrySweepService.getStats().getRequeueFailures());
+    }
+
+    @Test
+    void testNothingDueReleasesNothing() {
+        // Given
+        when(notificationRepository.findDueRetryIds(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        // When
+        retrySweepService.requeueDueRetries();
+
+        // Then
+        verify(notificationRepository, never()).releaseDueRetries(anyList(), any(), anyInt(), anyInt(), anyString());
+        verifyNoInteractions(queueService);
+    }
+
+    private long delayMs(LocalDateTime retryAt) {
+        return Duration.between(LocalDateTime.now(), retryAt).toMillis();
+    }
+
+    private Notification pending(Long id) {
+        Notification notification = new Notification();
+        notification.setId(id);
+        notification.setStatus(NotificationStatus.PENDING);
+        return notification;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.notification.service;
+
+import com.example.notification.dto.PageCursor;
+import com.example.notification.entity.NotificationAudit;
+import com.example.notification.enums.NotificationStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentedAuditLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testTrailsAreServedNewestFirst() {
+        // Given
+        SegmentedAuditLog log = openLog();
+        log.append(audit(1L, "user-1", NotificationStatus.PENDING, NotificationStatus.PROCESSING, 3));
+        log.append(audit(2L, "user-2", NotificationStatus.PENDING, NotificationStatus.PROCESSING, 2));
+        log.append(audit(1L, "user-1", NotificationStatus.PROCESSING, NotificationStatus.SENT, 1));
+
+        // When
+        List<NotificationAudit> trail = trail(log, 1L);
+
+        // Then
+        assertEquals(2, trail.size());
+        assertEquals(NotificationStatus.SENT, trail.get(0).getNewStatus());
+        assertEquals(NotificationStatus.PROCESSING, trail.get(1).getNewStatus());
+        assertEquals("user-1", trail.get(1).getUserId());
+        assertEquals(1, userTrail(log, "user-2").size());
+        assertTrue(trail(log, 99L).isEmpty());
+    }
+
+    @Test
+    void testIndexIsRebuiltAcrossSegmentsOnReopen() {
+        // Given: 64KB segments and ~4KB records force several segment files
+        SegmentedAuditLog log = openLog();
+        String details = "x".repeat(4000);
+        for (int i = 0; i < 40; i++) {
+            NotificationAudit audit = audit(7L, "user-7", null, NotificationStatus.PENDING, 0);
+            audit.setDetails(details);
+            log.append(audit);
+        }
+        log.close();
+
+        // When
+        SegmentedAuditLog reopened = openLog();
+
+        // Then
+        assertTrue(reopened.getStats().getSegments() > 1);
+        assertEquals(40, trail(reopened, 7L).size());
+        assertEquals(40, userTrail(reopened, "user-7").size());
+        assertEquals(details, trail(reopened, 7L).get(0).getDetails());
+    }
+
+    @Test
+    void testPagesStopAtTheCursor() {
+        // Given
+        SegmentedAuditLog log = openLog();
+        for (int i = 0; i < 5; i++) {
+            log.append(audit(1L, "user-1", null, NotificationStatus.PENDING, 5 - i));
+        }
+
+        // When
+        List<NotificationAudit> first = log.findByNotificationId(1L, PageCursor.FIRST.getTimestamp(),
+                PageCursor.FIRST.getId(), 2);
+        NotificationAudit last = first.get(first.size() - 1);
+        List<NotificationAudit> second = log.findByNotificationId(1L, last.getTimestamp(), last.getId(), 2);
+        List<NotificationAudit> third = log.findByNotificationId(1L, second.get(1).getTimestamp(), second.get(1).getId(), 2);
+
+        // Then: every record exactly once, newest first
+        assertEquals(2, first.size());
+        assertEquals(2, second.size());
+        assertEquals(1, third.size());
+        assertTrue(first.get(0).getTimestamp().isAfter(first.get(1).getTimestamp()));
+        assertTrue(last.getTimestamp().isAfter(second.get(0).getTimestamp()));
+        assertTrue(second.get(1).getTimestamp().isAfter(third.get(0).getTimestamp()));
+    }
+
+    @Test
+    void testCompactionDeletesExpiredSegmentsAndKeepsIds() {
+        // Given
+        SegmentedAuditLog log = openLog();
+        String details = "x".repeat(4000);
+        for (int i = 0; i < 40; i++) {
+            NotificationAudit audit = audit((long) i, "user-1", null, NotificationStatus.PENDING, 0);
+            audit.setTimestamp(LocalDateTime.now().minusDays(i < 30 ? 60 : 0));
+            audit.setDetails(details);
+            log.append(audit);
+        }
+        Long idBefore = trail(log, 35L).get(0).getId();
+
+        // When
+        log.compact();
+
+        // Then: whole expired segments are gone; a segment that straddles the cutoff is kept as is
+        assertTrue(log.getStats().getSegmentsDeleted() > 0);
+        assertTrue(trail(log, 0L).isEmpty());
+        assertEquals(idBefore, trail(log, 35L).get(0).getId());
+        int remaining = userTrail(log, "user-1").size();
+        assertTrue(remaining >= 10 && remaining < 40, "Kept " + remaining + " records");
+    }
+
+    private List<NotificationAudit> trail(SegmentedAuditLog log, Long notificationId) {
+        return log.findByNotificationId(notificationId, PageCursor.FIRST.getTimestamp(), PageCursor.FIRST.getId(), 1000);
+    }
+
+    private List<NotificationAudit> userTrail(SegmentedAuditLog log, String userId) {
+        return log.findByUserId(userId, PageCursor.FIRST.getTimestamp(), PageCursor.FIRST.getId(), 1000);
+    }
+
+    private SegmentedAuditLog openLog() {
+        SegmentedAuditLog log = new SegmentedAuditLog();
+        ReflectionTestUtils.setField(log, "enabled", true);
+        ReflectionTestUtils.setField(log, "directory", directory.toString());
+        ReflectionTestUtils.setField(log, "segmentSizeBytes", 64 * 1024);
+        ReflectionTestUtils.setField(log, "retentionDays", 30);
+        log.open();
+        return log;
+    }
+
+    private NotificationAudit audit(Long notificationId, String userId, NotificationStatus previous,
+                                    NotificationStatus next, int minutesAgo) {
+        NotificationAudit audit = new NotificationAudit(notificationId, userId, previous, next, "details");
+        audit.setTimestamp(LocalDateTime.now().minusMinutes(minutesAgo));
+        return audit;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.notification.service;
+
+import com.example.notification.enums.NotificationPriority;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SendTimeSmootherTest {
+
+    private SendTimeSmoother smoother;
+    private LocalDateTime nineAm;
+
+    @BeforeEach
+    void setUp() {
+        smoother = new SendTimeSmoother();
+        ReflectionTestUtils.setField(smoother, "enabled", true);
+        ReflectionTestUtils.setField(smoother, "maxPerSecond", 2);
+        ReflectionTestUtils.setField(smoother, "highToleranceSeconds", 1);
+        ReflectionTestUtils.setField(smoother, "mediumToleranceSeconds", 5);
+        ReflectionTestUtils.setField(smoother, "lowToleranceSeconds", 10);
+
+        nineAm = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    @Test
+    void testSpreadsBurstAcrossSeconds() {
+        // Given two slots per second, six LOW firings at 09:00:00
+        // When & Then
+        assertEquals(nineAm, smoother.assignFireTime(nineAm, NotificationPriority.LOW));
+        assertEquals(nineAm, smoother.assignFireTime(nineAm, NotificationPriority.LOW));
+        assertEquals(nineAm.plusSeconds(1), smoother.assignFireTime(nineAm, NotificationPriority.LOW));
+        assertEquals(nineAm.plusSeconds(1), smoother.assignFireTime(nineAm, NotificationPriority.LOW));
+        assertEquals(nineAm.plusSeconds(2), smoother.assignFireTime(nineAm, NotificationPriority.LOW));
+        assertEquals(nineAm.plusSeconds(2), smoother.assignFireTime(nineAm, NotificationPriority.LOW));
+    }
+
+    @Test
+    void testCriticalAlwaysExact() {
+        // Given the 09:00:00 second is already full
+        smoother.assignFireTime(nineAm, NotificationPriority.LOW);
+        smoother.assignFireTime(nineAm, NotificationPriority.LOW);
+
+        // When & Then
+        assertEquals(nineAm, smoother.assignFireTime(nineAm, NotificationPriority.CRITICAL));
+    }
+
+    @Test
+    void testFullToleranceWindowFiresAtWindowEnd() {
+        // Given HIGH may only slip by one second and both seconds are full
+        for (int i = 0; i < 4; i++) {
+            smoother.assignFireTime(nineAm, NotificationPriority.HIGH);
+        }
+
+        // When & Then
+        assertEquals(nineAm.plusSeconds(1), smoother.assignFireTime(nineAm, NotificationPriority.HIGH));
+    }
+
+    @Test
+    void testReleasedSlotIsReused() {
+        // Given 09:00:00 is full and one of its firings is cancelled
+        smoother.assignFireTime(nineAm, NotificationPriority.LOW);
+        LocalDateTime cancelled = smoother.assignFireTime(nineAm, NotificationPriority.LOW);
+
+        // When
+        smoother.releaseFireTime(cancelled);
+
+        // Then
+        assertEquals(nineAm, smoother.assignFireTime(nineAm, NotificationPriority.LOW));
+        assertEquals(nineAm.plusSeconds(1), smoother.assignFireTime(nineAm, NotificationPriority.LOW));
+    }
+
+    @Test
+    void testDisabledLeavesTimeUntouched() {
+        ReflectionTestUtils.setField(smoother, "enabled", false);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(nineAm, smoother.assignFireTime(nineAm, NotificationPriority.LOW));
+        }
+    }
+}